@@ -3,9 +3,6 @@ package org.rabix.backend.local;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
-import java.nio.charset.Charset;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -40,6 +37,7 @@ import org.rabix.bindings.model.Job.JobStatus;
 import org.rabix.bindings.model.Resources;
 import org.rabix.common.config.ConfigModule;
 import org.rabix.common.helper.JSONHelper;
+import org.rabix.common.json.StreamingInputLoader;
 import org.rabix.common.logging.VerboseLogger;
 import org.rabix.common.retry.RetryInterceptorModule;
 import org.rabix.common.service.download.DownloadService;
@@ -70,12 +68,14 @@ import org.rabix.executor.pathmapper.OutputFileMapper;
 import org.rabix.executor.pathmapper.local.LocalPathMapper;
 import org.rabix.executor.service.ExecutorService;
 import org.rabix.executor.service.FilePermissionService;
+import org.rabix.executor.service.ImagePrefetchService;
 import org.rabix.executor.service.FileService;
 import org.rabix.executor.service.JobDataService;
 import org.rabix.executor.service.JobFitter;
 import org.rabix.executor.service.ResultCacheService;
 import org.rabix.executor.service.impl.ExecutorServiceImpl;
 import org.rabix.executor.service.impl.FilePermissionServiceImpl;
+import org.rabix.executor.service.impl.ImagePrefetchServiceImpl;
 import org.rabix.executor.service.impl.FileServiceImpl;
 import org.rabix.executor.service.impl.JobDataServiceImpl;
 import org.rabix.executor.service.impl.JobFitterImpl;
@@ -243,6 +243,7 @@ public class BackendCommandLine {
                 bind(FileService.class).to(FileServiceImpl.class).in(Scopes.SINGLETON);
                 bind(ExecutorService.class).to(ExecutorServiceImpl.class).in(Scopes.SINGLETON);
                 bind(FilePermissionService.class).to(FilePermissionServiceImpl.class).in(Scopes.SINGLETON);
+                bind(ImagePrefetchService.class).to(ImagePrefetchServiceImpl.class).in(Scopes.SINGLETON);
                 bind(ResultCacheService.class).to(ResultCacheServiceImpl.class).in(Scopes.SINGLETON);
               }
             }
@@ -279,8 +280,7 @@ public class BackendCommandLine {
 
       Map<String, Object> inputs;
       if (inputsFile != null) {
-        String inputsText = readFile(inputsFile.getAbsolutePath(), Charset.defaultCharset());
-        inputs = JSONHelper.readMap(JSONHelper.transformToJSON(inputsText));
+        inputs = StreamingInputLoader.load(inputsFile);
       } else {
         inputs = new HashMap<>();
         // No inputs file. If we didn't provide -- at the end, just print app help and exit
@@ -442,14 +442,6 @@ public class BackendCommandLine {
     }
   }
 
-  /**
-   * Reads content from a file
-   */
-  static String readFile(String path, Charset encoding) throws IOException {
-    byte[] encoded = Files.readAllBytes(Paths.get(path));
-    return new String(encoded, encoding);
-  }
-
   /**
    * Create command line options
    */
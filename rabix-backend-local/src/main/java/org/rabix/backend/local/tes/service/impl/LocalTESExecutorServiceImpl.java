@@ -409,6 +409,11 @@ public class LocalTESExecutorServiceImpl implements ExecutorService {
     throw new NotImplementedException("This method is not implemented");
   }
 
+  @Override
+  public void prefetch(String rootId, List<String> images) {
+    logger.debug("Skipping Docker image prefetch for {}, TES pulls images itself", rootId);
+  }
+
   @Override
   public void shutdown(Boolean stopEverything) {
     throw new NotImplementedException("This method is not implemented");
@@ -434,4 +439,29 @@ public class LocalTESExecutorServiceImpl implements ExecutorService {
     throw new NotImplementedException("This method is not implemented");
   }
 
+  @Override
+  public Integer getFreeSlots() {
+    return null;
+  }
+
+  @Override
+  public Long getAvailableCores() {
+    return null;
+  }
+
+  @Override
+  public Long getAvailableMemory() {
+    return null;
+  }
+
+  @Override
+  public Long getPrefetchedImages() {
+    return null;
+  }
+
+  @Override
+  public Long getFailedPrefetches() {
+    return null;
+  }
+
 }
@@ -0,0 +1,140 @@
+package org.rabix.benchmarks.common;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.rabix.common.helper.ChecksumHelper;
+import org.rabix.common.helper.ChecksumHelper.HashAlgorithm;
+
+import com.google.common.hash.Hashing;
+
+/**
+ * Checksums of Job output files of different sizes.
+ * Streaming hashes are compared with the former whole-file read (murmur3) and 1 KB buffer (SHA1/MD5) implementations,
+ * and a set of outputs hashed on the checksum pool with the same set hashed one by one.
+ * The files are touched before each uncached call so the memo doesn't answer it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChecksumHelperBenchmark {
+
+  private static final int FILE_COUNT = 4;
+
+  @Param({ "1", "64" })
+  private int sizeMb;
+
+  @Param({ "SHA1", "MURMUR3" })
+  private HashAlgorithm algorithm;
+
+  private File directory;
+  private List<File> files;
+
+  private long modified;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    directory = Files.createTempDirectory("checksum-benchmark").toFile();
+    files = new ArrayList<>();
+
+    Random random = new Random(0);
+    byte[] buffer = new byte[1024 * 1024];
+    for (int i = 0; i < FILE_COUNT; i++) {
+      File file = new File(directory, "output_" + i + ".bin");
+      try (OutputStream output = new FileOutputStream(file)) {
+        for (int mb = 0; mb < sizeMb; mb++) {
+          random.nextBytes(buffer);
+          output.write(buffer);
+        }
+      }
+      files.add(file);
+    }
+    modified = files.get(0).lastModified();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    FileUtils.deleteDirectory(directory);
+  }
+
+  private void touch() {
+    modified += 1000;
+    for (File file : files) {
+      file.setLastModified(modified);
+    }
+  }
+
+  @Benchmark
+  public String streaming() {
+    touch();
+    return ChecksumHelper.checksum(files.get(0), algorithm);
+  }
+
+  @Benchmark
+  public String memoized() {
+    return ChecksumHelper.checksum(files.get(0), algorithm);
+  }
+
+  @Benchmark
+  public String legacy() throws Exception {
+    File file = files.get(0);
+    if (algorithm == HashAlgorithm.MURMUR3) {
+      return Hashing.murmur3_128().hashBytes(Files.readAllBytes(file.toPath())).toString();
+    }
+    MessageDigest md = MessageDigest.getInstance(algorithm.name());
+    try (InputStream input = new FileInputStream(file)) {
+      byte[] dataBytes = new byte[1024];
+      int nread = 0;
+      while ((nread = input.read(dataBytes)) != -1) {
+        md.update(dataBytes, 0, nread);
+      }
+    }
+    return new String(md.digest(), "ISO-8859-1");
+  }
+
+  @Benchmark
+  public Map<File, String> outputSetParallel() {
+    touch();
+    return ChecksumHelper.checksum(files, algorithm);
+  }
+
+  @Benchmark
+  public Map<File, String> outputSetSerial() {
+    touch();
+    Map<File, String> result = new HashMap<>();
+    for (File file : files) {
+      result.put(file, ChecksumHelper.checksum(file, algorithm));
+    }
+    return result;
+  }
+
+}
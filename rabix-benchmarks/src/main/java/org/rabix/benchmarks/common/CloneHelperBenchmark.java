@@ -0,0 +1,87 @@
+package org.rabix.benchmarks.common;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.rabix.bindings.model.FileValue;
+import org.rabix.common.helper.CloneHelper;
+
+/**
+ * Deep copy of a Job input map holding a list of files with secondary files and metadata,
+ * the way Job inputs are copied for every scattered Job. Structural copy is compared with Java serialization.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CloneHelperBenchmark {
+
+  @Param({ "100", "5000" })
+  private int files;
+
+  private Map<String, Object> inputs;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    List<Object> reads = new ArrayList<>();
+    for (int i = 0; i < files; i++) {
+      String path = "/data/sample_" + i + ".bam";
+
+      List<FileValue> secondaryFiles = new ArrayList<>();
+      secondaryFiles.add(new FileValue(1024L, path + ".bai", "file://" + path + ".bai", null, null, null, "sample_" + i + ".bam.bai"));
+
+      Map<String, Object> metadata = new HashMap<>();
+      metadata.put("sample_id", "sample_" + i);
+      metadata.put("paired_end", i % 2 + 1);
+      metadata.put("platform", "Illumina");
+
+      Map<String, Object> properties = new HashMap<>();
+      properties.put("metadata", metadata);
+
+      reads.add(new FileValue(1024L * 1024L * i, path, "file://" + path, "sha1$" + Integer.toHexString(path.hashCode()), secondaryFiles, properties, "sample_" + i + ".bam"));
+    }
+    inputs = new HashMap<>();
+    inputs.put("reads", reads);
+    inputs.put("reference", new FileValue(3L * 1024 * 1024 * 1024, "/data/reference.fasta", "file:///data/reference.fasta", null, null, null, "reference.fasta"));
+    inputs.put("threads", 8);
+    inputs.put("prefix", "aligned");
+  }
+
+  @Benchmark
+  public Object structuralCopy() {
+    return CloneHelper.deepCopy(inputs);
+  }
+
+  @Benchmark
+  public Object serializationCopy() throws Exception {
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+      oos.writeObject(inputs);
+    }
+    try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()))) {
+      return ois.readObject();
+    }
+  }
+
+}
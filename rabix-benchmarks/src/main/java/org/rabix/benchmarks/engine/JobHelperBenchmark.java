@@ -0,0 +1,121 @@
+package org.rabix.benchmarks.engine;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.rabix.bindings.BindingsFactory;
+import org.rabix.bindings.helper.URIHelper;
+import org.rabix.bindings.model.Application;
+import org.rabix.bindings.model.Job;
+import org.rabix.bindings.model.Job.JobStatus;
+import org.rabix.bindings.model.LinkMerge;
+import org.rabix.bindings.model.dag.DAGLinkPort;
+import org.rabix.bindings.model.dag.DAGLinkPort.LinkPortType;
+import org.rabix.bindings.model.dag.DAGNode;
+import org.rabix.common.helper.ResourceHelper;
+import org.rabix.engine.JobHelper;
+import org.rabix.engine.db.DAGNodeDB;
+import org.rabix.engine.model.ContextRecord;
+import org.rabix.engine.model.ContextRecord.ContextStatus;
+import org.rabix.engine.model.JobRecord;
+import org.rabix.engine.model.VariableRecord;
+import org.rabix.engine.service.ContextRecordService;
+import org.rabix.engine.service.JobRecordService;
+import org.rabix.engine.service.JobRecordService.JobState;
+import org.rabix.engine.service.LinkRecordService;
+import org.rabix.engine.service.VariableRecordService;
+
+/**
+ * Throughput of building ready Jobs for the elements of a scatter.
+ * Compares the app encoded once per node and context with the app serialized and encoded for every Job.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JobHelperBenchmark {
+
+  private static final String CONTEXT_ID = "root";
+  private static final String NODE_ID = "root.translate";
+
+  @Param({ "1000" })
+  private int width;
+
+  private JobRecordService jobRecordService;
+  private VariableRecordService variableRecordService;
+  private LinkRecordService linkRecordService;
+  private ContextRecordService contextRecordService;
+
+  private DAGNodeDB cachedDB;
+  private DAGNodeDB uncachedDB;
+
+  private JobRecord[] jobRecords;
+  private int next;
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    String appJson = ResourceHelper.readResource(JobHelperBenchmark.class, "/apps/translate.cwl.json");
+    Application app = BindingsFactory.loadAppObject(URIHelper.createDataURI(appJson));
+    DAGNode node = new DAGNode(NODE_ID, Collections.<DAGLinkPort>emptyList(), Collections.<DAGLinkPort>emptyList(), null, app, new HashMap<String, Object>());
+
+    cachedDB = new DAGNodeDB();
+    cachedDB.loadDB(node, CONTEXT_ID);
+    uncachedDB = new UncachedDAGNodeDB();
+    uncachedDB.loadDB(node, CONTEXT_ID);
+
+    jobRecordService = new JobRecordService();
+    variableRecordService = new VariableRecordService();
+    linkRecordService = new LinkRecordService();
+    contextRecordService = new ContextRecordService();
+    contextRecordService.create(new ContextRecord(CONTEXT_ID, new HashMap<String, Object>(), ContextStatus.RUNNING));
+
+    jobRecords = new JobRecord[width];
+    for (int i = 0; i < width; i++) {
+      String jobId = NODE_ID + "." + (i + 1);
+      jobRecords[i] = new JobRecord(CONTEXT_ID, jobId, JobRecordService.generateUniqueId(), NODE_ID, JobState.READY, false, false, false, false);
+      jobRecordService.create(jobRecords[i]);
+      variableRecordService.create(new VariableRecord(CONTEXT_ID, jobId, "mRNA", LinkPortType.INPUT, "input-" + i + ".txt", LinkMerge.merge_nested));
+    }
+  }
+
+  private JobRecord nextJobRecord() {
+    next = (next + 1) % width;
+    return jobRecords[next];
+  }
+
+  @Benchmark
+  public Job encodedOnce() throws Exception {
+    return JobHelper.createReadyJob(nextJobRecord(), JobStatus.READY, jobRecordService, variableRecordService, linkRecordService, contextRecordService, cachedDB);
+  }
+
+  @Benchmark
+  public Job encodedPerJob() throws Exception {
+    return JobHelper.createReadyJob(nextJobRecord(), JobStatus.READY, jobRecordService, variableRecordService, linkRecordService, contextRecordService, uncachedDB);
+  }
+
+  /**
+   * Encodes the app on every call, the way Jobs were built before the encoded app was cached
+   */
+  private static class UncachedDAGNodeDB extends DAGNodeDB {
+    @Override
+    public String getEncodedApp(DAGNode node, String contextId) {
+      return URIHelper.createDataURI(node.getApp().serialize());
+    }
+  }
+
+}
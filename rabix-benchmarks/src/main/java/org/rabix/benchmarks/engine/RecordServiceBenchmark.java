@@ -0,0 +1,157 @@
+package org.rabix.benchmarks.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.rabix.bindings.model.LinkMerge;
+import org.rabix.bindings.model.dag.DAGLinkPort.LinkPortType;
+import org.rabix.engine.model.JobRecord;
+import org.rabix.engine.model.LinkRecord;
+import org.rabix.engine.model.VariableRecord;
+import org.rabix.engine.service.JobRecordService;
+import org.rabix.engine.service.JobRecordService.JobState;
+import org.rabix.engine.service.LinkRecordService;
+import org.rabix.engine.service.VariableRecordService;
+
+/**
+ * Lookups done by the output handler when one element of a wide scatter completes:
+ * find the Job, find and update its output variable, then follow the outgoing links to the gather step.
+ * The indexed record services are compared against linear scans over the same records.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecordServiceBenchmark {
+
+  private static final String CONTEXT_ID = "root";
+  private static final String GATHER_ID = "root.gather";
+
+  @Param({ "1000", "10000" })
+  private int width;
+
+  private JobRecordService jobRecordService;
+  private VariableRecordService variableRecordService;
+  private LinkRecordService linkRecordService;
+
+  private List<JobRecord> jobRecords;
+  private List<VariableRecord> variableRecords;
+  private List<LinkRecord> linkRecords;
+
+  private String[] jobIds;
+  private int next;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    jobRecordService = new JobRecordService();
+    variableRecordService = new VariableRecordService();
+    linkRecordService = new LinkRecordService();
+
+    jobRecords = new ArrayList<>();
+    variableRecords = new ArrayList<>();
+    linkRecords = new ArrayList<>();
+
+    jobIds = new String[width];
+    for (int i = 0; i < width; i++) {
+      String jobId = "root.step." + (i + 1);
+      jobIds[i] = jobId;
+
+      JobRecord jobRecord = new JobRecord(CONTEXT_ID, jobId, JobRecordService.generateUniqueId(), "root", JobState.RUNNING, false, false, false, false);
+      jobRecordService.create(jobRecord);
+      jobRecords.add(jobRecord);
+
+      VariableRecord input = new VariableRecord(CONTEXT_ID, jobId, "input", LinkPortType.INPUT, i, LinkMerge.merge_nested);
+      VariableRecord output = new VariableRecord(CONTEXT_ID, jobId, "output", LinkPortType.OUTPUT, null, LinkMerge.merge_nested);
+      variableRecordService.create(input);
+      variableRecordService.create(output);
+      variableRecords.add(input);
+      variableRecords.add(output);
+
+      LinkRecord link = new LinkRecord(CONTEXT_ID, jobId, "output", LinkPortType.OUTPUT, GATHER_ID, "input", LinkPortType.INPUT, i + 1);
+      linkRecordService.create(link);
+      linkRecords.add(link);
+    }
+    VariableRecord gatherInput = new VariableRecord(CONTEXT_ID, GATHER_ID, "input", LinkPortType.INPUT, null, LinkMerge.merge_nested);
+    variableRecordService.create(gatherInput);
+    variableRecords.add(gatherInput);
+  }
+
+  private String nextJobId() {
+    // stride through the scatter so consecutive invocations don't hit neighbouring records
+    next = (next + 7919) % width;
+    return jobIds[next];
+  }
+
+  @Benchmark
+  public void indexed(Blackhole blackhole) {
+    String jobId = nextJobId();
+
+    blackhole.consume(jobRecordService.find(jobId, CONTEXT_ID));
+
+    VariableRecord output = variableRecordService.find(jobId, "output", LinkPortType.OUTPUT, CONTEXT_ID);
+    variableRecordService.update(output);
+
+    for (LinkRecord link : linkRecordService.findBySource(jobId, "output", CONTEXT_ID)) {
+      blackhole.consume(variableRecordService.find(link.getDestinationJobId(), link.getDestinationJobPort(), link.getDestinationVarType(), CONTEXT_ID));
+    }
+  }
+
+  @Benchmark
+  public void linearScan(Blackhole blackhole) {
+    String jobId = nextJobId();
+
+    blackhole.consume(findJob(jobId));
+
+    VariableRecord output = findVariable(jobId, "output", LinkPortType.OUTPUT);
+    findVariable(output.getJobId(), output.getPortId(), output.getType()).setValue(output.getValue());
+
+    for (LinkRecord link : findLinksBySource(jobId, "output")) {
+      blackhole.consume(findVariable(link.getDestinationJobId(), link.getDestinationJobPort(), link.getDestinationVarType()));
+    }
+  }
+
+  private JobRecord findJob(String id) {
+    for (JobRecord jobRecord : jobRecords) {
+      if (jobRecord.getId().equals(id) && jobRecord.getRootId().equals(CONTEXT_ID)) {
+        return jobRecord;
+      }
+    }
+    return null;
+  }
+
+  private VariableRecord findVariable(String jobId, String portId, LinkPortType type) {
+    for (VariableRecord vr : variableRecords) {
+      if (vr.getJobId().equals(jobId) && vr.getPortId().equals(portId) && vr.getType().equals(type) && vr.getContextId().equals(CONTEXT_ID)) {
+        return vr;
+      }
+    }
+    return null;
+  }
+
+  private List<LinkRecord> findLinksBySource(String jobId, String portId) {
+    List<LinkRecord> result = new ArrayList<>();
+    for (LinkRecord lr : linkRecords) {
+      if (lr.getSourceJobId().equals(jobId) && lr.getSourceJobPort().equals(portId) && lr.getContextId().equals(CONTEXT_ID)) {
+        result.add(lr);
+      }
+    }
+    return result;
+  }
+
+}
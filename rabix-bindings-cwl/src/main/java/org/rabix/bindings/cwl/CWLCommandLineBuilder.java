@@ -20,6 +20,7 @@ import org.rabix.bindings.cwl.expression.CWLExpressionException;
 import org.rabix.bindings.cwl.expression.CWLExpressionResolver;
 import org.rabix.bindings.cwl.helper.CWLBeanHelper;
 import org.rabix.bindings.cwl.helper.CWLBindingHelper;
+import org.rabix.bindings.cwl.helper.CWLCompiledSchema;
 import org.rabix.bindings.cwl.helper.CWLFileValueHelper;
 import org.rabix.bindings.cwl.helper.CWLJobHelper;
 import org.rabix.bindings.cwl.helper.CWLSchemaHelper;
@@ -298,12 +299,13 @@ public class CWLCommandLineBuilder implements ProtocolCommandLineBuilder {
     if (value instanceof Map<?, ?>) {
       CWLCommandLinePart.Builder commandLinePartBuilder = new CWLCommandLinePart.Builder(position, isFile);
       commandLinePartBuilder.keyValue(keyValue);
+      CWLCompiledSchema compiledSchema = commandLineTool.getCompiledSchema(schema);
       
       for (Entry<String, Object> entry : ((Map<String, Object>) value).entrySet()) {
         String fieldKey = entry.getKey();
         Object fieldValue = entry.getValue();
 
-        Object field = CWLSchemaHelper.getField(fieldKey, CWLSchemaHelper.getSchemaForRecordField(job.getApp().getSchemaDefs(), schema));
+        Object field = compiledSchema.getField(fieldKey);
         if (field == null) {
           logger.info("Field {} not found in schema {}", fieldKey, schema);
           continue;
@@ -326,9 +328,10 @@ public class CWLCommandLineBuilder implements ProtocolCommandLineBuilder {
     if (value instanceof List<?>) {
       CWLCommandLinePart.Builder commandLinePartBuilder = new CWLCommandLinePart.Builder(position, isFile);
       commandLinePartBuilder.keyValue(keyValue);
+      CWLCompiledSchema compiledSchema = commandLineTool.getCompiledSchema(schema);
       
       for (Object item : ((List<?>) value)) {
-        Object arrayItemSchema = CWLSchemaHelper.getSchemaForArrayItem(item, commandLineTool.getSchemaDefs(), schema);
+        Object arrayItemSchema = compiledSchema.getSchemaForArrayItem(item);
         Object arrayItemInputBinding = new HashMap<>();
         if (schema != null && CWLSchemaHelper.getInputBinding(schema) != null) {
           arrayItemInputBinding = (Map<String, Object>) CWLSchemaHelper.getInputBinding(schema);
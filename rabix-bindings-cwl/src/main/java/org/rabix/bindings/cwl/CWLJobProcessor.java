@@ -76,6 +76,17 @@ public class CWLJobProcessor implements BeanProcessor<CWLJob> {
     return job;
   }
   
+  /**
+   * Processes Job whose application has already been processed. Only the Job itself is changed.
+   */
+  public CWLJob processInputs(CWLJob job) {
+    if (job.getId() == null) {
+      job.setId(InternalSchemaHelper.ROOT_NAME);
+    }
+    rewriteDefaultPaths(job);
+    return job;
+  }
+  
   /**
    * Rewrite default file location if application is loaded from elsewhere 
    */
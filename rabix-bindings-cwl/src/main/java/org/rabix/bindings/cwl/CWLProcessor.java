@@ -4,6 +4,7 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -149,8 +150,9 @@ public class CWLProcessor implements ProtocolProcessor {
     
     Map<String, Object> result = new HashMap<>();
     CWLCommandLineTool commandLineTool = (CWLCommandLineTool) job.getApp();
+    Map<Object, Set<File>> globResults = globOutputs(job, workingDir, commandLineTool.getOutputs());
     for (CWLOutputPort outputPort : commandLineTool.getOutputs()) {
-      Object singleResult = collectOutput(job, workingDir, hashAlgorithm, outputPort.getSchema(), outputPort.getOutputBinding(), outputPort);
+      Object singleResult = collectOutput(job, workingDir, hashAlgorithm, outputPort.getSchema(), outputPort.getOutputBinding(), outputPort, globResults);
       result.put(CWLSchemaHelper.normalizeId(outputPort.getId()), singleResult);
     }
     
@@ -168,6 +170,24 @@ public class CWLProcessor implements ProtocolProcessor {
     return result;
   }
   
+  /**
+   * Finds files for GLOBs of all output ports with a single pass through the working directory
+   */
+  private Map<Object, Set<File>> globOutputs(CWLJob job, File workingDir, List<CWLOutputPort> outputPorts) throws CWLGlobException {
+    Map<Object, Object> globs = new HashMap<>();
+    for (CWLOutputPort outputPort : outputPorts) {
+      Object outputBinding = outputPort.getOutputBinding() != null ? outputPort.getOutputBinding() : CWLSchemaHelper.getOutputBinding(outputPort.getSchema());
+      Object glob = outputBinding != null ? CWLBindingHelper.getGlob(outputBinding) : null;
+      if (glob != null) {
+        globs.put(glob, glob);
+      }
+    }
+    if (globs.isEmpty()) {
+      return Collections.<Object, Set<File>> emptyMap();
+    }
+    return globService.glob(job, workingDir, globs);
+  }
+  
   private void postprocessCreatedResults(Object value, HashAlgorithm hashAlgorithm, File workingDir) throws IOException {
     if (value == null) {
       return;
@@ -245,7 +265,7 @@ public class CWLProcessor implements ProtocolProcessor {
   }
   
   @SuppressWarnings("unchecked")
-  private Object collectOutput(CWLJob job, File workingDir, HashAlgorithm hashAlgorithm, Object schema, Object binding, CWLOutputPort outputPort) throws CWLGlobException, CWLExpressionException, BindingException {
+  private Object collectOutput(CWLJob job, File workingDir, HashAlgorithm hashAlgorithm, Object schema, Object binding, CWLOutputPort outputPort, Map<Object, Set<File>> globResults) throws CWLGlobException, CWLExpressionException, BindingException {
     if (binding == null) {
       binding = CWLSchemaHelper.getOutputBinding(schema);
     }
@@ -258,7 +278,7 @@ public class CWLProcessor implements ProtocolProcessor {
     Object result = null;
     if (CWLSchemaHelper.isArrayFromSchema(schema)) {
       CWLJobApp app = job.getApp();
-      Object itemSchema = CWLSchemaHelper.getSchemaForArrayItem(null, app.getSchemaDefs(), schema);
+      Object itemSchema = app.getCompiledSchema(schema).getSchemaForArrayItem(null);
       if (itemSchema == null) {
         return null;
       }
@@ -268,9 +288,9 @@ public class CWLProcessor implements ProtocolProcessor {
         if (itemBinding != null) {
           binding = itemBinding;
         }
-        result = globFiles(job, workingDir, hashAlgorithm, outputPort, binding);
+        result = globFiles(job, workingDir, hashAlgorithm, outputPort, binding, globResults);
       } else {
-        return collectOutput(job, workingDir, hashAlgorithm, itemSchema, binding, outputPort);
+        return collectOutput(job, workingDir, hashAlgorithm, itemSchema, binding, outputPort, globResults);
       }
     } else if (CWLSchemaHelper.isRecordFromSchema(schema)) {
       Map<String, Object> record = new HashMap<>();
@@ -287,7 +307,7 @@ public class CWLProcessor implements ProtocolProcessor {
           if (fieldBinding != null) {
             binding = fieldBinding;
           }
-          Object singleResult = collectOutput(job, workingDir, hashAlgorithm, fieldSchema, binding, outputPort);
+          Object singleResult = collectOutput(job, workingDir, hashAlgorithm, fieldSchema, binding, outputPort, globResults);
           if (singleResult != null) {
             record.put(id, singleResult);
           }
@@ -295,7 +315,7 @@ public class CWLProcessor implements ProtocolProcessor {
       }
       result = record;
     } else {
-      result = globFiles(job, workingDir, hashAlgorithm, outputPort, binding);
+      result = globFiles(job, workingDir, hashAlgorithm, outputPort, binding, globResults);
     }
     Object outputEval = CWLBindingHelper.getOutputEval(binding);
     if (outputEval != null) {
@@ -339,7 +359,7 @@ public class CWLProcessor implements ProtocolProcessor {
   /**
    * Extracts files from a directory based on GLOB expression
    */
-  private List<Map<String, Object>> globFiles(final CWLJob job, final File workingDir, HashAlgorithm hashAlgorithm, final CWLOutputPort outputPort, Object outputBinding) throws CWLGlobException {
+  private List<Map<String, Object>> globFiles(final CWLJob job, final File workingDir, HashAlgorithm hashAlgorithm, final CWLOutputPort outputPort, Object outputBinding, Map<Object, Set<File>> globResults) throws CWLGlobException {
     if (outputPort.getOutputBinding() != null) {
       outputBinding = outputPort.getOutputBinding(); // override
     }
@@ -354,13 +374,20 @@ public class CWLProcessor implements ProtocolProcessor {
       return null;
     }
 
-    Set<File> files = globService.glob(job, workingDir, glob);
+    Set<File> files = globResults.containsKey(glob) ? globResults.get(glob) : globService.glob(job, workingDir, glob);
     if (files == null) {
       logger.info("Glob service didn't find any files.");
       return null;
     }
     logger.debug("Glob service returned result {}", files);
 
+    if (hashAlgorithm != null) {
+      try {
+        ChecksumHelper.checksum(files, hashAlgorithm); // calculate checksums in parallel, file values below reuse them
+      } catch (RuntimeException e) {
+        logger.warn("Failed to calculate checksums in parallel", e);
+      }
+    }
     final List<Map<String, Object>> result = new ArrayList<>();
     for (File file : files) {
       try {
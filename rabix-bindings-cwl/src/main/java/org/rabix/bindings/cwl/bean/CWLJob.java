@@ -4,6 +4,7 @@ import java.util.Map;
 
 import org.rabix.bindings.cwl.CWLJobProcessor;
 import org.rabix.bindings.cwl.helper.CWLSchemaHelper;
+import org.rabix.common.helper.CloneHelper;
 import org.rabix.common.json.BeanPropertyView;
 import org.rabix.common.json.processor.BeanProcessorClass;
 
@@ -66,7 +67,7 @@ public final class CWLJob {
     for (CWLInputPort inputPort : app.getInputs()) {
       String normalizedId = CWLSchemaHelper.normalizeId(inputPort.getId());
       if (!inputs.containsKey(normalizedId) && inputPort.getDefaultValue() != null) {
-        inputs.put(normalizedId, inputPort.getDefaultValue());
+        inputs.put(normalizedId, CloneHelper.deepCopy(inputPort.getDefaultValue()));
       }
     }
   }
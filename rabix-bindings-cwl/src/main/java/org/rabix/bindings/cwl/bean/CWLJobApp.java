@@ -5,6 +5,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.apache.commons.lang3.StringUtils;
+import org.rabix.bindings.cwl.helper.CWLCompiledSchema;
 import org.rabix.bindings.cwl.bean.resource.CWLResource;
 import org.rabix.bindings.cwl.bean.resource.CWLResourceType;
 import org.rabix.bindings.cwl.bean.resource.requirement.CWLCreateFileRequirement;
@@ -31,6 +32,8 @@ import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonView;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 
 @JsonDeserialize(using=CWLJobAppDeserializer.class)
 @JsonInclude(Include.NON_NULL)
@@ -67,6 +70,9 @@ public abstract class CWLJobApp extends Application {
   @JsonProperty("appFileLocation")
   @JsonView(BeanPropertyView.Full.class)
   protected String appFileLocation;
+
+  @JsonIgnore
+  private final Cache<Object, CWLCompiledSchema> compiledSchemas = CacheBuilder.newBuilder().weakKeys().build();
   
   @JsonIgnore
   public String getId() {
@@ -102,6 +108,22 @@ public abstract class CWLJobApp extends Application {
     return schemaDefRequirement != null ? schemaDefRequirement.getSchemaDefs() : null;
   }
 
+  /**
+   * Returns schema compiled against schema definitions of this application. Schemas are cached by identity.
+   */
+  @JsonIgnore
+  public CWLCompiledSchema getCompiledSchema(Object schema) {
+    if (schema == null) {
+      return new CWLCompiledSchema(null, null);
+    }
+    CWLCompiledSchema compiledSchema = compiledSchemas.getIfPresent(schema);
+    if (compiledSchema == null) {
+      compiledSchema = new CWLCompiledSchema(schema, getSchemaDefs());
+      compiledSchemas.put(schema, compiledSchema);
+    }
+    return compiledSchema;
+  }
+
   @JsonIgnore
   public CWLDockerResource getContainerResource() throws IllegalArgumentException {
     CWLDockerResource dockerResource = lookForResource(CWLResourceType.DOCKER_RESOURCE, CWLDockerResource.class);
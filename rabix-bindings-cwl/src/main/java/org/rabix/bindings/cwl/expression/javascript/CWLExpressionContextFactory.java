@@ -14,14 +14,18 @@ public class CWLExpressionContextFactory extends ContextFactory {
     this.timeoutInSeconds = timeoutInSeconds;
   }
   
-  @SuppressWarnings("deprecation")
   private static class ExpressionContext extends Context {
     long startTime;
+
+    ExpressionContext(ContextFactory factory) {
+      super(factory);
+    }
   }
 
   protected Context makeContext() {
-    ExpressionContext cx = new ExpressionContext();
+    ExpressionContext cx = new ExpressionContext(this);
     cx.setInstructionObserverThreshold(1000);
+    cx.setClassShutter(new CWLExpressionDenyAllClassShutter());
     return cx;
   }
 
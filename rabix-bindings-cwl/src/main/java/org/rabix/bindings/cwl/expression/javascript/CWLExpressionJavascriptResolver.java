@@ -1,21 +1,32 @@
 package org.rabix.bindings.cwl.expression.javascript;
 
-import java.io.Reader;
-import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
 import org.apache.commons.lang3.StringUtils;
 import org.mozilla.javascript.Context;
+import org.mozilla.javascript.NativeArray;
 import org.mozilla.javascript.NativeJSON;
+import org.mozilla.javascript.NativeObject;
+import org.mozilla.javascript.Script;
 import org.mozilla.javascript.Scriptable;
 import org.mozilla.javascript.ScriptableObject;
 import org.mozilla.javascript.Undefined;
+import org.mozilla.javascript.Wrapper;
 import org.rabix.bindings.cwl.bean.CWLRuntime;
 import org.rabix.bindings.cwl.expression.CWLExpressionException;
 import org.rabix.common.helper.JSONHelper;
 import org.rabix.common.json.BeanSerializer;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 
 public class CWLExpressionJavascriptResolver {
 
@@ -28,6 +39,27 @@ public class CWLExpressionJavascriptResolver {
   public final static int OPTIMIZATION_LEVEL = -1;
   public final static int MAX_STACK_DEPTH = 10;
 
+  public final static int SCRIPT_CACHE_SIZE = 10000;
+  public final static int SHARED_SCOPE_CACHE_SIZE = 8;
+
+  private final static CWLExpressionContextFactory contextFactory = new CWLExpressionContextFactory(TIMEOUT_IN_SECONDS);
+
+  /**
+   * Scopes with standard objects, per thread and keyed by expression libraries. Built-in prototypes stay writable
+   * so library polyfills work, and they are only visible to evaluations that run the same libraries.
+   */
+  private final static ThreadLocal<Cache<List<String>, ScriptableObject>> sharedScopes = new ThreadLocal<Cache<List<String>, ScriptableObject>>() {
+    @Override
+    protected Cache<List<String>, ScriptableObject> initialValue() {
+      return CacheBuilder.newBuilder().maximumSize(SHARED_SCOPE_CACHE_SIZE).build();
+    }
+  };
+
+  /**
+   * Compiled expressions and expression libraries keyed by source
+   */
+  private final static Cache<String, Script> scripts = CacheBuilder.newBuilder().maximumSize(SCRIPT_CACHE_SIZE).build();
+
   /**
    * Evaluate JS script (function or statement)
    */
@@ -36,25 +68,23 @@ public class CWLExpressionJavascriptResolver {
     if (trimmedExpr.startsWith("$")) {
       trimmedExpr = trimmedExpr.substring(1);
     }
-    
+
     String function = trimmedExpr;
     if (trimmedExpr.startsWith("{")) {
       function = "(function()%expr)()";
       function = function.replace("%expr", trimmedExpr);
     }
 
-    Context cx = Context.enter();
-    cx.setOptimizationLevel(OPTIMIZATION_LEVEL);
-    cx.setMaximumInterpreterStackDepth(MAX_STACK_DEPTH);
-    cx.setClassShutter(new CWLExpressionDenyAllClassShutter());
-
+    Context cx = enterContext();
     try {
-      Scriptable globalScope = cx.initStandardObjects();
+      ScriptableObject sharedScope = getSharedScope(cx, engineConfigs);
+      Scriptable globalScope = cx.newObject(sharedScope);
+      globalScope.setPrototype(sharedScope);
+      globalScope.setParentScope(null);
 
       if (engineConfigs != null) {
         for (int i = 0; i < engineConfigs.size(); i++) {
-          Reader engineConfigReader = new StringReader(engineConfigs.get(i));
-          cx.evaluateReader(globalScope, engineConfigReader, "engineConfig_" + i + ".js", 1, null);
+          compile(cx, engineConfigs.get(i), "engineConfig_" + i + ".js").exec(cx, globalScope);
         }
       }
 
@@ -62,28 +92,8 @@ public class CWLExpressionJavascriptResolver {
       putToScope(EXPR_SELF_NAME, self, cx, globalScope);
       putToScope(EXPR_RUNTIME_NAME, runtime, cx, globalScope);
 
-      Scriptable resultScope = cx.newObject(globalScope);
-      resultScope.setPrototype(globalScope);
-      resultScope.setParentScope(globalScope);
-
-      Object result = cx.evaluateString(resultScope, function, "script", 1, null);
-      if (result == null || result instanceof Undefined) {
-        return null;
-      }
-      
-      Object wrappedResult = Context.javaToJS(result, globalScope);
-      putToScope("$result", wrappedResult, cx, globalScope);
-      ScriptableObject.putProperty(globalScope, "$result", wrappedResult);
-
-      String finalFunction = "(function() { " + "           var result = $result;"
-          + "           var type = result instanceof Array? \"array\" : typeof result;"
-          + "           return JSON.stringify({ \"result\" : result, \"type\" : type }); " + "     })()";
-
-      Scriptable wrapScope = cx.newObject(globalScope);
-      wrapScope.setPrototype(globalScope);
-      wrapScope.setParentScope(globalScope);
-      result = cx.evaluateString(wrapScope, finalFunction, "script", 1, null);
-      return castResult(result);
+      Object result = compile(cx, function, "script").exec(cx, globalScope);
+      return castResult(result, cx, globalScope);
     } catch (Exception e) {
       String msg = String.format("Failed evaluating expression %s.", expr);
       throw new CWLExpressionException(msg, e);
@@ -92,34 +102,147 @@ public class CWLExpressionJavascriptResolver {
     }
   }
 
+  /**
+   * Gets the current thread's scope with standard objects for the expression libraries. Only the scope's own
+   * bindings are sealed, so assignments to globals such as Math stay in the evaluation scope while built-in prototypes can be extended.
+   */
+  private static ScriptableObject getSharedScope(final Context cx, List<String> engineConfigs) throws ExecutionException {
+    List<String> key = engineConfigs != null ? new ArrayList<>(engineConfigs) : Collections.<String>emptyList();
+    return sharedScopes.get().get(key, new Callable<ScriptableObject>() {
+      @Override
+      public ScriptableObject call() throws Exception {
+        ScriptableObject scope = cx.initStandardObjects();
+        scope.sealObject();
+        return scope;
+      }
+    });
+  }
+
+  private static Context enterContext() {
+    Context cx = contextFactory.enterContext();
+    cx.setOptimizationLevel(OPTIMIZATION_LEVEL);
+    cx.setMaximumInterpreterStackDepth(MAX_STACK_DEPTH);
+    return cx;
+  }
+
+  /**
+   * Gets compiled script from the cache or compiles the source
+   */
+  private static Script compile(final Context cx, final String source, final String sourceName) throws ExecutionException {
+    return scripts.get(source, new Callable<Script>() {
+      @Override
+      public Script call() throws Exception {
+        return cx.compileString(source, sourceName, 1, null);
+      }
+    });
+  }
+
   /**
    * Add object to execution scope
    */
   private static void putToScope(String name, Object value, Context cx, Scriptable scope) {
-    if (value != null) {
-      String selfJson = BeanSerializer.serializePartial(value);
+    ScriptableObject.putProperty(scope, name, javaToJS(value, cx, scope));
+  }
 
-      Object json = NativeJSON.parse(cx, scope, selfJson, new org.mozilla.javascript.Callable() {
-        @Override
-        public Object call(Context cx, Scriptable scope, Scriptable thisObj, Object[] args) {
-          return args[1];
-        }
-      });
-      ScriptableObject.putProperty(scope, name, json);
-    } else {
-      ScriptableObject.putProperty(scope, name, null);
+  /**
+   * Converts JSON-like Java value to JS value. Other objects are converted through their JSON representation.
+   */
+  private static Object javaToJS(Object value, Context cx, Scriptable scope) {
+    if (value == null || value instanceof String || value instanceof Boolean || value instanceof Integer || value instanceof Double) {
+      return value;
+    }
+    if (value instanceof Number) {
+      return ((Number) value).doubleValue();
+    }
+    if (value instanceof Map<?, ?>) {
+      Scriptable object = cx.newObject(scope);
+      for (Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+        ScriptableObject.putProperty(object, String.valueOf(entry.getKey()), javaToJS(entry.getValue(), cx, scope));
+      }
+      return object;
+    }
+    if (value instanceof List<?>) {
+      List<?> list = (List<?>) value;
+      Object[] elements = new Object[list.size()];
+      for (int i = 0; i < elements.length; i++) {
+        elements[i] = javaToJS(list.get(i), cx, scope);
+      }
+      return cx.newArray(scope, elements);
     }
+    return NativeJSON.parse(cx, scope, BeanSerializer.serializePartial(value), new org.mozilla.javascript.Callable() {
+      @Override
+      public Object call(Context cx, Scriptable scope, Scriptable thisObj, Object[] args) {
+        return args[1];
+      }
+    });
   }
 
   /**
    * Cast result to proper Java object
    */
-  private static Object castResult(Object result) {
-    if (result == null) {
+  private static Object castResult(Object result, Context cx, Scriptable scope) {
+    if (result == null || result instanceof Undefined) {
+      return null;
+    }
+    if (result instanceof Wrapper) {
+      result = ((Wrapper) result).unwrap();
+    }
+    if (result instanceof CharSequence) {
+      return result.toString();
+    }
+    if (result instanceof Boolean) {
+      return result;
+    }
+    if (result instanceof Number) {
+      return castNumber(((Number) result).doubleValue());
+    }
+    if (result instanceof NativeArray) {
+      NativeArray array = (NativeArray) result;
+      List<Object> resultList = new ArrayList<>();
+      for (int i = 0; i < array.getLength(); i++) {
+        Object element = castResult(array.get(i, array), cx, scope);
+        if (element != null) {
+          resultList.add(element);
+        }
+      }
+      return resultList;
+    }
+    if (result instanceof NativeObject) {
+      NativeObject object = (NativeObject) result;
+      Map<String, Object> resultMap = new HashMap<>();
+      for (Object id : object.getIds()) {
+        Object value = id instanceof Integer ? object.get((Integer) id, object) : object.get(id.toString(), object);
+        if (value instanceof Undefined || value instanceof org.mozilla.javascript.Callable) {
+          continue;
+        }
+        resultMap.put(id.toString(), castResult(value, cx, scope));
+      }
+      return resultMap;
+    }
+    Object json = NativeJSON.stringify(cx, scope, result, null, null);
+    if (json == null || json instanceof Undefined) {
+      return null;
+    }
+    JsonNode node = JSONHelper.readJsonNode(json.toString());
+    return JSONHelper.transformPreserveNull(node);
+  }
+
+  /**
+   * Casts JS number the same way its JSON representation would be parsed
+   */
+  private static Object castNumber(double value) {
+    if (Double.isNaN(value) || Double.isInfinite(value)) {
       return null;
     }
-    JsonNode node = JSONHelper.readJsonNode(result.toString());
-    return JSONHelper.transformPreserveNull(node.get("result"));
+    if (value == Math.rint(value)) {
+      if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+        return (int) value;
+      }
+      if (value >= Long.MIN_VALUE && value <= Long.MAX_VALUE) {
+        return (long) value;
+      }
+    }
+    return value;
   }
 
 }
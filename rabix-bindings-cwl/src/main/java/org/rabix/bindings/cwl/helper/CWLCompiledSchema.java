@@ -0,0 +1,433 @@
+package org.rabix.bindings.cwl.helper;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.avro.Schema;
+import org.rabix.bindings.BindingException;
+import org.rabix.common.helper.JSONHelper;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Port (or nested) schema compiled once per application.
+ * Record fields are looked up in a precomputed map and array items are matched against precompiled union discriminators,
+ * with the same results as {@link CWLSchemaHelper#getSchemaForRecordField}, {@link CWLSchemaHelper#getField} and {@link CWLSchemaHelper#getSchemaForArrayItem}.
+ */
+public class CWLCompiledSchema {
+
+  private final Object schema;
+  private final List<Map<String, Object>> schemaDefs;
+
+  private final boolean isAny;
+
+  private volatile Map<String, Object> fields;
+  private volatile List<ItemSchema> itemSchemas;
+
+  public CWLCompiledSchema(Object schema, List<Map<String, Object>> schemaDefs) {
+    this.schema = schema;
+    this.schemaDefs = schemaDefs;
+    this.isAny = CWLSchemaHelper.isAnyFromSchema(schema);
+  }
+
+  public Object getSchema() {
+    return schema;
+  }
+
+  public boolean isAny() {
+    return isAny;
+  }
+
+  /**
+   * Finds record field definition by name
+   */
+  public Map<?, ?> getField(String name) {
+    Map<String, Object> compiledFields = fields;
+    if (compiledFields == null) {
+      compiledFields = compileFields();
+      fields = compiledFields;
+    }
+    return (Map<?, ?>) compiledFields.get(name);
+  }
+
+  /**
+   * Finds schema of the array item. Items are validated only if there is more than one candidate.
+   */
+  public Object getSchemaForArrayItem(Object value) {
+    if (schema == null) {
+      return null;
+    }
+    List<ItemSchema> compiledItemSchemas = itemSchemas;
+    if (compiledItemSchemas == null) {
+      compiledItemSchemas = compileItemSchemas();
+      itemSchemas = compiledItemSchemas;
+    }
+    if (compiledItemSchemas.size() == 1) {
+      return compiledItemSchemas.get(0).schema;
+    }
+    for (ItemSchema itemSchema : compiledItemSchemas) {
+      if (itemSchema.validate(value)) {
+        return itemSchema.schema;
+      }
+    }
+    return new HashMap<>();
+  }
+
+  private Map<String, Object> compileFields() {
+    Map<String, Object> compiledFields = new HashMap<>();
+    Object recordFields = CWLSchemaHelper.getFields(CWLSchemaHelper.getSchemaForRecordField(schemaDefs, schema));
+    if (recordFields instanceof Map<?, ?>) {
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) recordFields).entrySet()) {
+        compiledFields.put(String.valueOf(entry.getKey()), entry.getValue());
+      }
+    } else if (recordFields instanceof List<?>) {
+      for (Object field : (List<?>) recordFields) {
+        String name = CWLSchemaHelper.getName(field);
+        if (name != null && !compiledFields.containsKey(name)) {
+          compiledFields.put(name, field);
+        }
+      }
+    }
+    return compiledFields;
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<ItemSchema> compileItemSchemas() {
+    List<Object> arraySchemaList = null;
+    if (schema instanceof List<?>) {
+      arraySchemaList = (List<Object>) schema;
+    } else {
+      arraySchemaList = new ArrayList<>();
+      arraySchemaList.add(schema);
+    }
+
+    List<Object> schemas = new ArrayList<>();
+    for (Object arraySchemaItem : arraySchemaList) {
+      Object itemSchemaObj = CWLSchemaHelper.getItems(arraySchemaItem);
+      if (itemSchemaObj == null) {
+        continue;
+      }
+      if (itemSchemaObj instanceof List) {
+        schemas = new ArrayList<>((List<Object>) itemSchemaObj);
+      } else {
+        schemas.add(itemSchemaObj);
+      }
+    }
+
+    List<ItemSchema> compiledItemSchemas = new ArrayList<>();
+    for (Object itemSchema : schemas) {
+      Object schemaObj = itemSchema;
+      if (itemSchema instanceof String) {
+        schemaObj = CWLSchemaHelper.findSchema(schemaDefs, ((String) itemSchema).substring(1));
+      }
+      if (schemaObj != null) {
+        compiledItemSchemas.add(new ItemSchema(schemaObj));
+      }
+    }
+    return compiledItemSchemas;
+  }
+
+  /**
+   * Candidate array item schema. The AVRO schema is parsed when the first item has to be validated against it.
+   */
+  private static class ItemSchema {
+    private final Object schema;
+
+    private volatile UnionValidator validator;
+    private volatile RuntimeException failure;
+
+    private ItemSchema(Object schema) {
+      this.schema = schema;
+    }
+
+    private boolean validate(Object value) {
+      UnionValidator compiledValidator = validator;
+      if (compiledValidator == null) {
+        if (failure != null) {
+          throw failure;
+        }
+        try {
+          compiledValidator = compile(new Schema.Parser().parse(JSONHelper.writeObject(schema)));
+        } catch (RuntimeException e) {
+          failure = e;
+          throw e;
+        }
+        validator = compiledValidator;
+      }
+      return compiledValidator.validate(value);
+    }
+  }
+
+  /**
+   * Validates value (plain Java objects or JSON tree) against AVRO schema
+   */
+  static boolean validate(Object value, Schema schema) {
+    return compile(schema).validate(value);
+  }
+
+  private static UnionValidator compile(Schema schema) {
+    List<Schema> schemas = new ArrayList<>();
+    schemas.add(schema);
+    return new UnionValidator(schemas, new IdentityHashMap<Schema, Validator>());
+  }
+
+  /**
+   * JSON shape of a value, as it would be read back after serialization
+   */
+  private static enum Kind {
+    NULL, INT, LONG, FLOAT, DOUBLE, BOOLEAN, TEXT, BINARY, OBJECT, ARRAY, OTHER
+  }
+
+  private static Object normalize(Object value) {
+    if (value == null || value instanceof Map<?, ?> || value instanceof List<?> || value instanceof JsonNode || value instanceof String || value instanceof Boolean || value instanceof Number) {
+      return value;
+    }
+    return JSONHelper.readJsonNode(JSONHelper.writeObject(value));
+  }
+
+  private static Kind kind(Object value) {
+    if (value == null) {
+      return Kind.NULL;
+    }
+    if (value instanceof JsonNode) {
+      JsonNode node = (JsonNode) value;
+      if (node.isNull() || node.isMissingNode()) {
+        return Kind.NULL;
+      }
+      if (node.isShort() || node.isInt()) {
+        return Kind.INT;
+      }
+      if (node.isLong()) {
+        return Kind.LONG;
+      }
+      if (node.isFloat()) {
+        return Kind.FLOAT;
+      }
+      if (node.isDouble()) {
+        return Kind.DOUBLE;
+      }
+      if (node.isBoolean()) {
+        return Kind.BOOLEAN;
+      }
+      if (node.isTextual()) {
+        return Kind.TEXT;
+      }
+      if (node.isBinary()) {
+        return Kind.BINARY;
+      }
+      if (node.isObject()) {
+        return Kind.OBJECT;
+      }
+      if (node.isArray()) {
+        return Kind.ARRAY;
+      }
+      return Kind.OTHER;
+    }
+    if (value instanceof Map<?, ?>) {
+      return Kind.OBJECT;
+    }
+    if (value instanceof List<?>) {
+      return Kind.ARRAY;
+    }
+    if (value instanceof String) {
+      return Kind.TEXT;
+    }
+    if (value instanceof Boolean) {
+      return Kind.BOOLEAN;
+    }
+    if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+      return Kind.INT;
+    }
+    if (value instanceof Long || value instanceof BigInteger) {
+      BigInteger number = value instanceof Long ? BigInteger.valueOf((Long) value) : (BigInteger) value;
+      if (number.bitLength() < Integer.SIZE) {
+        return Kind.INT;
+      }
+      return number.bitLength() < Long.SIZE ? Kind.LONG : Kind.OTHER;
+    }
+    if (value instanceof Number) {
+      return Kind.DOUBLE;
+    }
+    return kind(normalize(value));
+  }
+
+  private static Object getField(Object value, String name) {
+    if (value instanceof JsonNode) {
+      return ((JsonNode) value).get(name);
+    }
+    return ((Map<?, ?>) value).get(name);
+  }
+
+  /**
+   * Precomputed union discriminator. Primitive types are picked by the kind of the value, other types are tried in order.
+   */
+  private static class UnionValidator {
+    private final Collection<Schema> schemas;
+    private final Set<Schema.Type> primitives = EnumSet.noneOf(Schema.Type.class);
+    private final List<Validator> others = new ArrayList<>();
+
+    private UnionValidator(Collection<Schema> schemas, Map<Schema, Validator> compiled) {
+      this.schemas = schemas;
+      for (Schema schema : schemas) {
+        if (PRIMITIVES.contains(schema.getType())) {
+          primitives.add(schema.getType());
+        } else {
+          others.add(compile(schema, compiled));
+        }
+      }
+    }
+
+    private boolean validate(Object value) {
+      try {
+        resolve(value);
+        return true;
+      } catch (BindingException e) {
+        return false;
+      }
+    }
+
+    private void resolve(Object value) throws BindingException {
+      value = normalize(value);
+      Kind kind = kind(value);
+      switch (kind) {
+      case NULL:
+        if (closestPrimitive(Schema.Type.NULL)) {
+          return;
+        }
+        break;
+      case INT:
+        if (closestPrimitive(Schema.Type.INT, Schema.Type.LONG, Schema.Type.FLOAT, Schema.Type.DOUBLE)) {
+          return;
+        }
+        break;
+      case LONG:
+        if (closestPrimitive(Schema.Type.LONG, Schema.Type.DOUBLE)) {
+          return;
+        }
+        break;
+      case FLOAT:
+        if (closestPrimitive(Schema.Type.FLOAT, Schema.Type.DOUBLE)) {
+          return;
+        }
+        break;
+      case DOUBLE:
+        if (closestPrimitive(Schema.Type.DOUBLE)) {
+          return;
+        }
+        break;
+      case BOOLEAN:
+        if (closestPrimitive(Schema.Type.BOOLEAN)) {
+          return;
+        }
+        break;
+      default:
+        break;
+      }
+      for (Validator validator : others) {
+        if (validator.matches(value, kind)) {
+          return;
+        }
+      }
+      throw new BindingException(String.format("Cannot resolve union: %s not in %s", value, schemas));
+    }
+
+    private boolean closestPrimitive(Schema.Type... types) {
+      for (Schema.Type type : types) {
+        if (primitives.contains(type)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  // this does not contain string, bytes, or fixed because the value type
+  // doesn't necessarily determine the schema.
+  private final static Set<Schema.Type> PRIMITIVES = EnumSet.of(Schema.Type.NULL, Schema.Type.BOOLEAN, Schema.Type.INT, Schema.Type.LONG, Schema.Type.FLOAT, Schema.Type.DOUBLE);
+
+  private static Validator compile(Schema schema, Map<Schema, Validator> compiled) {
+    Validator validator = compiled.get(schema);
+    if (validator != null) {
+      return validator;
+    }
+    validator = new Validator(schema);
+    compiled.put(schema, validator);
+
+    switch (schema.getType()) {
+    case RECORD:
+      for (Schema.Field field : schema.getFields()) {
+        List<Schema> fieldSchemas = new ArrayList<>();
+        fieldSchemas.add(field.schema());
+        validator.fields.put(field.name(), new UnionValidator(fieldSchemas, compiled));
+      }
+      break;
+    case UNION:
+      validator.union = new UnionValidator(schema.getTypes(), compiled);
+      break;
+    default:
+      break;
+    }
+    return validator;
+  }
+
+  private static class Validator {
+    private final Schema schema;
+    private final Map<String, UnionValidator> fields = new LinkedHashMap<>();
+    private UnionValidator union;
+
+    private Validator(Schema schema) {
+      this.schema = schema;
+    }
+
+    private boolean matches(Object value, Kind kind) throws BindingException {
+      switch (schema.getType()) {
+      case RECORD:
+        if (kind == Kind.OBJECT) {
+          // check that each field is present or has a default
+          for (Map.Entry<String, UnionValidator> field : fields.entrySet()) {
+            field.getValue().resolve(getField(value, field.getKey()));
+          }
+          return true;
+        }
+        return false;
+      case UNION:
+        union.resolve(value);
+        return true;
+      case MAP:
+        return kind == Kind.OBJECT;
+      case ARRAY:
+        return kind == Kind.ARRAY;
+      case BOOLEAN:
+        return kind == Kind.BOOLEAN;
+      case FLOAT:
+        return kind == Kind.FLOAT || kind == Kind.INT;
+      case DOUBLE:
+        return kind == Kind.DOUBLE || kind == Kind.FLOAT || kind == Kind.LONG || kind == Kind.INT;
+      case INT:
+        return kind == Kind.INT;
+      case LONG:
+        return kind == Kind.LONG || kind == Kind.INT;
+      case STRING:
+        return kind == Kind.TEXT;
+      case ENUM:
+        return kind == Kind.TEXT && schema.hasEnumSymbol(value instanceof JsonNode ? ((JsonNode) value).textValue() : (String) value);
+      case BYTES:
+      case FIXED:
+        return kind == Kind.BINARY;
+      case NULL:
+        return kind == Kind.NULL;
+      default:
+        throw new IllegalArgumentException("Unsupported schema: " + schema);
+      }
+    }
+  }
+
+}
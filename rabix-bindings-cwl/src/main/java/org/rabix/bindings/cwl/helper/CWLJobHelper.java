@@ -1,6 +1,9 @@
 package org.rabix.bindings.cwl.helper;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
 import org.rabix.bindings.BindingException;
 import org.rabix.bindings.cwl.CWLJobProcessor;
@@ -13,17 +16,30 @@ import org.rabix.bindings.cwl.resolver.CWLDocumentResolver;
 import org.rabix.bindings.model.Job;
 import org.rabix.common.json.BeanSerializer;
 
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
 public class CWLJobHelper {
 
+  private final static int APP_CACHE_SIZE = 1000;
+
+  /**
+   * Processed applications keyed by digest of the resolved application and Job name (step IDs depend on it).
+   * They are shared between Jobs, so nothing should change them.
+   */
+  private final static Cache<String, CWLJobApp> apps = CacheBuilder.newBuilder().maximumSize(APP_CACHE_SIZE).build();
+
   @SuppressWarnings("unchecked")
   public static CWLJob getCWLJob(Job job) throws BindingException {
-    String resolvedAppStr = CWLDocumentResolver.resolve(job.getApp());
-    CWLJobApp app = BeanSerializer.deserialize(resolvedAppStr, CWLJobApp.class);
+    CWLJobApp app = getApp(job);
 
     Map<String, Object> nativeInputs = (Map<String, Object>) CWLValueTranslator.translateToSpecific(job.getInputs());
     Map<String, Object> nativeOutputs = (Map<String, Object>) CWLValueTranslator.translateToSpecific(job.getOutputs());
     
-    CWLJob cwlJob =  new CWLJobProcessor().process(new CWLJob(job.getName(), app, nativeInputs, nativeOutputs));
+    CWLJob cwlJob =  new CWLJobProcessor().processInputs(new CWLJob(job.getName(), app, nativeInputs, nativeOutputs));
     
     CWLRuntime runtime = null;
     try {
@@ -35,4 +51,22 @@ public class CWLJobHelper {
     return cwlJob;
   }
   
+  private static CWLJobApp getApp(final Job job) throws BindingException {
+    final String resolvedAppStr = CWLDocumentResolver.resolve(job.getApp());
+    String key = Hashing.sha1().hashString(resolvedAppStr, StandardCharsets.UTF_8).toString() + "/" + job.getName();
+    try {
+      return apps.get(key, new Callable<CWLJobApp>() {
+        @Override
+        public CWLJobApp call() throws Exception {
+          CWLJobApp app = BeanSerializer.deserialize(resolvedAppStr, CWLJobApp.class);
+          return new CWLJobProcessor().process(new CWLJob(job.getName(), app, null, null)).getApp();
+        }
+      });
+    } catch (UncheckedExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    } catch (ExecutionException e) {
+      throw new BindingException(e.getCause());
+    }
+  }
+  
 }
@@ -1,7 +1,6 @@
 package org.rabix.bindings.cwl.helper;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -9,16 +8,11 @@ import java.util.Map;
 import java.util.Set;
 
 import org.apache.avro.Schema;
-import org.rabix.bindings.BindingException;
 import org.rabix.bindings.model.DataType;
 import org.rabix.common.helper.CloneHelper;
 import org.rabix.common.helper.JSONHelper;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.base.Preconditions;
-import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Lists;
-import com.google.common.collect.Sets;
 
 public class CWLSchemaHelper extends CWLBeanHelper {
 
@@ -317,57 +311,8 @@ public class CWLSchemaHelper extends CWLBeanHelper {
     return new HashMap<>();
   }
 
-  @SuppressWarnings("unchecked")
   public static Object getSchemaForArrayItem(Object value, List<Map<String, Object>> schemaDefs, Object arraySchema) {
-    if (arraySchema == null) {
-      return null;
-    }
-
-    List<Object> arraySchemaList = null;
-    if (arraySchema instanceof List<?>) {
-      arraySchemaList = (List<Object>) arraySchema;
-    } else {
-      arraySchemaList = new ArrayList<>();
-      arraySchemaList.add(arraySchema);
-    }
-
-    List<Object> schemas = new ArrayList<>();
-
-    for (Object arraySchemaItem : arraySchemaList) {
-      Object itemSchemaObj = getItems(arraySchemaItem);
-      if (itemSchemaObj == null) {
-        continue;
-      }
-      if (itemSchemaObj instanceof List) {
-        schemas = (List<Object>) itemSchemaObj;
-      } else {
-        schemas.add(itemSchemaObj);
-      }
-    }
-
-    List<Object> schemaObjects = new ArrayList<>();
-    for (Object schema : schemas) {
-      Object schemaObj = schema;
-      if (schema instanceof String) {
-        schemaObj = findSchema(schemaDefs, ((String) schema).substring(1));
-      }
-
-      if (schemaObj == null) {
-        continue;
-      }
-      schemaObjects.add(schemaObj);
-    }
-    if (schemaObjects.size() == 1) {
-      return schemaObjects.get(0);
-    }
-    if (schemaObjects.size() > 1) {
-      for (Object schemaObj : schemaObjects) {
-        if (validateAvro(JSONHelper.writeObject(value), JSONHelper.writeObject(schemaObj))) {
-          return schemaObj;
-        }
-      }
-    }
-    return new HashMap<>();
+    return new CWLCompiledSchema(arraySchema, schemaDefs).getSchemaForArrayItem(value);
   }
   
   public static String getLastInputId(String id) {
@@ -382,163 +327,9 @@ public class CWLSchemaHelper extends CWLBeanHelper {
 
   public static boolean validateAvro(String json, String schemaStr) {
     Schema schema = new Schema.Parser().parse(schemaStr);
-
-    List<Schema> schemas = new ArrayList<>();
-    schemas.add(schema);
-    try {
-      resolveUnion(JSONHelper.readJsonNode(json), schemas);
-      return true;
-    } catch (BindingException e) {
-      return false;
-    }
+    return CWLCompiledSchema.validate(JSONHelper.readJsonNode(json), schema);
   }
 
-  private static Schema resolveUnion(JsonNode datum, Collection<Schema> schemas) throws BindingException {
-    Set<Schema.Type> primitives = Sets.newHashSet();
-    List<Schema> others = Lists.newArrayList();
-    for (Schema schema : schemas) {
-      if (PRIMITIVES.containsKey(schema.getType())) {
-        primitives.add(schema.getType());
-      } else {
-        others.add(schema);
-      }
-    }
-
-    // Try to identify specific primitive types
-    Schema primitiveSchema = null;
-    if (datum == null || datum.isNull()) {
-      primitiveSchema = closestPrimitive(primitives, Schema.Type.NULL);
-    } else if (datum.isShort() || datum.isInt()) {
-      primitiveSchema = closestPrimitive(primitives, Schema.Type.INT, Schema.Type.LONG, Schema.Type.FLOAT,
-          Schema.Type.DOUBLE);
-    } else if (datum.isLong()) {
-      primitiveSchema = closestPrimitive(primitives, Schema.Type.LONG, Schema.Type.DOUBLE);
-    } else if (datum.isFloat()) {
-      primitiveSchema = closestPrimitive(primitives, Schema.Type.FLOAT, Schema.Type.DOUBLE);
-    } else if (datum.isDouble()) {
-      primitiveSchema = closestPrimitive(primitives, Schema.Type.DOUBLE);
-    } else if (datum.isBoolean()) {
-      primitiveSchema = closestPrimitive(primitives, Schema.Type.BOOLEAN);
-    }
-
-    if (primitiveSchema != null) {
-      return primitiveSchema;
-    }
-
-    // otherwise, select the first schema that matches the datum
-    for (Schema schema : others) {
-      if (matches(datum, schema)) {
-        return schema;
-      }
-    }
-
-    throw new BindingException(String.format("Cannot resolve union: %s not in %s", datum, schemas));
-  }
-
-  // this does not contain string, bytes, or fixed because the datum type
-  // doesn't necessarily determine the schema.
-  private static ImmutableMap<Schema.Type, Schema> PRIMITIVES = ImmutableMap.<Schema.Type, Schema> builder()
-      .put(Schema.Type.NULL, Schema.create(Schema.Type.NULL))
-      .put(Schema.Type.BOOLEAN, Schema.create(Schema.Type.BOOLEAN)).put(Schema.Type.INT, Schema.create(Schema.Type.INT))
-      .put(Schema.Type.LONG, Schema.create(Schema.Type.LONG)).put(Schema.Type.FLOAT, Schema.create(Schema.Type.FLOAT))
-      .put(Schema.Type.DOUBLE, Schema.create(Schema.Type.DOUBLE)).build();
-
-  private static Schema closestPrimitive(Set<Schema.Type> possible, Schema.Type... types) {
-    for (Schema.Type type : types) {
-      if (possible.contains(type) && PRIMITIVES.containsKey(type)) {
-        return PRIMITIVES.get(type);
-      }
-    }
-    return null;
-  }
-
-  private static boolean matches(JsonNode datum, Schema schema) throws BindingException {
-    switch (schema.getType()) {
-    case RECORD:
-      if (datum.isObject()) {
-        // check that each field is present or has a default
-        for (Schema.Field field : schema.getFields()) {
-          JsonNode toValidate = null;
-          if (!datum.has(field.name()) && field.defaultValue() == null) {
-            toValidate = null;
-          } else {
-            toValidate = datum.get(field.name());
-          }
-          List<Schema> schemas = new ArrayList<>();
-          schemas.add(field.schema());
-          resolveUnion(toValidate, schemas);
-        }
-        return true;
-      }
-      break;
-    case UNION:
-      if (resolveUnion(datum, schema.getTypes()) != null) {
-        return true;
-      }
-      break;
-    case MAP:
-      if (datum.isObject()) {
-        return true;
-      }
-      break;
-    case ARRAY:
-      if (datum.isArray()) {
-        return true;
-      }
-      break;
-    case BOOLEAN:
-      if (datum.isBoolean()) {
-        return true;
-      }
-      break;
-    case FLOAT:
-      if (datum.isFloat() || datum.isInt()) {
-        return true;
-      }
-      break;
-    case DOUBLE:
-      if (datum.isDouble() || datum.isFloat() || datum.isLong() || datum.isInt()) {
-        return true;
-      }
-      break;
-    case INT:
-      if (datum.isInt()) {
-        return true;
-      }
-      break;
-    case LONG:
-      if (datum.isLong() || datum.isInt()) {
-        return true;
-      }
-      break;
-    case STRING:
-      if (datum.isTextual()) {
-        return true;
-      }
-      break;
-    case ENUM:
-      if (datum.isTextual() && schema.hasEnumSymbol(datum.textValue())) {
-        return true;
-      }
-      break;
-    case BYTES:
-    case FIXED:
-      if (datum.isBinary()) {
-        return true;
-      }
-      break;
-    case NULL:
-      if (datum == null || datum.isNull()) {
-        return true;
-      }
-      break;
-    default: // UNION or unknown
-      throw new IllegalArgumentException("Unsupported schema: " + schema);
-    }
-    return false;
-  }
-
-  
   @SuppressWarnings("unchecked")
   public static DataType readDataType(Object schema) {
 
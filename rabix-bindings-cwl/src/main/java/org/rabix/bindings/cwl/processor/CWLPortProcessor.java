@@ -9,6 +9,7 @@ import java.util.Map.Entry;
 import org.rabix.bindings.cwl.bean.CWLInputPort;
 import org.rabix.bindings.cwl.bean.CWLJob;
 import org.rabix.bindings.cwl.bean.CWLOutputPort;
+import org.rabix.bindings.cwl.helper.CWLCompiledSchema;
 import org.rabix.bindings.cwl.helper.CWLSchemaHelper;
 import org.rabix.bindings.model.ApplicationPort;
 import org.slf4j.Logger;
@@ -74,7 +75,8 @@ public class CWLPortProcessor {
       return portProcessorResult.getValue();
     }
     
-    if (CWLSchemaHelper.isAnyFromSchema(schema)) {
+    CWLCompiledSchema compiledSchema = job.getApp().getCompiledSchema(schema);
+    if (compiledSchema.isAny()) {
       return value;
     }
     
@@ -90,7 +92,7 @@ public class CWLPortProcessor {
       Map<String, Object> result = new HashMap<>();
 
       for (Entry<String, Object> entry : ((Map<String, Object>) value).entrySet()) {
-        Map<?, ?> field = CWLSchemaHelper.getField(entry.getKey(), CWLSchemaHelper.getSchemaForRecordField(job.getApp().getSchemaDefs(), schema));
+        Map<?, ?> field = compiledSchema.getField(entry.getKey());
 
         if (field == null) {
           logger.info("Field {} not found in schema {}", entry.getKey(), schema);
@@ -106,7 +108,7 @@ public class CWLPortProcessor {
       List<Object> result = new LinkedList<>();
 
       for (Object item : ((List<?>) value)) {
-        Object arrayItemSchema = CWLSchemaHelper.getSchemaForArrayItem(item, job.getApp().getSchemaDefs(), schema);
+        Object arrayItemSchema = compiledSchema.getSchemaForArrayItem(item);
         Object singleResult = processValue(item, port, arrayItemSchema, key, portProcessor);
         result.add(singleResult);
       }
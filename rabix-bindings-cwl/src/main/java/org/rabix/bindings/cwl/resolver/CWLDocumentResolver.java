@@ -6,15 +6,22 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang.NotImplementedException;
@@ -24,6 +31,8 @@ import org.rabix.bindings.ProtocolType;
 import org.rabix.bindings.cwl.helper.CWLSchemaHelper;
 import org.rabix.bindings.helper.URIHelper;
 import org.rabix.common.helper.JSONHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
@@ -31,9 +40,18 @@ import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.databind.node.TextNode;
 import com.google.common.base.Preconditions;
-
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Resolves references of CWL documents. Every resolution keeps its state in its own {@link ResolverContext}, so documents can be resolved concurrently.
+ */
 public class CWLDocumentResolver {
 
+  private static final Logger logger = LoggerFactory.getLogger(CWLDocumentResolver.class);
+
   public static Set<String> types = new HashSet<String>();
 
   static {
@@ -82,18 +100,19 @@ public class CWLDocumentResolver {
 
   private static final String DEFAULT_ENCODING = "UTF-8";
 
-  private static ConcurrentMap<String, String> cache = new ConcurrentHashMap<>();
-  private static boolean graphResolve = false;
+  private static final int CACHE_SIZE = 1000;
+  private static final int CACHE_TTL_MINUTES = 60;
+  private static final int FETCH_THREADS = 8;
 
-  private static Map<String, String> namespaces = new HashMap<String, String>();
-  private static Map<String, Map<String, CWLDocumentResolverReference>> referenceCache = new HashMap<>();
-  private static Map<String, LinkedHashSet<CWLDocumentResolverReplacement>> replacements = new HashMap<>();
+  /**
+   * Resolved documents keyed by application URI and the hash of its contents
+   */
+  private static final Cache<String, ResolvedDocument> cache = CacheBuilder.newBuilder().maximumSize(CACHE_SIZE).expireAfterWrite(CACHE_TTL_MINUTES, TimeUnit.MINUTES).build();
 
-  public static String resolve(String appUrl) throws BindingException {
-    if (cache.containsKey(appUrl)) {
-      return cache.get(appUrl);
-    }
+  private static final ExecutorService fetchExecutor = Executors.newFixedThreadPool(FETCH_THREADS,
+      new ThreadFactoryBuilder().setNameFormat("cwl-resolver-%d").setDaemon(true).build());
 
+  public static String resolve(String appUrl) throws BindingException {
     String appUrlBase = appUrl;
     if (!URIHelper.isData(appUrl)) {
       appUrlBase = URIHelper.extractBase(appUrl);
@@ -102,72 +121,79 @@ public class CWLDocumentResolver {
     boolean rewriteDefaultPaths = false;
 
     File file = null;
-    JsonNode root = null;
+    String input = null;
     try {
-      boolean isFile = URIHelper.isFile(appUrlBase);
-      if (isFile) {
+      if (URIHelper.isFile(appUrlBase)) {
         rewriteDefaultPaths = true;
         file = new File(URIHelper.getURIInfo(appUrlBase));
       } else {
         file = new File(".");
       }
-      String input = URIHelper.getData(appUrlBase);
-      try {
-        root = JSONHelper.readJsonNode(input);
-      } catch (Exception e) {
-        // try to parse YAML
-        root = JSONHelper.readJsonNode(JSONHelper.transformToJSON(input));
-      }
-      if (isFile) {
-        addAppLocation(root, appUrl, StringUtils.EMPTY);
-      }
+      input = URIHelper.getData(appUrlBase);
     } catch (IOException e) {
       throw new BindingException(e);
     }
 
+    String cacheKey = Hashing.sha1().newHasher().putString(appUrl, StandardCharsets.UTF_8).putString(input, StandardCharsets.UTF_8).hash().toString();
+    ResolvedDocument cached = cache.getIfPresent(cacheKey);
+    if (cached != null && cached.isUpToDate()) {
+      return cached.document;
+    }
+    ResolverContext context = new ResolverContext(appUrl, file);
+
+    JsonNode root = null;
+    try {
+      root = JSONHelper.readJsonNode(input);
+    } catch (Exception e) {
+      // try to parse YAML
+      root = JSONHelper.readJsonNode(JSONHelper.transformToJSON(input));
+    }
+    if (rewriteDefaultPaths) {
+      addAppLocation(root, appUrl, StringUtils.EMPTY);
+    }
+
     if (root.has(SCHEMA_KEY)) {
       throw new NotImplementedException("Feature not implemented");
     }
 
     if (root.has(GRAPH_KEY)) {
-      graphResolve = true;
+      context.graphResolve = true;
     }
 
     if (root.has(NAMESPACES_KEY)) {
-      populateNamespaces(root);
+      populateNamespaces(context, root);
       ((ObjectNode) root).remove(NAMESPACES_KEY);
     }
 
-    traverse(appUrl, root, file, null, root);
+    prefetch(context, root);
+    traverse(context, root, null, root);
 
-    for (CWLDocumentResolverReplacement replacement : getReplacements(appUrl)) {
+    for (CWLDocumentResolverReplacement replacement : context.replacements) {
       if (replacement.getParentNode().isArray()) {
-        replaceArrayItem(appUrl, root, replacement);
+        replaceArrayItem(context, root, replacement);
       } else if (replacement.getParentNode().isObject()) {
-        replaceObjectItem(appUrl, root, replacement);
+        replaceObjectItem(context, root, replacement);
       }
     }
 
-    if (graphResolve) {
+    String resolved = null;
+    if (context.graphResolve) {
       String fragment = URIHelper.extractFragment(appUrl).substring(1);
 
       String cwlVersion = root.get(CWL_VERSION_KEY).asText();
       if (!(cwlVersion.equals(ProtocolType.CWL.appVersion))) {
-        clearReplacements(appUrl);
-        clearReferenceCache(appUrl);
         throw new BindingException("Document version is not cwl:draft-3");
       }
 
-      clearReplacements(appUrl);
-      clearReferenceCache(appUrl);
+      context.clear();
 
-      removeFragmentIdentifier(appUrl, root, file, null, root, fragment);
+      removeFragmentIdentifier(context, root, null, root, fragment);
 
-      for (CWLDocumentResolverReplacement replacement : getReplacements(appUrl)) {
+      for (CWLDocumentResolverReplacement replacement : context.replacements) {
         if (replacement.getParentNode().isArray()) {
-          replaceArrayItem(appUrl, root, replacement);
+          replaceArrayItem(context, root, replacement);
         } else if (replacement.getParentNode().isObject()) {
-          replaceObjectItem(appUrl, root, replacement);
+          replaceObjectItem(context, root, replacement);
         }
       }
 
@@ -176,27 +202,25 @@ public class CWLDocumentResolver {
           Map<String, Object> result = JSONHelper.readMap(elem);
           result.put(CWL_VERSION_KEY, cwlVersion);
           root = JSONHelper.convertToJsonNode(result);
-          cache.put(appUrl, JSONHelper.writeObject(root));
+          resolved = JSONHelper.writeObject(root);
           break;
         }
       }
-      graphResolve = false;
     } else {
       if (!(root.get(CWL_VERSION_KEY).asText().equals(ProtocolType.CWL.appVersion))) {
-        clearReplacements(appUrl);
-        clearReferenceCache(appUrl);
         throw new BindingException("Document version is not v1.0");
       }
-      cache.put(appUrl, JSONHelper.writeObject(root));
+      resolved = JSONHelper.writeObject(root);
     }
-    clearReplacements(appUrl);
-    clearReferenceCache(appUrl);
     
     if (rewriteDefaultPaths) {
       addAppLocations(root, appUrl);
-      cache.put(appUrl, JSONHelper.writeObject(root));
+      resolved = JSONHelper.writeObject(root);
+    }
+    if (resolved != null) {
+      cache.put(cacheKey, new ResolvedDocument(resolved, context.dependencies));
     }
-    return cache.get(appUrl);
+    return resolved;
   }
   
   private static void addAppLocations(JsonNode node, String previous) {
@@ -250,15 +274,15 @@ public class CWLDocumentResolver {
     return true;
   }
 
-  private static void populateNamespaces(JsonNode root) {
+  private static void populateNamespaces(ResolverContext context, JsonNode root) {
     Iterator<Entry<String, JsonNode>> fieldIterator = root.get(NAMESPACES_KEY).fields();
     while (fieldIterator.hasNext()) {
       Entry<String, JsonNode> fieldEntry = fieldIterator.next();
-      namespaces.put(fieldEntry.getKey(), fieldEntry.getValue().asText());
+      context.namespaces.put(fieldEntry.getKey(), fieldEntry.getValue().asText());
     }
   }
 
-  private static JsonNode traverse(String appUrl, JsonNode root, File file, JsonNode parentNode, JsonNode currentNode)
+  private static JsonNode traverse(ResolverContext context, JsonNode root, JsonNode parentNode, JsonNode currentNode)
       throws BindingException {
     Preconditions.checkNotNull(currentNode, "current node id is null");
 
@@ -266,15 +290,15 @@ public class CWLDocumentResolver {
 
     if (isInclude) {
       String path = currentNode.get(RESOLVER_REFERENCE_INCLUDE_KEY).textValue();
-      String content = loadContents(file, path);
+      String content = loadContents(context, path);
 
       CWLDocumentResolverReference reference = new CWLDocumentResolverReference(false, new TextNode(content));
-      getReferenceCache(appUrl).put(path, reference);
-      getReplacements(appUrl).add(new CWLDocumentResolverReplacement(parentNode, currentNode, path));
+      context.references.put(path, reference);
+      context.replacements.add(new CWLDocumentResolverReplacement(parentNode, currentNode, path));
       return null;
     }
 
-    namespace(currentNode);
+    namespace(context, currentNode);
 
     boolean isReference = currentNode.has(RESOLVER_REFERENCE_KEY);
     boolean appReference = currentNode.has(APP_STEP_KEY) && currentNode.get(APP_STEP_KEY).isTextual();
@@ -295,7 +319,7 @@ public class CWLDocumentResolver {
         referencePath = currentNode.get(RESOLVER_JSON_POINTER_KEY).textValue();
       }
 
-      CWLDocumentResolverReference reference = getReferenceCache(appUrl).get(referencePath);
+      CWLDocumentResolverReference reference = context.references.get(referencePath);
       if (reference != null) {
         if (reference.isResolving()) {
           throw new BindingException("Circular dependency detected!");
@@ -303,32 +327,32 @@ public class CWLDocumentResolver {
       } else {
         reference = new CWLDocumentResolverReference();
         reference.setResolving(true);
-        getReferenceCache(appUrl).put(referencePath, reference);
+        context.references.put(referencePath, reference);
 
-        JsonNode referenceDocumentRoot = findDocumentRoot(root, file, referencePath, isJsonPointer);
+        JsonNode referenceDocumentRoot = findDocumentRoot(context, root, referencePath, isJsonPointer);
         ParentChild parentChild = findReferencedNode(referenceDocumentRoot, referencePath);
-        JsonNode resolvedNode = traverse(appUrl, root, file, parentChild.parent, parentChild.child);
+        JsonNode resolvedNode = traverse(context, root, parentChild.parent, parentChild.child);
         if (resolvedNode == null) {
           return null;
         }
 
         reference.setResolvedNode(resolvedNode);
         reference.setResolving(false);
-        getReferenceCache(appUrl).put(referencePath, reference);
+        context.references.put(referencePath, reference);
       }
       if (appReference) {
-        getReplacements(appUrl)
+        context.replacements
             .add(new CWLDocumentResolverReplacement(currentNode, currentNode.get("run"), referencePath));
       } else if (typeReference) {
-        getReplacements(appUrl)
+        context.replacements
             .add(new CWLDocumentResolverReplacement(currentNode, currentNode.get("type"), referencePath));
       } else {
-        getReplacements(appUrl).add(new CWLDocumentResolverReplacement(parentNode, currentNode, referencePath));
+        context.replacements.add(new CWLDocumentResolverReplacement(parentNode, currentNode, referencePath));
       }
       return reference.getResolvedNode();
     } else if (currentNode.isContainerNode()) {
       for (JsonNode subnode : currentNode) {
-        traverse(appUrl, root, file, currentNode, subnode);
+        traverse(context, root, currentNode, subnode);
       }
     }
     return currentNode;
@@ -340,13 +364,13 @@ public class CWLDocumentResolver {
         || node.get(CLASS_KEY).asText().equals(PYTHON_TOOL));
   }
 
-  private static void namespace(JsonNode currentNode) {
+  private static void namespace(ResolverContext context, JsonNode currentNode) {
     Iterator<Entry<String, JsonNode>> fieldIterator = currentNode.fields();
     while (fieldIterator.hasNext()) {
       Entry<String, JsonNode> fieldEntry = fieldIterator.next();
       if (fieldEntry.getValue().isTextual()
-          && namespaces.keySet().contains(fieldEntry.getValue().asText().split(":")[0])) {
-        String prefix = namespaces.get(fieldEntry.getValue().asText().split(":")[0]);
+          && context.namespaces.keySet().contains(fieldEntry.getValue().asText().split(":")[0])) {
+        String prefix = context.namespaces.get(fieldEntry.getValue().asText().split(":")[0]);
         String namespacedValue = fieldEntry.getValue().asText()
             .replace(fieldEntry.getValue().asText().split(":")[0] + ":", prefix);
         ((ObjectNode) currentNode).put(fieldEntry.getKey(), namespacedValue);
@@ -355,7 +379,7 @@ public class CWLDocumentResolver {
   }
 
   @SuppressWarnings("deprecation")
-  private static void replaceObjectItem(String appURL, JsonNode root, CWLDocumentResolverReplacement replacement) throws BindingException {
+  private static void replaceObjectItem(ResolverContext context, JsonNode root, CWLDocumentResolverReplacement replacement) throws BindingException {
     JsonNode parent = replacement.getParentNode() == null ? root : replacement.getParentNode();
 
     Iterator<Entry<String, JsonNode>> fieldIterator = parent.fields();
@@ -368,8 +392,8 @@ public class CWLDocumentResolver {
         break;
       }
     }
-    CWLDocumentResolverReference reference = getReferenceCache(appURL).get(replacement.getNormalizedReferencePath());
-    addAppLocation(reference.getResolvedNode(), appURL, replacement.getNormalizedReferencePath());
+    CWLDocumentResolverReference reference = context.references.get(replacement.getNormalizedReferencePath());
+    addAppLocation(reference.getResolvedNode(), context.appUrl, replacement.getNormalizedReferencePath());
 
     if (reference != null) {
       ((ObjectNode) parent).put(fieldName, reference.getResolvedNode());
@@ -399,7 +423,7 @@ public class CWLDocumentResolver {
     }
   }
 
-  private static void replaceArrayItem(String appURL, JsonNode root, CWLDocumentResolverReplacement replacement) throws BindingException {
+  private static void replaceArrayItem(ResolverContext context, JsonNode root, CWLDocumentResolverReplacement replacement) throws BindingException {
     JsonNode parent = replacement.getParentNode() == null ? root : replacement.getParentNode();
 
     Iterator<JsonNode> nodeIterator = parent.elements();
@@ -411,8 +435,8 @@ public class CWLDocumentResolver {
       }
     }
     if (parent.isArray()) {
-      CWLDocumentResolverReference reference = getReferenceCache(appURL).get(replacement.getNormalizedReferencePath());
-      addAppLocation(reference.getResolvedNode(), appURL, replacement.getNormalizedReferencePath());
+      CWLDocumentResolverReference reference = context.references.get(replacement.getNormalizedReferencePath());
+      addAppLocation(reference.getResolvedNode(), context.appUrl, replacement.getNormalizedReferencePath());
 
       if (reference != null) {
         ((ArrayNode) parent).add(reference.getResolvedNode());
@@ -420,7 +444,7 @@ public class CWLDocumentResolver {
     }
   }
 
-  private static JsonNode findDocumentRoot(JsonNode root, File file, String reference, boolean isJsonPointer)
+  private static JsonNode findDocumentRoot(ResolverContext context, JsonNode root, String reference, boolean isJsonPointer)
       throws BindingException {
     JsonNode startNode = root;
     if (isJsonPointer) {
@@ -435,12 +459,24 @@ public class CWLDocumentResolver {
       if (parts.length > 2) {
         throw new BindingException("Invalid reference " + reference);
       }
-      String contents = loadContents(file, parts[0]);
+      String contents = loadContents(context, parts[0]);
       return JSONHelper.readJsonNode(JSONHelper.transformToJSON(contents));
     }
   }
 
-  private static String loadContents(File file, String path) throws BindingException {
+  /**
+   * Loads contents of the referenced document, unless they were already fetched for this resolution
+   */
+  private static String loadContents(ResolverContext context, String path) throws BindingException {
+    String contents = context.contents.get(path);
+    if (contents == null) {
+      contents = fetchContents(context, path);
+      context.contents.put(path, contents);
+    }
+    return contents;
+  }
+
+  private static String fetchContents(ResolverContext context, String path) throws BindingException {
     if (path.startsWith("http")) {
       try {
         URL website = new URL(path);
@@ -466,8 +502,9 @@ public class CWLDocumentResolver {
       }
     } else {
       try {
-        String filePath = new File(file.getParentFile(), path).getCanonicalPath();
-        return FileUtils.readFileToString(new File(filePath), DEFAULT_ENCODING);
+        File referencedFile = new File(new File(context.file.getParentFile(), path).getCanonicalPath());
+        context.dependencies.put(referencedFile, referencedFile.lastModified());
+        return FileUtils.readFileToString(referencedFile, DEFAULT_ENCODING);
       } catch (IOException e) {
         throw new BindingException("Couldn't fetch contents from " + path);
       }
@@ -516,45 +553,142 @@ public class CWLDocumentResolver {
     return new ParentChild(parent, child);
   }
 
-  private static JsonNode removeFragmentIdentifier(String appUrl, JsonNode root, File file, JsonNode parentNode, JsonNode currentNode, String fragment) throws BindingException {
+  private static JsonNode removeFragmentIdentifier(ResolverContext context, JsonNode root, JsonNode parentNode, JsonNode currentNode, String fragment) throws BindingException {
     Preconditions.checkNotNull(currentNode, "current node id is null");
     if (currentNode.isTextual() && currentNode.asText().startsWith(DOCUMENT_FRAGMENT_SEPARATOR)) {
       CWLDocumentResolverReference reference = new CWLDocumentResolverReference();
       reference.setResolvedNode(JsonNodeFactory.instance.textNode(currentNode.asText().replace(fragment + "/", "")));
-      getReferenceCache(appUrl).put(currentNode.asText(), reference);
-      getReplacements(appUrl).add(new CWLDocumentResolverReplacement(parentNode, currentNode, currentNode.asText()));
+      context.references.put(currentNode.asText(), reference);
+      context.replacements.add(new CWLDocumentResolverReplacement(parentNode, currentNode, currentNode.asText()));
     } else if (currentNode.isContainerNode()) {
       for (JsonNode subnode : currentNode) {
-        removeFragmentIdentifier(appUrl, root, file, currentNode, subnode, fragment);
+        removeFragmentIdentifier(context, root, currentNode, subnode, fragment);
       }
     }
     return currentNode;
   }
 
-  private synchronized static Set<CWLDocumentResolverReplacement> getReplacements(String url) {
-    LinkedHashSet<CWLDocumentResolverReplacement> replacementsPerUrl = replacements.get(url);
-    if (replacementsPerUrl == null) {
-      replacementsPerUrl = new LinkedHashSet<CWLDocumentResolverReplacement>();
-      replacements.put(url, replacementsPerUrl);
+  /**
+   * Fetches documents referenced from the root, and from the fetched documents, in parallel one level at a time.
+   * Failures are ignored here, the traversal fetches such documents again and reports the error.
+   */
+  private static void prefetch(final ResolverContext context, JsonNode root) {
+    Map<String, Boolean> pending = new LinkedHashMap<>();
+    collectReferences(root, pending);
+
+    while (!pending.isEmpty()) {
+      Map<String, Future<String>> futures = new LinkedHashMap<>();
+      for (final String path : pending.keySet()) {
+        if (context.contents.containsKey(path)) {
+          continue;
+        }
+        futures.put(path, fetchExecutor.submit(new Callable<String>() {
+          @Override
+          public String call() throws Exception {
+            return fetchContents(context, path);
+          }
+        }));
+      }
+
+      Map<String, Boolean> next = new LinkedHashMap<>();
+      for (Entry<String, Future<String>> future : futures.entrySet()) {
+        try {
+          String contents = future.getValue().get();
+          context.contents.put(future.getKey(), contents);
+          if (pending.get(future.getKey())) {
+            collectReferences(JSONHelper.readJsonNode(JSONHelper.transformToJSON(contents)), next);
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        } catch (ExecutionException | RuntimeException e) {
+          logger.debug("Failed to prefetch " + future.getKey(), e);
+        }
+      }
+      pending = next;
     }
-    return replacementsPerUrl;
   }
 
-  private synchronized static void clearReplacements(String url) {
-    replacements.remove(url);
+  /**
+   * Collects paths of external documents the same way traverse finds references. Values tell whether the contents are a document or an include.
+   */
+  private static void collectReferences(JsonNode currentNode, Map<String, Boolean> references) {
+    if (currentNode.has(RESOLVER_REFERENCE_INCLUDE_KEY)) {
+      String path = currentNode.get(RESOLVER_REFERENCE_INCLUDE_KEY).textValue();
+      if (path != null) {
+        references.put(path, false);
+      }
+      return;
+    }
+
+    String referencePath = null;
+    if (currentNode.has(RESOLVER_REFERENCE_KEY)) {
+      referencePath = currentNode.get(RESOLVER_REFERENCE_KEY).textValue();
+    } else if (currentNode.has(APP_STEP_KEY) && currentNode.get(APP_STEP_KEY).isTextual()) {
+      referencePath = currentNode.get(APP_STEP_KEY).textValue();
+    } else if (currentNode.has(TYPE_KEY) && currentNode.get(TYPE_KEY).isTextual() && isTypeReference(currentNode.get(TYPE_KEY).textValue())) {
+      referencePath = currentNode.get(TYPE_KEY).textValue();
+    }
+
+    if (referencePath != null) {
+      int fragmentStart = referencePath.indexOf(DOCUMENT_FRAGMENT_SEPARATOR);
+      if (fragmentStart != 0) {
+        references.put(fragmentStart > 0 ? referencePath.substring(0, fragmentStart) : referencePath, true);
+      }
+    } else if (currentNode.isContainerNode()) {
+      for (JsonNode subnode : currentNode) {
+        collectReferences(subnode, references);
+      }
+    }
   }
 
-  private synchronized static Map<String, CWLDocumentResolverReference> getReferenceCache(String url) {
-    Map<String, CWLDocumentResolverReference> referenceCachePerUrl = referenceCache.get(url);
-    if (referenceCachePerUrl == null) {
-      referenceCachePerUrl = new HashMap<String, CWLDocumentResolverReference>();
-      referenceCache.put(url, referenceCachePerUrl);
+  /**
+   * State of a single resolution
+   */
+  private static class ResolverContext {
+    private final String appUrl;
+    private final File file;
+
+    private boolean graphResolve = false;
+
+    private final Map<String, String> namespaces = new HashMap<>();
+    private final Map<String, String> contents = new ConcurrentHashMap<>();
+    private final Map<File, Long> dependencies = new ConcurrentHashMap<>();
+
+    private Map<String, CWLDocumentResolverReference> references = new HashMap<>();
+    private Set<CWLDocumentResolverReplacement> replacements = new LinkedHashSet<>();
+
+    private ResolverContext(String appUrl, File file) {
+      this.appUrl = appUrl;
+      this.file = file;
+    }
+
+    private void clear() {
+      references = new HashMap<>();
+      replacements = new LinkedHashSet<>();
     }
-    return referenceCachePerUrl;
   }
 
-  private synchronized static void clearReferenceCache(String url) {
-    referenceCache.remove(url);
+  /**
+   * Resolved document together with modification times of local documents it references
+   */
+  private static class ResolvedDocument {
+    private final String document;
+    private final Map<File, Long> dependencies;
+
+    private ResolvedDocument(String document, Map<File, Long> dependencies) {
+      this.document = document;
+      this.dependencies = new HashMap<>(dependencies);
+    }
+
+    private boolean isUpToDate() {
+      for (Entry<File, Long> dependency : dependencies.entrySet()) {
+        if (dependency.getKey().lastModified() != dependency.getValue()) {
+          return false;
+        }
+      }
+      return true;
+    }
   }
 
   private static class ParentChild {
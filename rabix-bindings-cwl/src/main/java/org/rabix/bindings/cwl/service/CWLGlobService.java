@@ -1,6 +1,7 @@
 package org.rabix.bindings.cwl.service;
 
 import java.io.File;
+import java.util.Map;
 import java.util.Set;
 
 import org.rabix.bindings.cwl.bean.CWLJob;
@@ -9,4 +10,9 @@ public interface CWLGlobService {
 
   Set<File> glob(CWLJob job, File workingDir, Object glob) throws CWLGlobException;
   
+  /**
+   * Finds files for many GLOBs at once. Values are null where nothing matches, as with the single GLOB.
+   */
+  <K> Map<K, Set<File>> glob(CWLJob job, File workingDir, Map<K, Object> globs) throws CWLGlobException;
+  
 }
@@ -2,17 +2,12 @@ package org.rabix.bindings.cwl.service.impl;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.FileSystems;
-import java.nio.file.FileVisitResult;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.PathMatcher;
-import java.nio.file.SimpleFileVisitor;
-import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedHashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 
 import org.rabix.bindings.cwl.bean.CWLJob;
@@ -20,6 +15,7 @@ import org.rabix.bindings.cwl.expression.CWLExpressionException;
 import org.rabix.bindings.cwl.expression.CWLExpressionResolver;
 import org.rabix.bindings.cwl.service.CWLGlobException;
 import org.rabix.bindings.cwl.service.CWLGlobService;
+import org.rabix.bindings.helper.GlobHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -32,11 +28,56 @@ public class CWLGlobServiceImpl implements CWLGlobService {
   /**
    * Find all files that match GLOB inside the working directory 
    */
-  @SuppressWarnings("unchecked")
   public Set<File> glob(CWLJob job, File workingDir, Object glob) throws CWLGlobException {
     Preconditions.checkNotNull(job);
     Preconditions.checkNotNull(workingDir);
     
+    List<String> globs = resolve(job, glob);
+    if (globs == null) {
+      return Collections.<File> emptySet();
+    }
+    return glob(workingDir, Collections.singletonMap(glob, globs)).get(glob);
+  }
+  
+  /**
+   * Find files for all GLOBs with a single walk through the working directory. GLOBs that evaluate to null get an empty set
+   */
+  public <K> Map<K, Set<File>> glob(CWLJob job, File workingDir, Map<K, Object> globs) throws CWLGlobException {
+    Preconditions.checkNotNull(job);
+    Preconditions.checkNotNull(workingDir);
+    
+    Map<K, List<String>> resolvedGlobs = new LinkedHashMap<>();
+    Map<K, Set<File>> emptyGlobs = new LinkedHashMap<>();
+    for (Entry<K, Object> glob : globs.entrySet()) {
+      List<String> resolved = resolve(job, glob.getValue());
+      if (resolved != null) {
+        resolvedGlobs.put(glob.getKey(), resolved);
+      } else {
+        emptyGlobs.put(glob.getKey(), Collections.<File> emptySet());
+      }
+    }
+    Map<K, Set<File>> files = glob(workingDir, resolvedGlobs);
+    files.putAll(emptyGlobs);
+    return files;
+  }
+  
+  private <K> Map<K, Set<File>> glob(File workingDir, Map<K, List<String>> resolvedGlobs) throws CWLGlobException {
+    try {
+      Map<K, Set<File>> files = GlobHelper.glob(workingDir, resolvedGlobs, true);
+      for (Entry<K, Set<File>> entry : files.entrySet()) {
+        if (entry.getValue().isEmpty()) {
+          entry.setValue(null);
+        }
+      }
+      return files;
+    } catch (IOException e) {
+      logger.error("Failed to traverse through working directory", e);
+      throw new CWLGlobException("Failed to traverse through working directory", e);
+    }
+  }
+  
+  @SuppressWarnings("unchecked")
+  private List<String> resolve(CWLJob job, Object glob) throws CWLGlobException {
     try {
       glob = CWLExpressionResolver.resolve(glob, job, null);
     } catch (CWLExpressionException e) {
@@ -44,7 +85,7 @@ public class CWLGlobServiceImpl implements CWLGlobService {
       throw new CWLGlobException("Failed to evaluate glob " + glob, e);
     }
     if (glob == null) {
-      return Collections.<File> emptySet();
+      return null;
     }
     List<String> globs = new ArrayList<>();
     if (glob instanceof List<?>) {
@@ -52,40 +93,7 @@ public class CWLGlobServiceImpl implements CWLGlobService {
     } else {
       globs.add((String) glob);
     }
-    
-    final Set<File> files = new LinkedHashSet<>();
-    for (String singleGlob : globs) {
-      if (singleGlob.equals(".")) { // TODO fix this
-        singleGlob = workingDir.getName();
-      }
-      final PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + singleGlob);
-      try {
-        Files.walkFileTree(workingDir.toPath(), new SimpleFileVisitor<Path>() {
-          @Override
-          public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-            if (matcher.matches(file.getFileName())) {
-              files.add(file.toFile());
-            }
-            return FileVisitResult.CONTINUE;
-          }
-          @Override
-          public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
-            if (matcher.matches(dir.getFileName())) {
-              files.add(dir.toFile());
-            }
-            return super.preVisitDirectory(dir, attrs);
-          }
-          @Override
-          public FileVisitResult visitFileFailed(Path file, IOException exc) throws IOException {
-            return FileVisitResult.CONTINUE;
-          }
-        });
-      } catch (IOException e) {
-        logger.error("Failed to traverse through working directory", e);
-        throw new CWLGlobException("Failed to traverse through working directory", e);
-      }
-    }
-    return files.isEmpty() ? null : files;
+    return globs;
   }
   
 }
@@ -0,0 +1,49 @@
+package org.rabix.bindings.cwl.expression.javascript;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.rabix.bindings.cwl.expression.CWLExpressionException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+@Test(groups = { "functional" })
+public class CWLExpressionJavascriptResolverTest {
+
+  private final static String POLYFILL = "if (!String.prototype.endsWith) { String.prototype.endsWith = function(suffix) { return this.indexOf(suffix, this.length - suffix.length) !== -1; }; }"
+      + " String.prototype.stem = function() { return this.substring(0, this.lastIndexOf('.')); };";
+
+  @Test
+  public void testExpressionLibPolyfill() throws CWLExpressionException {
+    List<String> libs = Collections.singletonList(POLYFILL);
+
+    Assert.assertEquals(CWLExpressionJavascriptResolver.evaluate(inputs("sample.bam"), null, "$(inputs.name.stem())", null, libs), "sample");
+    Assert.assertEquals(CWLExpressionJavascriptResolver.evaluate(inputs("sample.bam"), null, "$(inputs.name.endsWith('.bam'))", null, libs), true);
+  }
+
+  @Test(dependsOnMethods = "testExpressionLibPolyfill")
+  public void testPolyfillNotVisibleWithoutLib() throws CWLExpressionException {
+    Assert.assertEquals(CWLExpressionJavascriptResolver.evaluate(inputs("sample.bam"), null, "$(typeof inputs.name.stem)", null, null), "undefined");
+    Assert.assertEquals(CWLExpressionJavascriptResolver.evaluate(inputs("sample.bam"), null, "$(typeof inputs.name.stem)", null, Arrays.asList("var x = 1;")), "undefined");
+  }
+
+  @Test
+  public void testGlobalsIsolated() throws CWLExpressionException {
+    Assert.assertEquals(CWLExpressionJavascriptResolver.evaluate(inputs("a"), null, "${ var total = 2; return total; }", null, null), 2);
+    Assert.assertEquals(CWLExpressionJavascriptResolver.evaluate(inputs("a"), null, "${ leaked = 3; return leaked; }", null, null), 3);
+    Assert.assertEquals(CWLExpressionJavascriptResolver.evaluate(inputs("a"), null, "$(typeof leaked)", null, null), "undefined");
+
+    Assert.assertEquals(CWLExpressionJavascriptResolver.evaluate(inputs("a"), null, "${ Math = null; return 1; }", null, null), 1);
+    Assert.assertEquals(CWLExpressionJavascriptResolver.evaluate(inputs("a"), null, "$(Math.max(1, 4))", null, null), 4);
+  }
+
+  private Map<String, Object> inputs(String name) {
+    Map<String, Object> inputs = new HashMap<>();
+    inputs.put("name", name);
+    return inputs;
+  }
+
+}
@@ -0,0 +1,45 @@
+package org.rabix.bindings.cwl.helper;
+
+import java.util.List;
+import java.util.Map;
+
+import org.rabix.common.helper.JSONHelper;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+@Test(groups = { "functional" })
+public class CWLCompiledSchemaTest {
+
+  private final static String POINT = "{\"type\": \"record\", \"name\": \"Point\", \"fields\": [{\"name\": \"x\", \"type\": \"int\"}, {\"name\": \"y\", \"type\": \"int\"}]}";
+  private final static String LABEL = "{\"type\": \"record\", \"name\": \"Label\", \"fields\": [{\"name\": \"text\", \"type\": \"string\"}, {\"name\": \"size\", \"type\": [\"null\", \"long\"]}]}";
+  private final static String ARRAY = "{\"type\": \"array\", \"items\": [" + POINT + ", " + LABEL + "]}";
+
+  @Test
+  public void testArrayItemUnion() {
+    Object schema = JSONHelper.readMap(ARRAY);
+    CWLCompiledSchema compiledSchema = new CWLCompiledSchema(schema, null);
+
+    List<Object> items = JSONHelper.readObject("[{\"x\": 1, \"y\": 2}, {\"text\": \"a\", \"size\": 3000000000}, {\"text\": \"b\"}, {\"x\": \"1\"}]", new TypeReference<List<Object>>() {});
+    for (Object item : items) {
+      Object expected = CWLSchemaHelper.getSchemaForArrayItem(item, null, JSONHelper.readMap(ARRAY));
+      Assert.assertEquals(compiledSchema.getSchemaForArrayItem(item), expected);
+    }
+    Assert.assertEquals(CWLSchemaHelper.getName(compiledSchema.getSchemaForArrayItem(items.get(0))), "Point");
+    Assert.assertEquals(CWLSchemaHelper.getName(compiledSchema.getSchemaForArrayItem(items.get(1))), "Label");
+    Assert.assertEquals(CWLSchemaHelper.getName(compiledSchema.getSchemaForArrayItem(items.get(2))), "Label");
+    Assert.assertTrue(((Map<?, ?>) compiledSchema.getSchemaForArrayItem(items.get(3))).isEmpty());
+  }
+
+  @Test
+  public void testRecordFields() {
+    Object schema = JSONHelper.readMap(LABEL);
+    CWLCompiledSchema compiledSchema = new CWLCompiledSchema(schema, null);
+
+    Assert.assertEquals(compiledSchema.getField("text"), CWLSchemaHelper.getField("text", schema));
+    Assert.assertEquals(CWLSchemaHelper.getType(compiledSchema.getField("text")), "string");
+    Assert.assertNull(compiledSchema.getField("missing"));
+  }
+
+}
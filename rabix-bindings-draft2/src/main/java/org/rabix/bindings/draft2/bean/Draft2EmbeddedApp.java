@@ -3,7 +3,6 @@ package org.rabix.bindings.draft2.bean;
 import java.util.List;
 
 import org.rabix.bindings.BindingException;
-import org.rabix.bindings.Bindings;
 import org.rabix.bindings.BindingsFactory;
 import org.rabix.bindings.model.Application;
 import org.rabix.bindings.model.ApplicationPort;
@@ -23,9 +22,7 @@ public class Draft2EmbeddedApp extends Draft2JobApp {
   @JsonCreator
   public Draft2EmbeddedApp(String raw) {
     try {
-      Bindings bindings = BindingsFactory.create(raw);
-
-      application = bindings.loadAppObject(raw);
+      application = BindingsFactory.loadAppObject(raw);
       inputs = Lists.transform(application.getInputs(), new Function<ApplicationPort, Draft2InputPort>() {
         @Override
         public Draft2InputPort apply(ApplicationPort port) {
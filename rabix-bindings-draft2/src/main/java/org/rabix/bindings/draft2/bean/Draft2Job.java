@@ -8,6 +8,7 @@ import org.rabix.bindings.draft2.bean.resource.Draft2MemoryResource;
 import org.rabix.bindings.draft2.bean.resource.requirement.Draft2IORequirement;
 import org.rabix.bindings.draft2.expression.Draft2ExpressionException;
 import org.rabix.bindings.draft2.helper.Draft2SchemaHelper;
+import org.rabix.common.helper.CloneHelper;
 import org.rabix.common.json.BeanPropertyView;
 import org.rabix.common.json.processor.BeanProcessorClass;
 
@@ -71,7 +72,7 @@ public final class Draft2Job {
     for (Draft2InputPort inputPort : app.getInputs()) {
       String normalizedId = Draft2SchemaHelper.normalizeId(inputPort.getId());
       if (!inputs.containsKey(normalizedId) && inputPort.getDefaultValue() != null) {
-        inputs.put(normalizedId, inputPort.getDefaultValue());
+        inputs.put(normalizedId, CloneHelper.deepCopy(inputPort.getDefaultValue()));
       }
     }
   }
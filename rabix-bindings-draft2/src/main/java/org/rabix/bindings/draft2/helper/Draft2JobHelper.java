@@ -1,6 +1,9 @@
 package org.rabix.bindings.draft2.helper;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
 import org.rabix.bindings.BindingException;
 import org.rabix.bindings.draft2.Draft2JobProcessor;
@@ -10,19 +13,36 @@ import org.rabix.bindings.draft2.bean.Draft2JobApp;
 import org.rabix.bindings.draft2.bean.Draft2Resources;
 import org.rabix.bindings.draft2.resolver.Draft2DocumentResolver;
 import org.rabix.bindings.model.Job;
+import org.rabix.common.helper.InternalSchemaHelper;
 import org.rabix.common.json.BeanSerializer;
 
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
 public class Draft2JobHelper {
 
+  private final static int APP_CACHE_SIZE = 1000;
+
+  /**
+   * Processed applications keyed by digest of the resolved application and Job name (step IDs depend on it).
+   * They are shared between Jobs, so nothing should change them.
+   */
+  private final static Cache<String, Draft2JobApp> apps = CacheBuilder.newBuilder().maximumSize(APP_CACHE_SIZE).build();
+
   @SuppressWarnings("unchecked")
   public static Draft2Job getDraft2Job(Job job) throws BindingException {
-    String resolvedAppStr = Draft2DocumentResolver.resolve(job.getApp());
-    Draft2JobApp app = BeanSerializer.deserialize(resolvedAppStr, Draft2JobApp.class);
+    Draft2JobApp app = getApp(job);
     
     Map<String, Object> nativeInputs = (Map<String, Object>) Draft2ValueTranslator.translateToSpecific(job.getInputs());
     Map<String, Object> nativeOutputs = (Map<String, Object>) Draft2ValueTranslator.translateToSpecific(job.getOutputs());
     
-    Draft2Job sbJob = new Draft2JobProcessor().process(new Draft2Job(job.getName(), app, nativeInputs, nativeOutputs));
+    Draft2Job sbJob = new Draft2Job(job.getName(), app, nativeInputs, nativeOutputs);
+    if (sbJob.getId() == null) {
+      sbJob.setId(InternalSchemaHelper.ROOT_NAME);
+    }
 
     if (job.getResources() != null) {
       Draft2Resources sbResources = new Draft2Resources(false, job.getResources().getCpu(), job.getResources().getMemMB());
@@ -31,4 +51,22 @@ public class Draft2JobHelper {
     return sbJob;
   }
 
+  private static Draft2JobApp getApp(final Job job) throws BindingException {
+    final String resolvedAppStr = Draft2DocumentResolver.resolve(job.getApp());
+    String key = Hashing.sha1().hashString(resolvedAppStr, StandardCharsets.UTF_8).toString() + "/" + job.getName();
+    try {
+      return apps.get(key, new Callable<Draft2JobApp>() {
+        @Override
+        public Draft2JobApp call() throws Exception {
+          Draft2JobApp app = BeanSerializer.deserialize(resolvedAppStr, Draft2JobApp.class);
+          return new Draft2JobProcessor().process(new Draft2Job(job.getName(), app, null, null)).getApp();
+        }
+      });
+    } catch (UncheckedExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    } catch (ExecutionException e) {
+      throw new BindingException(e.getCause());
+    }
+  }
+  
 }
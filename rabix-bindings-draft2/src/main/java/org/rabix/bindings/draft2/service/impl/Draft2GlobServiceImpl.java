@@ -2,17 +2,8 @@ package org.rabix.bindings.draft2.service.impl;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.FileSystems;
-import java.nio.file.FileVisitOption;
-import java.nio.file.FileVisitResult;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.PathMatcher;
-import java.nio.file.SimpleFileVisitor;
-import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -22,6 +13,7 @@ import org.rabix.bindings.draft2.expression.Draft2ExpressionException;
 import org.rabix.bindings.draft2.expression.helper.Draft2ExpressionBeanHelper;
 import org.rabix.bindings.draft2.service.Draft2GlobException;
 import org.rabix.bindings.draft2.service.Draft2GlobService;
+import org.rabix.bindings.helper.GlobHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -94,40 +86,13 @@ public class Draft2GlobServiceImpl implements Draft2GlobService {
     return files;
   }
 
-  private Set<File> listDir(String glob, final boolean isDir, List<File> globDirs) throws Draft2GlobException {
-    final Set<File> files = new HashSet<File>();
-    final PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);  
-    
-    for(File globDir: globDirs) {
-      try {
-        Files.walkFileTree(globDir.toPath(), EnumSet.noneOf(FileVisitOption.class), 2, new SimpleFileVisitor<Path>() {
-          @Override
-          public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-            if (matcher.matches(file.getFileName()) && !isDir) {
-              files.add(file.toFile());
-            }
-            return FileVisitResult.CONTINUE;
-          }
-          @Override
-          public FileVisitResult visitFileFailed(Path file, IOException exc) throws IOException {
-            return FileVisitResult.CONTINUE;
-          }
-          
-          @Override
-          public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
-            if (matcher.matches(dir.getFileName()) && isDir) {
-              files.add(dir.toFile());
-            }
-            return super.preVisitDirectory(dir, attrs);
-          }
-
-        });
-      } catch (IOException e) {
-        logger.error("Failed to traverse through working directory", e);
-        throw new Draft2GlobException("Failed to traverse through working directory", e);
-      }
+  private Set<File> listDir(String glob, boolean isDir, List<File> globDirs) throws Draft2GlobException {
+    try {
+      return GlobHelper.list(globDirs, glob, isDir);
+    } catch (IOException e) {
+      logger.error("Failed to traverse through working directory", e);
+      throw new Draft2GlobException("Failed to traverse through working directory", e);
     }
-    return files;
   }
 
 }
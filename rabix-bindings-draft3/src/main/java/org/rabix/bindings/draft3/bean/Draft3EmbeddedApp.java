@@ -3,7 +3,6 @@ package org.rabix.bindings.draft3.bean;
 import java.util.List;
 
 import org.rabix.bindings.BindingException;
-import org.rabix.bindings.Bindings;
 import org.rabix.bindings.BindingsFactory;
 import org.rabix.bindings.model.Application;
 import org.rabix.bindings.model.ApplicationPort;
@@ -23,9 +22,7 @@ public class Draft3EmbeddedApp extends Draft3JobApp {
   @JsonCreator
   public Draft3EmbeddedApp(String raw) {
     try {
-      Bindings bindings = BindingsFactory.create(raw);
-
-      application = bindings.loadAppObject(raw);
+      application = BindingsFactory.loadAppObject(raw);
       inputs = Lists.transform(application.getInputs(), new Function<ApplicationPort, Draft3InputPort>() {
         @Override
         public Draft3InputPort apply(ApplicationPort port) {
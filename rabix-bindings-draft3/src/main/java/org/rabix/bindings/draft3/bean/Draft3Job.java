@@ -4,6 +4,7 @@ import java.util.Map;
 
 import org.rabix.bindings.draft3.Draft3JobProcessor;
 import org.rabix.bindings.draft3.helper.Draft3SchemaHelper;
+import org.rabix.common.helper.CloneHelper;
 import org.rabix.common.json.BeanPropertyView;
 import org.rabix.common.json.processor.BeanProcessorClass;
 
@@ -66,7 +67,7 @@ public final class Draft3Job {
     for (Draft3InputPort inputPort : app.getInputs()) {
       String normalizedId = Draft3SchemaHelper.normalizeId(inputPort.getId());
       if (!inputs.containsKey(normalizedId) && inputPort.getDefaultValue() != null) {
-        inputs.put(normalizedId, inputPort.getDefaultValue());
+        inputs.put(normalizedId, CloneHelper.deepCopy(inputPort.getDefaultValue()));
       }
     }
   }
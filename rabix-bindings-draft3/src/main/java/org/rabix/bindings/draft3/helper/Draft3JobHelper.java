@@ -1,6 +1,9 @@
 package org.rabix.bindings.draft3.helper;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
 import org.rabix.bindings.BindingException;
 import org.rabix.bindings.draft3.Draft3JobProcessor;
@@ -11,19 +14,36 @@ import org.rabix.bindings.draft3.bean.Draft3Runtime;
 import org.rabix.bindings.draft3.expression.Draft3ExpressionException;
 import org.rabix.bindings.draft3.resolver.Draft3DocumentResolver;
 import org.rabix.bindings.model.Job;
+import org.rabix.common.helper.InternalSchemaHelper;
 import org.rabix.common.json.BeanSerializer;
 
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
 public class Draft3JobHelper {
 
+  private final static int APP_CACHE_SIZE = 1000;
+
+  /**
+   * Processed applications keyed by digest of the resolved application and Job name (step IDs depend on it).
+   * They are shared between Jobs, so nothing should change them.
+   */
+  private final static Cache<String, Draft3JobApp> apps = CacheBuilder.newBuilder().maximumSize(APP_CACHE_SIZE).build();
+
   @SuppressWarnings("unchecked")
   public static Draft3Job getDraft3Job(Job job) throws BindingException {
-    String resolvedAppStr = Draft3DocumentResolver.resolve(job.getApp());
-    Draft3JobApp app = BeanSerializer.deserialize(resolvedAppStr, Draft3JobApp.class);
+    Draft3JobApp app = getApp(job);
     
     Map<String, Object> nativeInputs = (Map<String, Object>) Draft3ValueTranslator.translateToSpecific(job.getInputs());
     Map<String, Object> nativeOutputs = (Map<String, Object>) Draft3ValueTranslator.translateToSpecific(job.getOutputs());
     
-    Draft3Job draft3Job =  new Draft3JobProcessor().process(new Draft3Job(job.getName(), app, nativeInputs, nativeOutputs));
+    Draft3Job draft3Job =  new Draft3Job(job.getName(), app, nativeInputs, nativeOutputs);
+    if (draft3Job.getId() == null) {
+      draft3Job.setId(InternalSchemaHelper.ROOT_NAME);
+    }
     
     Draft3Runtime runtime;
     try {
@@ -34,4 +54,23 @@ public class Draft3JobHelper {
     }
     return draft3Job;
   }
+
+  private static Draft3JobApp getApp(final Job job) throws BindingException {
+    final String resolvedAppStr = Draft3DocumentResolver.resolve(job.getApp());
+    String key = Hashing.sha1().hashString(resolvedAppStr, StandardCharsets.UTF_8).toString() + "/" + job.getName();
+    try {
+      return apps.get(key, new Callable<Draft3JobApp>() {
+        @Override
+        public Draft3JobApp call() throws Exception {
+          Draft3JobApp app = BeanSerializer.deserialize(resolvedAppStr, Draft3JobApp.class);
+          return new Draft3JobProcessor().process(new Draft3Job(job.getName(), app, null, null)).getApp();
+        }
+      });
+    } catch (UncheckedExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    } catch (ExecutionException e) {
+      throw new BindingException(e.getCause());
+    }
+  }
+  
 }
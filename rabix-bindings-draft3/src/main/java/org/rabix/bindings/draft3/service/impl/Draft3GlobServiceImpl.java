@@ -2,16 +2,8 @@ package org.rabix.bindings.draft3.service.impl;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.FileSystems;
-import java.nio.file.FileVisitResult;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.PathMatcher;
-import java.nio.file.SimpleFileVisitor;
-import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -20,6 +12,7 @@ import org.rabix.bindings.draft3.expression.Draft3ExpressionException;
 import org.rabix.bindings.draft3.expression.Draft3ExpressionResolver;
 import org.rabix.bindings.draft3.service.Draft3GlobException;
 import org.rabix.bindings.draft3.service.Draft3GlobService;
+import org.rabix.bindings.helper.GlobHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -53,29 +46,12 @@ public class Draft3GlobServiceImpl implements Draft3GlobService {
       globs.add((String) glob);
     }
     
-    final Set<File> files = new LinkedHashSet<>();
-    for (String singleGlob : globs) {
-      final PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + singleGlob);
-      try {
-        Files.walkFileTree(workingDir.toPath(), new SimpleFileVisitor<Path>() {
-          @Override
-          public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-            if (matcher.matches(file.getFileName())) {
-              files.add(file.toFile());
-            }
-            return FileVisitResult.CONTINUE;
-          }
-          @Override
-          public FileVisitResult visitFileFailed(Path file, IOException exc) throws IOException {
-            return FileVisitResult.CONTINUE;
-          }
-        });
-      } catch (IOException e) {
-        logger.error("Failed to traverse through working directory", e);
-        throw new Draft3GlobException("Failed to traverse through working directory", e);
-      }
+    try {
+      return GlobHelper.glob(workingDir, Collections.singletonMap(glob, globs), false).get(glob);
+    } catch (IOException e) {
+      logger.error("Failed to traverse through working directory", e);
+      throw new Draft3GlobException("Failed to traverse through working directory", e);
     }
-    return files;
   }
   
 }
@@ -3,7 +3,6 @@ package org.rabix.bindings.sb.bean;
 import java.util.List;
 
 import org.rabix.bindings.BindingException;
-import org.rabix.bindings.Bindings;
 import org.rabix.bindings.BindingsFactory;
 import org.rabix.bindings.model.Application;
 import org.rabix.bindings.model.ApplicationPort;
@@ -23,9 +22,7 @@ public class SBEmbeddedApp extends SBJobApp {
   @JsonCreator
   public SBEmbeddedApp(String raw) {
     try {
-      Bindings bindings = BindingsFactory.create(raw);
-
-      application = bindings.loadAppObject(raw);
+      application = BindingsFactory.loadAppObject(raw);
       inputs = Lists.transform(application.getInputs(), new Function<ApplicationPort, SBInputPort>() {
         @Override
         public SBInputPort apply(ApplicationPort port) {
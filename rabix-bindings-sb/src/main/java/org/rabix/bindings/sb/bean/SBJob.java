@@ -8,6 +8,7 @@ import org.rabix.bindings.sb.bean.resource.SBMemoryResource;
 import org.rabix.bindings.sb.bean.resource.requirement.SBIORequirement;
 import org.rabix.bindings.sb.expression.SBExpressionException;
 import org.rabix.bindings.sb.helper.SBSchemaHelper;
+import org.rabix.common.helper.CloneHelper;
 import org.rabix.common.json.BeanPropertyView;
 import org.rabix.common.json.processor.BeanProcessorClass;
 
@@ -71,7 +72,7 @@ public final class SBJob {
     for (SBInputPort inputPort : app.getInputs()) {
       String normalizedId = SBSchemaHelper.normalizeId(inputPort.getId());
       if (!inputs.containsKey(normalizedId) && inputPort.getDefaultValue() != null) {
-        inputs.put(normalizedId, inputPort.getDefaultValue());
+        inputs.put(normalizedId, CloneHelper.deepCopy(inputPort.getDefaultValue()));
       }
     }
   }
@@ -1,6 +1,9 @@
 package org.rabix.bindings.sb.helper;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
 import org.rabix.bindings.BindingException;
 import org.rabix.bindings.model.Job;
@@ -10,19 +13,36 @@ import org.rabix.bindings.sb.bean.SBJob;
 import org.rabix.bindings.sb.bean.SBJobApp;
 import org.rabix.bindings.sb.bean.SBResources;
 import org.rabix.bindings.sb.resolver.SBDocumentResolver;
+import org.rabix.common.helper.InternalSchemaHelper;
 import org.rabix.common.json.BeanSerializer;
 
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
 public class SBJobHelper {
 
+  private final static int APP_CACHE_SIZE = 1000;
+
+  /**
+   * Processed applications keyed by digest of the resolved application and Job name (step IDs depend on it).
+   * They are shared between Jobs, so nothing should change them.
+   */
+  private final static Cache<String, SBJobApp> apps = CacheBuilder.newBuilder().maximumSize(APP_CACHE_SIZE).build();
+
   @SuppressWarnings("unchecked")
   public static SBJob getSBJob(Job job) throws BindingException {
-    String resolvedAppStr = SBDocumentResolver.resolve(job.getApp());
-    SBJobApp app = BeanSerializer.deserialize(resolvedAppStr, SBJobApp.class);
+    SBJobApp app = getApp(job);
     
     Map<String, Object> nativeInputs = (Map<String, Object>) SBValueTranslator.translateToSpecific(job.getInputs());
     Map<String, Object> nativeOutputs = (Map<String, Object>) SBValueTranslator.translateToSpecific(job.getOutputs());
     
-    SBJob sbJob = new SBJobProcessor().process(new SBJob(job.getName(), app, nativeInputs, nativeOutputs));
+    SBJob sbJob = new SBJob(job.getName(), app, nativeInputs, nativeOutputs);
+    if (sbJob.getId() == null) {
+      sbJob.setId(InternalSchemaHelper.ROOT_NAME);
+    }
 
     if (job.getResources() != null) {
       SBResources sbResources = new SBResources(false, job.getResources().getCpu(), job.getResources().getMemMB());
@@ -31,4 +51,22 @@ public class SBJobHelper {
     return sbJob;
   }
 
+  private static SBJobApp getApp(final Job job) throws BindingException {
+    final String resolvedAppStr = SBDocumentResolver.resolve(job.getApp());
+    String key = Hashing.sha1().hashString(resolvedAppStr, StandardCharsets.UTF_8).toString() + "/" + job.getName();
+    try {
+      return apps.get(key, new Callable<SBJobApp>() {
+        @Override
+        public SBJobApp call() throws Exception {
+          SBJobApp app = BeanSerializer.deserialize(resolvedAppStr, SBJobApp.class);
+          return new SBJobProcessor().process(new SBJob(job.getName(), app, null, null)).getApp();
+        }
+      });
+    } catch (UncheckedExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    } catch (ExecutionException e) {
+      throw new BindingException(e.getCause());
+    }
+  }
+  
 }
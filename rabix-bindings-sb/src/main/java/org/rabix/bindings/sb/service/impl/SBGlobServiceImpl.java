@@ -2,18 +2,9 @@ package org.rabix.bindings.sb.service.impl;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.FileSystems;
-import java.nio.file.FileVisitOption;
-import java.nio.file.FileVisitResult;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.PathMatcher;
-import java.nio.file.SimpleFileVisitor;
-import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -24,6 +15,7 @@ import org.rabix.bindings.sb.expression.SBExpressionException;
 import org.rabix.bindings.sb.expression.helper.SBExpressionBeanHelper;
 import org.rabix.bindings.sb.service.SBGlobException;
 import org.rabix.bindings.sb.service.SBGlobService;
+import org.rabix.bindings.helper.GlobHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -60,42 +52,13 @@ public class SBGlobServiceImpl implements SBGlobService {
     return files;
   }
 
-  private Set<File> listDir(String glob, final boolean isDir, List<File> globDirs) throws SBGlobException {
-    final Set<File> files = new HashSet<File>();
-    final PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);  
-    
-    for(File globDir: globDirs) {
-      try {
-        Files.walkFileTree(globDir.toPath(), EnumSet.noneOf(FileVisitOption.class), 2, new SimpleFileVisitor<Path>() {
-          @Override
-          public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-            if (matcher.matches(file.getFileName()) && !isDir) {
-              files.add(file.toFile());
-            }
-            return FileVisitResult.CONTINUE;
-          }
-          @Override
-          public FileVisitResult visitFileFailed(Path file, IOException exc) throws IOException {
-            return FileVisitResult.CONTINUE;
-          }
-          
-          @Override
-          public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
-            if(dir.getFileName() != null) {
-              if (matcher.matches(dir.getFileName()) && isDir) {
-                files.add(dir.toFile());
-              }
-            }
-            return super.preVisitDirectory(dir, attrs);
-          }
-
-        });
-      } catch (IOException e) {
-        logger.error("Failed to traverse through working directory", e);
-        throw new SBGlobException("Failed to traverse through working directory", e);
-      }
+  private Set<File> listDir(String glob, boolean isDir, List<File> globDirs) throws SBGlobException {
+    try {
+      return GlobHelper.list(globDirs, glob, isDir);
+    } catch (IOException e) {
+      logger.error("Failed to traverse through working directory", e);
+      throw new SBGlobException("Failed to traverse through working directory", e);
     }
-    return files;
   }
   
   public String[] extractGlobParts(String glob) {
@@ -3,18 +3,32 @@ package org.rabix.bindings;
 import java.util.Comparator;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
 import org.apache.commons.lang.NotImplementedException;
+import org.rabix.bindings.helper.URIHelper;
 import org.rabix.bindings.model.Application;
 import org.rabix.bindings.model.Job;
+import org.rabix.common.helper.ChecksumHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
 public class BindingsFactory {
 
   private final static Logger logger = LoggerFactory.getLogger(BindingsFactory.class);
   
   public static final String MULTIPROTOCOL_KEY = "rabix.multiprotocol";
+
+  private static final int CACHE_SIZE = 1000;
+  
+  private static final Cache<String, Bindings> loadedApps = CacheBuilder.newBuilder().maximumSize(CACHE_SIZE).recordStats().build();
   
   private static SortedSet<Bindings> bindings = new TreeSet<>(new Comparator<Bindings>() {
     @Override
@@ -41,7 +55,64 @@ public class BindingsFactory {
     }
   }
 
-  public static synchronized Bindings create(String appURL) throws BindingException {
+  /**
+   * Finds {@link Bindings} that can parse the application. Results for data URIs are cached by content hash.
+   */
+  public static Bindings create(String appURL) throws BindingException {
+    if (!URIHelper.isData(appURL)) {
+      return resolve(appURL).bindings;
+    }
+    return getBindings(appURL, null);
+  }
+
+  /**
+   * Loads application object using matching {@link Bindings}. Every call returns a new object.
+   */
+  public static Application loadAppObject(String appURL) throws BindingException {
+    if (!URIHelper.isData(appURL)) {
+      return resolve(appURL).application;
+    }
+    LoadedApp[] resolved = new LoadedApp[1];
+    Bindings binding = getBindings(appURL, resolved);
+    if (resolved[0] != null) {
+      return resolved[0].application;
+    }
+    Application app = binding.loadAppObject(appURL);
+    if (app == null) {
+      throw new BindingException("Cannot find binding for the payload.");
+    }
+    return app;
+  }
+
+  public static CacheStats getCacheStats() {
+    return loadedApps.stats();
+  }
+
+  /**
+   * Cached {@link Bindings} lookup. If this call resolved the application, it is stored in the holder.
+   */
+  private static Bindings getBindings(final String appURL, final LoadedApp[] holder) throws BindingException {
+    try {
+      return loadedApps.get(ChecksumHelper.sha1(appURL), new Callable<Bindings>() {
+        @Override
+        public Bindings call() throws Exception {
+          LoadedApp loadedApp = resolve(appURL);
+          if (holder != null) {
+            holder[0] = loadedApp;
+          }
+          return loadedApp.bindings;
+        }
+      });
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      if (e.getCause() instanceof BindingException) {
+        throw (BindingException) e.getCause();
+      }
+      Throwables.propagateIfPossible(e.getCause());
+      throw new BindingException(e.getCause());
+    }
+  }
+
+  private static LoadedApp resolve(String appURL) throws BindingException {
     for (Bindings binding : bindings) {
       try {
         Application app = binding.loadAppObject(appURL);
@@ -49,10 +120,10 @@ public class BindingsFactory {
           continue;
         }
         if (app.getVersion() != null && binding.getProtocolType().appVersion.equalsIgnoreCase(app.getVersion())) {
-          return binding;
+          return new LoadedApp(binding, app);
         }
         else if(app.getVersion() == null && binding.getProtocolType().appVersion == null) {
-          return binding;
+          return new LoadedApp(binding, app);
         }
         else {
           continue;
@@ -65,11 +136,11 @@ public class BindingsFactory {
     throw new BindingException("Cannot find binding for the payload.");
   }
 
-  public static synchronized Bindings create(Job job) throws BindingException {
+  public static Bindings create(Job job) throws BindingException {
     return create(job.getApp());
   }
   
-  public static synchronized Bindings create(ProtocolType protocol) throws BindingException {
+  public static Bindings create(ProtocolType protocol) throws BindingException {
     for(Bindings binding: bindings) {
       if(binding.getProtocolType().equals(protocol)) {
         return binding;
@@ -78,4 +149,14 @@ public class BindingsFactory {
     throw new BindingException("Cannot find binding for the protocol.");
   }
 
+  private static class LoadedApp {
+    private final Bindings bindings;
+    private final Application application;
+
+    private LoadedApp(Bindings bindings, Application application) {
+      this.bindings = bindings;
+      this.application = application;
+    }
+  }
+
 }
@@ -135,11 +135,8 @@ public class FileValueHelper {
    * @return            Updated Job object
    * @throws BindingException
    */
-  @SuppressWarnings("unchecked")
   public static Job mapInputFilePaths(Job job, FilePathMapper fileMapper) throws BindingException {
-    Map<String, Object> inputs = job.getInputs();
-    
-    Map<String, Object> clonedInputs = (Map<String, Object>) CloneHelper.deepCopy(inputs);
+    Map<String, Object> clonedInputs = job.getInputs();
     try {
       mapValue(clonedInputs, fileMapper, job.getConfig());
     } catch (FileMappingException e) {
@@ -157,11 +154,8 @@ public class FileValueHelper {
    * @return            Updated Job object
    * @throws BindingException
    */
-  @SuppressWarnings("unchecked")
   public static Job mapOutputFilePaths(Job job, FilePathMapper fileMapper) throws BindingException {
-    Map<String, Object> outputs = job.getOutputs();
-    
-    Map<String, Object> clonedOutputs = (Map<String, Object>) CloneHelper.deepCopy(outputs);
+    Map<String, Object> clonedOutputs = job.getOutputs();
     try {
       mapValue(clonedOutputs, fileMapper, job.getConfig());
     } catch (FileMappingException e) {
@@ -268,8 +262,7 @@ public class FileValueHelper {
    */
   @SuppressWarnings("unchecked")
   public static Job updateInputFiles(Job job, FileTransformer fileTransformer) throws BindingException {
-    Map<String, Object> clonedInputs = (Map<String, Object>) CloneHelper.deepCopy(job.getInputs());
-    clonedInputs = (Map<String, Object>) updateFileValues(clonedInputs, fileTransformer);
+    Map<String, Object> clonedInputs = (Map<String, Object>) updateFileValues(job.getInputs(), fileTransformer);
     return Job.cloneWithInputs(job, clonedInputs);
   }
   
@@ -283,8 +276,7 @@ public class FileValueHelper {
    */
   @SuppressWarnings("unchecked")
   public static Job updateOutputFiles(Job job, FileTransformer fileTransformer) throws BindingException {
-    Map<String, Object> clonedOutputs = (Map<String, Object>) CloneHelper.deepCopy(job.getOutputs());
-    clonedOutputs = (Map<String, Object>) updateFileValues(clonedOutputs, fileTransformer);
+    Map<String, Object> clonedOutputs = (Map<String, Object>) updateFileValues(job.getOutputs(), fileTransformer);
     return Job.cloneWithOutputs(job, clonedOutputs);
   }
 }
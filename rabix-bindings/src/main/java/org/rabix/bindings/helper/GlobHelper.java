@@ -0,0 +1,229 @@
+package org.rabix.bindings.helper;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Matches many GLOB patterns with one directory walk per root.
+ * Patterns without a slash match file names at any depth of the working directory. Patterns with a slash are matched against paths relative to their literal prefix,
+ * which is also where the walk for them starts.
+ */
+public class GlobHelper {
+
+  private final static String CURRENT_DIRECTORY = ".";
+  private final static String GLOB_CHARACTERS = "*?[{";
+
+  private final static int LIST_DEPTH = 2;
+
+  /**
+   * Finds files and (optionally) directories for each group of patterns. Every key gets a set, possibly empty.
+   */
+  public static <K> Map<K, Set<File>> glob(File workingDir, Map<K, List<String>> globs, boolean includeDirectories) throws IOException {
+    Preconditions.checkNotNull(workingDir);
+    Preconditions.checkNotNull(globs);
+
+    Path workingPath = workingDir.toPath().toAbsolutePath().normalize();
+    List<CompiledGlob<K>> compiledGlobs = new ArrayList<>();
+    for (Entry<K, List<String>> entry : globs.entrySet()) {
+      for (String glob : entry.getValue()) {
+        compiledGlobs.add(compile(entry.getKey(), workingPath, glob, includeDirectories));
+      }
+    }
+    return walk(globs.keySet(), compiledGlobs);
+  }
+
+  /**
+   * Finds entries with names matching the pattern in the directories and two levels below them, either files or directories only
+   */
+  public static Set<File> list(List<File> directories, String glob, boolean directoriesOnly) throws IOException {
+    Preconditions.checkNotNull(directories);
+    Preconditions.checkNotNull(glob);
+
+    PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+    List<CompiledGlob<String>> compiledGlobs = new ArrayList<>();
+    for (File directory : directories) {
+      Path anchor = directory.toPath().toAbsolutePath().normalize();
+      compiledGlobs.add(new CompiledGlob<String>(glob, anchor, matcher, true, LIST_DEPTH, true, !directoriesOnly, directoriesOnly, true));
+    }
+    Set<String> keys = new LinkedHashSet<>();
+    keys.add(glob);
+    return walk(keys, compiledGlobs).get(glob);
+  }
+
+  private static <K> CompiledGlob<K> compile(K key, Path workingPath, String glob, boolean includeDirectories) {
+    if (glob.equals(CURRENT_DIRECTORY)) {
+      return new CompiledGlob<K>(key, workingPath, null, false, 0, true, true, includeDirectories, false);
+    }
+    if (!glob.contains("/")) {
+      PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+      return new CompiledGlob<K>(key, workingPath, matcher, true, Integer.MAX_VALUE, false, true, includeDirectories, false);
+    }
+
+    String[] parts = glob.split("/");
+    StringBuilder prefix = new StringBuilder(glob.startsWith("/") ? "/" : "");
+    int index = 0;
+    for (; index < parts.length; index++) {
+      if (isPattern(parts[index])) {
+        break;
+      }
+      if (!parts[index].isEmpty()) {
+        prefix.append(parts[index]).append("/");
+      }
+    }
+    Path anchor = workingPath.resolve(prefix.toString()).normalize();
+    if (index == parts.length) {
+      return new CompiledGlob<K>(key, anchor, null, false, 0, true, true, includeDirectories, false);
+    }
+
+    StringBuilder remainder = new StringBuilder();
+    for (int i = index; i < parts.length; i++) {
+      if (remainder.length() > 0) {
+        remainder.append("/");
+      }
+      remainder.append(parts[i]);
+    }
+    PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + remainder);
+    int depth = remainder.indexOf("**") >= 0 ? Integer.MAX_VALUE : parts.length - index;
+    return new CompiledGlob<K>(key, anchor, matcher, false, depth, false, true, includeDirectories, false);
+  }
+
+  private static boolean isPattern(String part) {
+    for (char c : GLOB_CHARACTERS.toCharArray()) {
+      if (part.indexOf(c) >= 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Walks the topmost anchors only, each as deep as its deepest pattern needs
+   */
+  private static <K> Map<K, Set<File>> walk(Set<K> keys, final List<CompiledGlob<K>> compiledGlobs) throws IOException {
+    final Map<K, Set<File>> result = new LinkedHashMap<>();
+    for (K key : keys) {
+      result.put(key, new LinkedHashSet<File>());
+    }
+
+    Map<Path, Integer> roots = new LinkedHashMap<>();
+    for (CompiledGlob<K> compiledGlob : compiledGlobs) {
+      roots.put(compiledGlob.anchor, 0);
+    }
+    for (Path anchor : new ArrayList<>(roots.keySet())) {
+      for (Path other : roots.keySet()) {
+        if (!other.equals(anchor) && anchor.startsWith(other)) {
+          roots.remove(anchor);
+          break;
+        }
+      }
+    }
+    for (Entry<Path, Integer> root : roots.entrySet()) {
+      int maxDepth = 0;
+      for (CompiledGlob<K> compiledGlob : compiledGlobs) {
+        if (compiledGlob.anchor.startsWith(root.getKey())) {
+          long depth = (long) root.getKey().relativize(compiledGlob.anchor).getNameCount() + compiledGlob.maxDepth;
+          if (root.getKey().equals(compiledGlob.anchor)) {
+            depth = compiledGlob.maxDepth;
+          }
+          maxDepth = (int) Math.max(maxDepth, Math.min(depth, Integer.MAX_VALUE));
+        }
+      }
+      root.setValue(maxDepth);
+    }
+
+    for (Entry<Path, Integer> root : roots.entrySet()) {
+      if (!Files.exists(root.getKey())) {
+        continue;
+      }
+      Files.walkFileTree(root.getKey(), EnumSet.noneOf(FileVisitOption.class), root.getValue(), new SimpleFileVisitor<Path>() {
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+          match(file, true, attrs.isDirectory(), compiledGlobs, result);
+          return FileVisitResult.CONTINUE;
+        }
+        @Override
+        public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+          match(dir, false, true, compiledGlobs, result);
+          return FileVisitResult.CONTINUE;
+        }
+        @Override
+        public FileVisitResult visitFileFailed(Path file, IOException exc) throws IOException {
+          return FileVisitResult.CONTINUE;
+        }
+      });
+    }
+    return result;
+  }
+
+  /**
+   * Listings treat entries at the depth limit as files, as a walk limited to the anchor would
+   */
+  private static <K> void match(Path path, boolean visitedAsFile, boolean isDirectory, List<CompiledGlob<K>> compiledGlobs, Map<K, Set<File>> result) {
+    for (CompiledGlob<K> compiledGlob : compiledGlobs) {
+      if (!path.startsWith(compiledGlob.anchor)) {
+        continue;
+      }
+      int depth = compiledGlob.anchor.relativize(path).getNameCount();
+      if (path.equals(compiledGlob.anchor)) {
+        depth = 0;
+      }
+      if (depth > compiledGlob.maxDepth || (depth == 0 && !compiledGlob.includeAnchor)) {
+        continue;
+      }
+      boolean isFile = compiledGlob.listing ? visitedAsFile || depth == compiledGlob.maxDepth : !isDirectory;
+      if ((isFile && !compiledGlob.matchFiles) || (!isFile && !compiledGlob.matchDirectories)) {
+        continue;
+      }
+      if (compiledGlob.matcher != null) {
+        Path matched = compiledGlob.matchName ? path.getFileName() : compiledGlob.anchor.relativize(path);
+        if (matched == null || !compiledGlob.matcher.matches(matched)) {
+          continue;
+        }
+      }
+      result.get(compiledGlob.key).add(path.toFile());
+    }
+  }
+
+  private static class CompiledGlob<K> {
+    private final K key;
+    private final Path anchor;
+    private final PathMatcher matcher;
+    private final boolean matchName;
+    private final int maxDepth;
+    private final boolean includeAnchor;
+    private final boolean matchFiles;
+    private final boolean matchDirectories;
+    private final boolean listing;
+
+    private CompiledGlob(K key, Path anchor, PathMatcher matcher, boolean matchName, int maxDepth, boolean includeAnchor, boolean matchFiles, boolean matchDirectories, boolean listing) {
+      this.key = key;
+      this.anchor = anchor;
+      this.matcher = matcher;
+      this.matchName = matchName;
+      this.maxDepth = maxDepth;
+      this.includeAnchor = includeAnchor;
+      this.matchFiles = matchFiles;
+      this.matchDirectories = matchDirectories;
+      this.listing = listing;
+    }
+  }
+
+}
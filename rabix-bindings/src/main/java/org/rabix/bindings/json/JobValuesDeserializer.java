@@ -3,7 +3,10 @@ package org.rabix.bindings.json;
 import java.io.IOException;
 import java.util.Map;
 
+import org.rabix.bindings.model.DirectoryValue;
 import org.rabix.bindings.model.FileValue;
+import org.rabix.common.json.StreamingInputLoader;
+import org.rabix.common.json.StreamingInputLoader.ValueConverter;
 
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -12,14 +15,30 @@ import com.fasterxml.jackson.databind.JsonDeserializer;
 
 public class JobValuesDeserializer extends JsonDeserializer<Map<String, Object>> {
 
+  /**
+   * Turns File and Directory objects into values while they are parsed
+   */
+  public final static ValueConverter FILE_VALUE_CONVERTER = new ValueConverter() {
+    @Override
+    public Object convert(Map<String, Object> value) {
+      if (DirectoryValue.isDirectoryValue(value)) {
+        return DirectoryValue.fromMap(value);
+      }
+      if (FileValue.isFileValue(value)) {
+        return FileValue.fromMap(value);
+      }
+      return value;
+    }
+  };
+  
   @Override
   @SuppressWarnings("unchecked")
   public Map<String, Object> deserialize(JsonParser p, DeserializationContext ctxt) throws IOException, JsonProcessingException {
-    Map<String, Object> values = p.getCodec().readValue(p, Map.class);
+    Object values = StreamingInputLoader.read(p, FILE_VALUE_CONVERTER);
     if (values == null) {
       return null;
     }
-    return (Map<String, Object>) FileValue.deserialize(values);
+    return (Map<String, Object>) values;
   }
   
 }
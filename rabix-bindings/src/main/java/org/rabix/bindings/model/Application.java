@@ -100,7 +100,7 @@ public abstract class Application {
       }
       String appUrl = URIHelper.createDataURI(JSONHelper.writeObject(tree));
       try {
-        return BindingsFactory.create(appUrl).loadAppObject(appUrl);
+        return BindingsFactory.loadAppObject(appUrl);
       } catch (BindingException e) {
         throw new IOException("Failed to deserialize Application " + tree);
       }
@@ -4,6 +4,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+import org.rabix.common.helper.CloneHelper;
+
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
@@ -46,6 +48,13 @@ public class DirectoryValue extends FileValue {
         fileValue.properties, fileValue.listing, fileValue.format);
   }
   
+  @Override
+  @SuppressWarnings("unchecked")
+  public DirectoryValue deepCopy() {
+    return new DirectoryValue(size, path, location, name, dirname, nameroot, nameext, contents, checksum, (List<FileValue>) CloneHelper.deepCopy(secondaryFiles),
+        (Map<String, Object>) CloneHelper.deepCopy(properties), (List<FileValue>) CloneHelper.deepCopy(listing), format);
+  }
+
   public List<FileValue> getListing() {
     return listing;
   }
@@ -68,6 +77,9 @@ public class DirectoryValue extends FileValue {
 
   @SuppressWarnings("unchecked")
   public static FileValue fromMap(Object value) {
+    if (value instanceof FileValue) {
+      return (FileValue) value;
+    }
     if (isFileValue(value)) {
       return FileValue.fromMap(value);
     }
@@ -89,14 +101,14 @@ public class DirectoryValue extends FileValue {
     List<FileValue> secondaryFiles = new ArrayList<>();
     
     if (map.containsKey("secondaryFiles")) {
-      for (Map<String, Object> secondaryFile : (List<Map<String,Object>>)map.get("secondaryFiles")) {
+      for (Object secondaryFile : (List<Object>) map.get("secondaryFiles")) {
         secondaryFiles.add(fromMap(secondaryFile));
       }
     }
     List<FileValue> listing = null;
     if (map.containsKey("listing")) {
       listing = new ArrayList<>();
-      for (Map<String, Object> listingObj : (List<Map<String, Object>>) map.get("listing")) {
+      for (Object listingObj : (List<Object>) map.get("listing")) {
         listing.add(fromMap(listingObj));
       }
     }
@@ -6,6 +6,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import org.rabix.common.helper.CloneHelper;
+import org.rabix.common.helper.CloneHelper.DeepCopyable;
+
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
@@ -20,7 +23,7 @@ import com.fasterxml.jackson.annotation.JsonTypeInfo;
     @Type(value = DirectoryValue.class, name = "Directory") })
 @JsonInclude(Include.NON_NULL)
 @JsonIgnoreProperties(ignoreUnknown = true)
-public class FileValue implements Serializable {
+public class FileValue implements Serializable, DeepCopyable {
 
   public static enum FileType {
     File, Directory
@@ -112,6 +115,13 @@ public class FileValue implements Serializable {
         fileValue.properties, fileValue.format);
   }
 
+  @Override
+  @SuppressWarnings("unchecked")
+  public FileValue deepCopy() {
+    return new FileValue(size, path, location, name, dirname, nameroot, nameext, contents, checksum, (List<FileValue>) CloneHelper.deepCopy(secondaryFiles),
+        (Map<String, Object>) CloneHelper.deepCopy(properties), format);
+  }
+
   public Long getSize() {
     return size;
   }
@@ -266,6 +276,9 @@ public class FileValue implements Serializable {
 
   @SuppressWarnings("unchecked")
   public static FileValue fromMap(Object value) {
+    if (value instanceof FileValue) {
+      return (FileValue) value;
+    }
     if (!isFileValue(value)) {
       return null;
     }
@@ -292,7 +305,7 @@ public class FileValue implements Serializable {
     List<FileValue> secondaryFiles = null;
     if (map.containsKey("secondaryFiles")) {
       secondaryFiles = new ArrayList<>();
-      for (Map<String, Object> secondaryFile : (List<Map<String, Object>>) map.get("secondaryFiles")) {
+      for (Object secondaryFile : (List<Object>) map.get("secondaryFiles")) {
         if (DirectoryValue.isDirectoryValue(secondaryFile)) {
           secondaryFiles.add(DirectoryValue.fromMap(secondaryFile));
         } else {
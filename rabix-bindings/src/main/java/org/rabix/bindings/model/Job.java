@@ -6,6 +6,7 @@ import java.util.UUID;
 
 import org.rabix.bindings.json.JobValuesDeserializer;
 import org.rabix.common.helper.CloneHelper;
+import org.rabix.common.helper.CloneHelper.DeepCopyable;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
@@ -17,7 +18,7 @@ import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 
 @JsonInclude(Include.NON_NULL)
 @JsonIgnoreProperties(ignoreUnknown = true)
-public class Job {
+public class Job implements DeepCopyable {
 
   public static enum JobStatus {
     PENDING,
@@ -132,6 +133,13 @@ public class Job {
     return new Job(job.id, job.parentId, job.rootId, job.name, job.app, job.status, job.message, job.inputs, job.outputs, job.config, resources, job.visiblePorts);
   }
   
+  @Override
+  @SuppressWarnings("unchecked")
+  public Job deepCopy() {
+    return new Job(id, parentId, rootId, name, app, status, message, (Map<String, Object>) CloneHelper.deepCopy(inputs), (Map<String, Object>) CloneHelper.deepCopy(outputs),
+        (Map<String, Object>) CloneHelper.deepCopy(config), resources, (Set<String>) CloneHelper.deepCopy(visiblePorts));
+  }
+
   public static boolean isFinished(Job job) {
     return job.getStatus().equals(JobStatus.COMPLETED) 
         || job.getStatus().equals(JobStatus.ABORTED)
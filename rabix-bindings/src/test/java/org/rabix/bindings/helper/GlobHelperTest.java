@@ -0,0 +1,69 @@
+package org.rabix.bindings.helper;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+@Test(groups = { "functional" })
+public class GlobHelperTest {
+
+  private File workingDir;
+
+  @BeforeClass
+  public void before() throws IOException {
+    workingDir = Files.createTempDirectory("glob").toFile();
+    FileUtils.writeStringToFile(new File(workingDir, "a.txt"), "a");
+    FileUtils.writeStringToFile(new File(workingDir, "out/b.txt"), "b");
+    FileUtils.writeStringToFile(new File(workingDir, "out/nested/c.txt"), "c");
+    FileUtils.writeStringToFile(new File(workingDir, "out/nested/d.bam"), "d");
+  }
+
+  @AfterClass
+  public void after() throws IOException {
+    FileUtils.deleteDirectory(workingDir);
+  }
+
+  @Test
+  public void testMultipleGlobs() throws IOException {
+    Map<String, List<String>> globs = new LinkedHashMap<>();
+    globs.put("names", Arrays.asList("*.txt"));
+    globs.put("anchored", Arrays.asList("out/*.txt"));
+    globs.put("recursive", Arrays.asList("out/**.bam"));
+    globs.put("literal", Arrays.asList("out/nested"));
+    globs.put("missing", Arrays.asList("missing/*.txt"));
+    globs.put("current", Arrays.asList("."));
+
+    Map<String, Set<File>> files = GlobHelper.glob(workingDir, globs, true);
+
+    Assert.assertEquals(files.get("names").size(), 3);
+    Assert.assertEquals(files.get("anchored"), Collections.singleton(abs("out/b.txt")));
+    Assert.assertEquals(files.get("recursive"), Collections.singleton(abs("out/nested/d.bam")));
+    Assert.assertEquals(files.get("literal"), Collections.singleton(abs("out/nested")));
+    Assert.assertTrue(files.get("missing").isEmpty());
+    Assert.assertEquals(files.get("current"), Collections.singleton(abs("")));
+  }
+
+  @Test
+  public void testList() throws IOException {
+    List<File> directories = Arrays.asList(workingDir);
+    Assert.assertEquals(GlobHelper.list(directories, "out", true), Collections.singleton(abs("out")));
+    Assert.assertEquals(GlobHelper.list(directories, "*.txt", false).size(), 2);
+  }
+
+  private File abs(String path) {
+    return workingDir.toPath().toAbsolutePath().normalize().resolve(path).toFile();
+  }
+
+}
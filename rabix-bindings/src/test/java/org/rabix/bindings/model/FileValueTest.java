@@ -0,0 +1,51 @@
+package org.rabix.bindings.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.rabix.common.helper.CloneHelper;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+@Test(groups = { "functional" })
+public class FileValueTest {
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testDeepCopyOfInputs() {
+    Map<String, Object> properties = new HashMap<>();
+    properties.put("sample", "s1");
+
+    List<FileValue> secondaryFiles = new ArrayList<>();
+    secondaryFiles.add(new FileValue(10L, "/data/reads.bam.bai", null, null, null, null, "reads.bam.bai"));
+
+    List<FileValue> listing = new ArrayList<>();
+    listing.add(new FileValue(1L, "/data/dir/a.txt", null, null, null, null, "a.txt"));
+
+    List<Object> files = new ArrayList<>();
+    files.add(new FileValue(100L, "/data/reads.bam", null, "sha1$abc", secondaryFiles, properties, "reads.bam"));
+    files.add(new DirectoryValue(null, "/data/dir", null, null, listing, null, null, "dir", null));
+
+    Map<String, Object> inputs = new HashMap<>();
+    inputs.put("files", files);
+    inputs.put("threads", 4);
+
+    Map<String, Object> copy = (Map<String, Object>) CloneHelper.deepCopy(inputs);
+    Assert.assertEquals(copy, inputs);
+
+    List<Object> copiedFiles = (List<Object>) copy.get("files");
+    FileValue copiedFile = (FileValue) copiedFiles.get(0);
+    Assert.assertNotSame(copiedFile, files.get(0));
+    Assert.assertNotSame(copiedFile.getSecondaryFiles().get(0), secondaryFiles.get(0));
+    Assert.assertNotSame(copiedFile.getProperties(), properties);
+
+    DirectoryValue copiedDirectory = (DirectoryValue) copiedFiles.get(1);
+    Assert.assertNotSame(copiedDirectory.getListing().get(0), listing.get(0));
+
+    copiedFile.setPath("/tmp/reads.bam");
+    Assert.assertEquals(((FileValue) files.get(0)).getPath(), "/data/reads.bam");
+  }
+
+}
@@ -2,11 +2,14 @@ package org.rabix.common.engine.control;
 
 import java.util.Map;
 
+import org.rabix.common.helper.CloneHelper;
+import org.rabix.common.helper.CloneHelper.DeepCopyable;
+
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
-public class EngineControlFreeMessage extends EngineControlMessage {
+public class EngineControlFreeMessage extends EngineControlMessage implements DeepCopyable {
 
   @JsonProperty("config")
   private Map<String, Object> config;
@@ -14,6 +17,13 @@ public class EngineControlFreeMessage extends EngineControlMessage {
   @JsonCreator
   public EngineControlFreeMessage(@JsonProperty("config") Map<String, Object> config, @JsonProperty("rootId") String rootId) {
     super(rootId);
+    this.config = config;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public EngineControlFreeMessage deepCopy() {
+    return new EngineControlFreeMessage((Map<String, Object>) CloneHelper.deepCopy(config), rootId);
   }
 
   public Map<String, Object> getConfig() {
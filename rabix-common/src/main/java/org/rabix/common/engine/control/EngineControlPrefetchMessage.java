@@ -0,0 +1,41 @@
+package org.rabix.common.engine.control;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.rabix.common.helper.CloneHelper.DeepCopyable;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Hint that Docker images will be needed by Jobs of the root Job, so the backend can pull them in advance
+ */
+public class EngineControlPrefetchMessage extends EngineControlMessage implements DeepCopyable {
+
+  @JsonProperty("images")
+  private List<String> images;
+
+  @JsonCreator
+  public EngineControlPrefetchMessage(@JsonProperty("images") List<String> images, @JsonProperty("rootId") String rootId) {
+    super(rootId);
+    this.images = images;
+  }
+
+  @Override
+  public EngineControlPrefetchMessage deepCopy() {
+    return new EngineControlPrefetchMessage(images != null ? new ArrayList<>(images) : null, rootId);
+  }
+
+  public List<String> getImages() {
+    return images;
+  }
+
+  @Override
+  @JsonIgnore
+  public EngineControlMessageType getType() {
+    return EngineControlMessageType.PREFETCH;
+  }
+
+}
@@ -1,9 +1,11 @@
 package org.rabix.common.engine.control;
 
+import org.rabix.common.helper.CloneHelper.DeepCopyable;
+
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
-public class EngineControlStopMessage extends EngineControlMessage {
+public class EngineControlStopMessage extends EngineControlMessage implements DeepCopyable {
   
   @JsonProperty("id")
   private String id;
@@ -14,6 +16,11 @@ public class EngineControlStopMessage extends EngineControlMessage {
     this.id = id;
   }
 
+  @Override
+  public EngineControlStopMessage deepCopy() {
+    return new EngineControlStopMessage(id, rootId);
+  }
+
   public String getId() {
     return id;
   }
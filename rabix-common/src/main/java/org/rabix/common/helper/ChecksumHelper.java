@@ -5,16 +5,34 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.hash.HashFunction;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.hash.Hasher;
 import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 public class ChecksumHelper {
 
@@ -26,18 +44,106 @@ public class ChecksumHelper {
 
   private static final Logger logger = LoggerFactory.getLogger(ChecksumHelper.class);
 
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final int MEMO_SIZE = 10000;
+  private static final int MAX_THREADS = 4;
+
+  private static final Cache<ChecksumKey, String> checksums = CacheBuilder.newBuilder().maximumSize(MEMO_SIZE).recordStats().build();
+
+  private static final ExecutorService checksumExecutor = Executors.newFixedThreadPool(Math.max(1, Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors())),
+      new ThreadFactoryBuilder().setNameFormat("checksum-%d").setDaemon(true).build());
+
+  /**
+   * Calculates file checksum. Results are remembered by path, size, modification time and file key (inode), so unchanged files are hashed once.
+   */
   public static String checksum(File file, HashAlgorithm hashAlgo) {
+    checkNotNull(file);
+    checkNotNull(hashAlgo);
+
+    ChecksumKey key = ChecksumKey.create(file, hashAlgo);
+    if (key != null) {
+      String checksum = checksums.getIfPresent(key);
+      if (checksum != null) {
+        return checksum;
+      }
+    }
+    String checksum = null;
     switch (hashAlgo) {
     case SHA1:
-      return sha1(file);
+      checksum = standardHash(file, HashAlgorithm.SHA1);
+      break;
     case MD5:
-      return md5(file);
+      checksum = standardHash(file, HashAlgorithm.MD5);
+      break;
     case MURMUR3:
-      return murmur3(file);
+      checksum = murmur3Hash(file);
+      break;
     default:
       // couldn't really happen but..
       throw new IllegalArgumentException("Unsupported hashing algorithm");
     }
+    if (key != null && checksum != null) {
+      checksums.put(key, checksum);
+    }
+    return checksum;
+  }
+
+  /**
+   * Calculates checksums of files (and of files inside directories) on a bounded thread pool
+   */
+  public static Map<File, String> checksum(Collection<File> files, final HashAlgorithm hashAlgo) {
+    checkNotNull(files);
+    checkNotNull(hashAlgo);
+
+    List<File> regularFiles = new ArrayList<>();
+    for (File file : files) {
+      collectRegularFiles(file, regularFiles);
+    }
+
+    Map<File, String> result = new HashMap<>();
+    if (regularFiles.size() == 1) {
+      File file = regularFiles.get(0);
+      result.put(file, checksum(file, hashAlgo));
+      return result;
+    }
+
+    Map<File, Future<String>> futures = new LinkedHashMap<>();
+    for (final File file : regularFiles) {
+      futures.put(file, checksumExecutor.submit(new Callable<String>() {
+        @Override
+        public String call() throws Exception {
+          return checksum(file, hashAlgo);
+        }
+      }));
+    }
+    for (Entry<File, Future<String>> future : futures.entrySet()) {
+      try {
+        result.put(future.getKey(), future.getValue().get());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException("Interrupted while calculating checksums", e);
+      } catch (ExecutionException e) {
+        throw new RuntimeException("Failed to calculate checksum for " + future.getKey(), e.getCause());
+      }
+    }
+    return result;
+  }
+
+  public static CacheStats getCacheStats() {
+    return checksums.stats();
+  }
+
+  private static void collectRegularFiles(File file, List<File> regularFiles) {
+    if (file.isFile()) {
+      regularFiles.add(file);
+      return;
+    }
+    File[] children = file.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        collectRegularFiles(child, regularFiles);
+      }
+    }
   }
 
   public static String checksum(String content, HashAlgorithm hashAlgo) {
@@ -53,7 +159,7 @@ public class ChecksumHelper {
   }
 
   public static String sha1(File file) {
-    return standardHash(file, HashAlgorithm.SHA1);
+    return checksum(file, HashAlgorithm.SHA1);
   }
 
   public static String sha1(String content) {
@@ -61,7 +167,7 @@ public class ChecksumHelper {
   }
 
   public static String md5(File file) {
-    return standardHash(file, HashAlgorithm.MD5);
+    return checksum(file, HashAlgorithm.MD5);
   }
 
   public static String md5(String content) {
@@ -69,36 +175,37 @@ public class ChecksumHelper {
   }
 
   public static String murmur3(File file) {
+    return checksum(file, HashAlgorithm.MURMUR3);
+  }
+
+  private static String murmur3Hash(File file) {
     checkNotNull(file);
 
-    String hashed = null;
-    HashFunction murmur3Hash = Hashing.murmur3_128();
-    try {
-      byte[] fileBytes = Files.readAllBytes(file.toPath());
-      byte[] hashedBytes = murmur3Hash.hashBytes(fileBytes).asBytes();
-      hashed = HashAlgorithm.MURMUR3.name().toLowerCase() + "$" + bytesToString(hashedBytes);
+    Hasher hasher = Hashing.murmur3_128().newHasher();
+    try (InputStream input = new FileInputStream(file)) {
+      byte[] buffer = new byte[BUFFER_SIZE];
+      int nread = 0;
+      while ((nread = input.read(buffer)) != -1) {
+        hasher.putBytes(buffer, 0, nread);
+      }
+      return HashAlgorithm.MURMUR3.name().toLowerCase() + "$" + bytesToString(hasher.hash().asBytes());
     } catch (IOException e) {
       logger.error("Failed to create murmur3 checksum for {}", file);
     }
-    return hashed;
+    return null;
   }
 
   private static String standardHash(File file, HashAlgorithm hash) {
     checkNotNull(file);
     checkNotNull(hash);
 
-    MessageDigest md;
-    FileInputStream fis = null;
-
-    try {
-      md = MessageDigest.getInstance(hash.name());
-
-      fis = new FileInputStream(file);
-      byte[] dataBytes = new byte[1024];
+    try (InputStream input = new FileInputStream(file)) {
+      MessageDigest md = MessageDigest.getInstance(hash.name());
 
+      byte[] buffer = new byte[BUFFER_SIZE];
       int nread = 0;
-      while ((nread = fis.read(dataBytes)) != -1) {
-        md.update(dataBytes, 0, nread);
+      while ((nread = input.read(buffer)) != -1) {
+        md.update(buffer, 0, nread);
       }
 
       byte[] mdbytes = md.digest();
@@ -106,14 +213,6 @@ public class ChecksumHelper {
     } catch (Exception e) {
       logger.error("Failed to create {} checksum for {}", hash.name(), file);
       throw new RuntimeException(e);
-    } finally {
-      if (fis != null) {
-        try {
-          fis.close();
-        } catch (IOException e) {
-          // do nothing
-        }
-      }
     }
   }
 
@@ -139,4 +238,72 @@ public class ChecksumHelper {
     return sb.toString();
   }
 
+  private static class ChecksumKey {
+    private final HashAlgorithm hashAlgorithm;
+    private final String path;
+    private final long size;
+    private final long modified;
+    private final Object fileKey;
+
+    private ChecksumKey(HashAlgorithm hashAlgorithm, String path, long size, long modified, Object fileKey) {
+      this.hashAlgorithm = hashAlgorithm;
+      this.path = path;
+      this.size = size;
+      this.modified = modified;
+      this.fileKey = fileKey;
+    }
+
+    /**
+     * Returns null if file attributes can't be read
+     */
+    private static ChecksumKey create(File file, HashAlgorithm hashAlgorithm) {
+      try {
+        BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+        return new ChecksumKey(hashAlgorithm, file.getAbsolutePath(), attributes.size(), attributes.lastModifiedTime().toMillis(), attributes.fileKey());
+      } catch (IOException e) {
+        return null;
+      }
+    }
+
+    @Override
+    public int hashCode() {
+      final int prime = 31;
+      int result = 1;
+      result = prime * result + ((fileKey == null) ? 0 : fileKey.hashCode());
+      result = prime * result + ((hashAlgorithm == null) ? 0 : hashAlgorithm.hashCode());
+      result = prime * result + (int) (modified ^ (modified >>> 32));
+      result = prime * result + ((path == null) ? 0 : path.hashCode());
+      result = prime * result + (int) (size ^ (size >>> 32));
+      return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj)
+        return true;
+      if (obj == null)
+        return false;
+      if (getClass() != obj.getClass())
+        return false;
+      ChecksumKey other = (ChecksumKey) obj;
+      if (fileKey == null) {
+        if (other.fileKey != null)
+          return false;
+      } else if (!fileKey.equals(other.fileKey))
+        return false;
+      if (hashAlgorithm != other.hashAlgorithm)
+        return false;
+      if (modified != other.modified)
+        return false;
+      if (path == null) {
+        if (other.path != null)
+          return false;
+      } else if (!path.equals(other.path))
+        return false;
+      if (size != other.size)
+        return false;
+      return true;
+    }
+  }
+
 }
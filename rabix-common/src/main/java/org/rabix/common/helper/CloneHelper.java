@@ -5,6 +5,23 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,7 +33,77 @@ public class CloneHelper {
   private CloneHelper() {
   }
 
+  /**
+   * Value that knows how to make a deep copy of itself
+   */
+  public static interface DeepCopyable {
+
+    Object deepCopy();
+
+  }
+
+  /**
+   * Copies JSON-like values (maps, collections, primitives, strings and {@link DeepCopyable} objects) structurally.
+   * Other objects are copied through Java serialization.
+   */
+  @SuppressWarnings("unchecked")
   public static Object deepCopy(Object oldObj) {
+    if (oldObj == null || isImmutable(oldObj)) {
+      return oldObj;
+    }
+    if (oldObj instanceof DeepCopyable) {
+      return ((DeepCopyable) oldObj).deepCopy();
+    }
+    if (oldObj instanceof Map<?, ?>) {
+      return copyMap((Map<Object, Object>) oldObj);
+    }
+    if (oldObj instanceof List<?>) {
+      List<Object> newList = oldObj instanceof LinkedList<?> ? new LinkedList<>() : new ArrayList<>(((List<?>) oldObj).size());
+      return copyElements((List<?>) oldObj, newList);
+    }
+    if (oldObj instanceof Set<?>) {
+      Set<Object> newSet;
+      if (oldObj instanceof SortedSet<?>) {
+        newSet = new TreeSet<>(((SortedSet<Object>) oldObj).comparator());
+      } else if (oldObj instanceof LinkedHashSet<?>) {
+        newSet = new LinkedHashSet<>();
+      } else {
+        newSet = new HashSet<>();
+      }
+      return copyElements((Set<?>) oldObj, newSet);
+    }
+    return serializationCopy(oldObj);
+  }
+
+  private static Map<Object, Object> copyMap(Map<Object, Object> oldMap) {
+    Map<Object, Object> newMap;
+    if (oldMap instanceof SortedMap<?, ?>) {
+      newMap = new TreeMap<>(((SortedMap<Object, Object>) oldMap).comparator());
+    } else if (oldMap instanceof LinkedHashMap<?, ?>) {
+      newMap = new LinkedHashMap<>();
+    } else {
+      newMap = new HashMap<>();
+    }
+    for (Entry<Object, Object> entry : oldMap.entrySet()) {
+      newMap.put(deepCopy(entry.getKey()), deepCopy(entry.getValue()));
+    }
+    return newMap;
+  }
+
+  private static <T extends Collection<Object>> T copyElements(Collection<?> oldCollection, T newCollection) {
+    for (Object element : oldCollection) {
+      newCollection.add(deepCopy(element));
+    }
+    return newCollection;
+  }
+
+  private static boolean isImmutable(Object value) {
+    return value instanceof String || value instanceof Boolean || value instanceof Integer || value instanceof Long
+        || value instanceof Double || value instanceof Float || value instanceof Short || value instanceof Byte
+        || value instanceof Character || value instanceof BigInteger || value instanceof BigDecimal || value instanceof Enum<?>;
+  }
+
+  private static Object serializationCopy(Object oldObj) {
     ObjectOutputStream oos = null;
     ObjectInputStream ois = null;
     try {
@@ -0,0 +1,239 @@
+package org.rabix.common.json;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.rabix.common.helper.JSONHelper;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.Construct;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+import org.yaml.snakeyaml.events.AliasEvent;
+import org.yaml.snakeyaml.events.CollectionEndEvent;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.MappingStartEvent;
+import org.yaml.snakeyaml.events.NodeEvent;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.events.SequenceStartEvent;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Reads JSON and YAML input manifests into maps and lists in a single pass, without building an intermediate tree or JSON string.
+ * An optional {@link ValueConverter} sees every object once it is read and can replace it (with a file value, for example).
+ */
+public class StreamingInputLoader {
+
+  private final static int DETECTION_LIMIT = 8192;
+
+  private final static Resolver yamlResolver = new Resolver();
+  private final static SafeConstructor yamlConstructor = new SafeConstructor();
+  private final static Construct yamlBool = yamlConstructor.new ConstructYamlBool();
+  private final static Construct yamlInt = yamlConstructor.new ConstructYamlInt();
+  private final static Construct yamlFloat = yamlConstructor.new ConstructYamlFloat();
+
+  /**
+   * Replaces objects while they are read. Nested objects are converted before the object that contains them.
+   */
+  public static interface ValueConverter {
+    Object convert(Map<String, Object> value);
+  }
+
+  public static Map<String, Object> load(File file) throws IOException {
+    return load(file, null);
+  }
+
+  /**
+   * Loads JSON or YAML manifest. Documents that look like JSON but fail to parse are read again as YAML.
+   */
+  public static Map<String, Object> load(File file, ValueConverter converter) throws IOException {
+    boolean json = false;
+    try (InputStream input = new BufferedInputStream(new FileInputStream(file))) {
+      json = isJSON(input);
+      if (json) {
+        return toMap(read(JSONHelper.mapper.getFactory().createParser(input), converter));
+      }
+    } catch (JsonProcessingException e) {
+      // flow style YAML, try again below
+    }
+    try (Reader reader = new InputStreamReader(new BufferedInputStream(new FileInputStream(file)), Charset.defaultCharset())) {
+      return toMap(readYAML(reader, converter));
+    }
+  }
+
+  /**
+   * Reads the value at the current token of the parser. The parser is left at the last token of the value.
+   */
+  public static Object read(JsonParser parser, ValueConverter converter) throws IOException {
+    JsonToken token = parser.getCurrentToken();
+    if (token == null) {
+      token = parser.nextToken();
+    }
+    if (token == null) {
+      return null;
+    }
+    switch (token) {
+    case START_OBJECT:
+    case FIELD_NAME:
+    case END_OBJECT:
+      Map<String, Object> map = new LinkedHashMap<>();
+      if (token == JsonToken.START_OBJECT) {
+        token = parser.nextToken();
+      }
+      for (; token == JsonToken.FIELD_NAME; token = parser.nextToken()) {
+        String name = parser.getCurrentName();
+        parser.nextToken();
+        map.put(name, read(parser, converter));
+      }
+      if (token != JsonToken.END_OBJECT) {
+        throw new JsonParseException("Unexpected end of object", parser.getCurrentLocation());
+      }
+      return converter != null ? converter.convert(map) : map;
+    case START_ARRAY:
+      List<Object> list = new ArrayList<>();
+      for (token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+        if (token == null) {
+          throw new JsonParseException("Unexpected end of array", parser.getCurrentLocation());
+        }
+        list.add(read(parser, converter));
+      }
+      return list;
+    case VALUE_STRING:
+      return parser.getText();
+    case VALUE_NUMBER_INT:
+      return parser.getNumberValue();
+    case VALUE_NUMBER_FLOAT:
+      return parser.getDoubleValue();
+    case VALUE_TRUE:
+      return Boolean.TRUE;
+    case VALUE_FALSE:
+      return Boolean.FALSE;
+    case VALUE_EMBEDDED_OBJECT:
+      return parser.getEmbeddedObject();
+    case VALUE_NULL:
+      return null;
+    default:
+      throw new JsonParseException("Unexpected token " + token, parser.getCurrentLocation());
+    }
+  }
+
+  /**
+   * Reads the first document from YAML parser events
+   */
+  public static Object readYAML(Reader reader, ValueConverter converter) throws IOException {
+    Iterator<Event> events = new Yaml().parse(reader).iterator();
+    while (events.hasNext()) {
+      Event event = events.next();
+      if (event.is(Event.ID.StreamStart) || event.is(Event.ID.DocumentStart)) {
+        continue;
+      }
+      if (event.is(Event.ID.DocumentEnd) || event.is(Event.ID.StreamEnd)) {
+        return null;
+      }
+      return readYAML(event, events, new HashMap<String, Object>(), converter);
+    }
+    return null;
+  }
+
+  private static Object readYAML(Event event, Iterator<Event> events, Map<String, Object> anchors, ValueConverter converter) throws IOException {
+    if (event instanceof AliasEvent) {
+      return anchors.get(((AliasEvent) event).getAnchor());
+    }
+    Object value = null;
+    if (event instanceof ScalarEvent) {
+      value = scalar((ScalarEvent) event);
+    } else if (event instanceof MappingStartEvent) {
+      Map<String, Object> map = new LinkedHashMap<>();
+      for (Event keyEvent = events.next(); !(keyEvent instanceof CollectionEndEvent); keyEvent = events.next()) {
+        Object key = readYAML(keyEvent, events, anchors, converter);
+        map.put(String.valueOf(key), readYAML(events.next(), events, anchors, converter));
+      }
+      value = converter != null ? converter.convert(map) : map;
+    } else if (event instanceof SequenceStartEvent) {
+      List<Object> list = new ArrayList<>();
+      for (Event itemEvent = events.next(); !(itemEvent instanceof CollectionEndEvent); itemEvent = events.next()) {
+        list.add(readYAML(itemEvent, events, anchors, converter));
+      }
+      value = list;
+    } else {
+      throw new IOException("Unexpected YAML event " + event);
+    }
+    String anchor = ((NodeEvent) event).getAnchor();
+    if (anchor != null) {
+      anchors.put(anchor, value);
+    }
+    return value;
+  }
+
+  /**
+   * Resolves implicit YAML types the same way SnakeYAML does. Types that JSON cannot hold stay strings.
+   */
+  private static Object scalar(ScalarEvent event) {
+    String value = event.getValue();
+    Tag tag = null;
+    if (event.getTag() == null || event.getTag().equals("!")) {
+      tag = yamlResolver.resolve(NodeId.scalar, value, event.getImplicit().canOmitTagInPlainScalar());
+    } else {
+      tag = new Tag(event.getTag());
+    }
+    ScalarNode node = new ScalarNode(tag, value, event.getStartMark(), event.getEndMark(), event.getStyle());
+    if (Tag.NULL.equals(tag)) {
+      return null;
+    }
+    if (Tag.BOOL.equals(tag)) {
+      return yamlBool.construct(node);
+    }
+    if (Tag.INT.equals(tag)) {
+      return yamlInt.construct(node);
+    }
+    if (Tag.FLOAT.equals(tag)) {
+      return yamlFloat.construct(node);
+    }
+    return value;
+  }
+
+  private static boolean isJSON(InputStream input) throws IOException {
+    input.mark(DETECTION_LIMIT);
+    try {
+      for (int i = 0; i < DETECTION_LIMIT; i++) {
+        int c = input.read();
+        if (c == -1) {
+          return false;
+        }
+        if (!Character.isWhitespace(c)) {
+          return c == '{' || c == '[';
+        }
+      }
+      return false;
+    } finally {
+      input.reset();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> toMap(Object value) throws IOException {
+    if (value == null || value instanceof Map<?, ?>) {
+      return (Map<String, Object>) value;
+    }
+    throw new IOException("Input manifest is not an object");
+  }
+
+}
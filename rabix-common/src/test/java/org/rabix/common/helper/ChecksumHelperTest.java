@@ -0,0 +1,85 @@
+package org.rabix.common.helper;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.rabix.common.helper.ChecksumHelper.HashAlgorithm;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.google.common.hash.Hashing;
+
+@Test(groups = { "functional" })
+public class ChecksumHelperTest {
+
+  private File directory;
+
+  @BeforeClass
+  public void before() throws IOException {
+    directory = Files.createTempDirectory("checksum").toFile();
+  }
+
+  @AfterClass
+  public void after() throws IOException {
+    FileUtils.deleteDirectory(directory);
+  }
+
+  @Test
+  public void testStreamingChecksum() throws IOException {
+    byte[] content = createContent(200 * 1024 + 17);
+    File file = new File(directory, "streaming.bin");
+    Files.write(file.toPath(), content);
+
+    Assert.assertEquals(ChecksumHelper.sha1(file), "sha1$" + Hashing.sha1().hashBytes(content).toString());
+    Assert.assertEquals(ChecksumHelper.md5(file), "md5$" + Hashing.md5().hashBytes(content).toString());
+    Assert.assertEquals(ChecksumHelper.murmur3(file), "murmur3$" + Hashing.murmur3_128().hashBytes(content).toString());
+  }
+
+  @Test
+  public void testChangedFileIsHashedAgain() throws IOException {
+    File file = new File(directory, "changed.txt");
+    FileUtils.writeStringToFile(file, "first");
+    String first = ChecksumHelper.sha1(file);
+    Assert.assertEquals(ChecksumHelper.sha1(file), first);
+
+    FileUtils.writeStringToFile(file, "second content");
+    Assert.assertEquals(ChecksumHelper.sha1(file), "sha1$" + Hashing.sha1().hashString("second content", StandardCharsets.UTF_8).toString());
+  }
+
+  @Test
+  public void testParallelChecksum() throws IOException {
+    File subdirectory = new File(directory, "parallel");
+    List<File> files = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      File file = new File(subdirectory, "file" + i + ".txt");
+      FileUtils.writeStringToFile(file, "content " + i);
+      files.add(file);
+    }
+
+    List<File> inputs = new ArrayList<>();
+    inputs.add(subdirectory);
+    Map<File, String> checksums = ChecksumHelper.checksum(inputs, HashAlgorithm.MD5);
+
+    Assert.assertEquals(checksums.size(), files.size());
+    for (File file : files) {
+      Assert.assertEquals(checksums.get(file), "md5$" + Hashing.md5().hashBytes(Files.readAllBytes(file.toPath())).toString());
+    }
+  }
+
+  private byte[] createContent(int size) {
+    byte[] content = new byte[size];
+    for (int i = 0; i < size; i++) {
+      content[i] = (byte) (i * 31 + 7);
+    }
+    return content;
+  }
+
+}
@@ -0,0 +1,62 @@
+package org.rabix.common.json;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.rabix.common.helper.JSONHelper;
+import org.rabix.common.json.StreamingInputLoader.ValueConverter;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+@Test(groups = { "functional" })
+public class StreamingInputLoaderTest {
+
+  private final static String JSON = "{\"reads\": {\"class\": \"File\", \"path\": \"a.fastq\", \"size\": 3000000000, \"secondaryFiles\": [{\"class\": \"File\", \"path\": \"a.fai\"}]}, \"threads\": 4, \"ratio\": 0.5, \"paired\": true, \"name\": null, \"tags\": [\"x\", \"y\"]}";
+  private final static String YAML = "reads:\n  class: File\n  path: a.fastq\n  size: 3000000000\n  secondaryFiles:\n    - {class: File, path: a.fai}\nthreads: 4\nratio: 0.5\npaired: true\nname: null\ntags: [x, y]\n";
+
+  private File directory;
+
+  @BeforeClass
+  public void before() throws IOException {
+    directory = Files.createTempDirectory("inputs").toFile();
+  }
+
+  @AfterClass
+  public void after() throws IOException {
+    FileUtils.deleteDirectory(directory);
+  }
+
+  @Test
+  public void testJSONAndYAML() throws IOException {
+    Map<String, Object> expected = JSONHelper.readMap(JSON);
+
+    Assert.assertEquals(StreamingInputLoader.load(write("inputs.json", JSON)), expected);
+    Assert.assertEquals(StreamingInputLoader.load(write("inputs.yaml", YAML)), expected);
+    Assert.assertEquals(StreamingInputLoader.load(write("flow.yaml", "{threads: 4}")).get("threads"), 4);
+  }
+
+  @Test
+  public void testConverter() throws IOException {
+    ValueConverter converter = new ValueConverter() {
+      @Override
+      public Object convert(Map<String, Object> value) {
+        return "File".equals(value.get("class")) ? value.get("path") : value;
+      }
+    };
+    Map<String, Object> inputs = StreamingInputLoader.load(write("converted.yaml", YAML), converter);
+    Assert.assertEquals(inputs.get("reads"), "a.fastq");
+    Assert.assertEquals(inputs.get("threads"), 4);
+  }
+
+  private File write(String name, String content) throws IOException {
+    File file = new File(directory, name);
+    FileUtils.writeStringToFile(file, content);
+    return file;
+  }
+
+}
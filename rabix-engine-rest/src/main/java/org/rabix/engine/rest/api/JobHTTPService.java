@@ -6,10 +6,12 @@ import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
 import org.rabix.bindings.model.Job;
+import org.rabix.bindings.model.Job.JobStatus;
 
 @Produces(MediaType.APPLICATION_JSON)
 @Path("/v0/engine/jobs")
@@ -22,8 +24,11 @@ public interface JobHTTPService {
   @Path("/{id}")
   Response save(@PathParam("id") String id, Job job);
   
+  /**
+   * Streams Jobs in order of creation. If the limit is set, the cursor of the next page is returned in the X-Next-Cursor header.
+   */
   @GET
-  Response get();
+  Response get(@QueryParam("cursor") String cursor, @QueryParam("limit") Integer limit, @QueryParam("status") JobStatus status);
   
   @GET
   @Path("/{id}")
@@ -1,19 +1,31 @@
 package org.rabix.engine.rest.api.impl;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Collections;
 
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
 import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.StreamingOutput;
 
 import org.rabix.bindings.model.Job;
+import org.rabix.bindings.model.Job.JobStatus;
+import org.rabix.common.helper.JSONHelper;
 import org.rabix.engine.rest.api.JobHTTPService;
+import org.rabix.engine.rest.db.JobDB.Page;
 import org.rabix.engine.rest.service.JobServiceException;
 import org.rabix.engine.rest.service.JobService;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.google.inject.Inject;
 
 public class JobHTTPServiceImpl implements JobHTTPService {
 
+  public final static String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+  private final static int STREAM_PAGE_SIZE = 500;
+
   private final JobService jobService;
 
   @Inject
@@ -31,8 +43,21 @@ public class JobHTTPServiceImpl implements JobHTTPService {
   }
   
   @Override
-  public Response get() {
-    return ok(jobService.get());
+  public Response get(String cursor, Integer limit, JobStatus status) {
+    if (limit != null && limit <= 0) {
+      return error();
+    }
+    Page page = null;
+    try {
+      page = jobService.get(cursor, limit != null ? limit : STREAM_PAGE_SIZE, status);
+    } catch (IllegalArgumentException e) {
+      return error();
+    }
+    ResponseBuilder builder = Response.ok(new JobStreamingOutput(page, status, limit == null));
+    if (limit != null && page.getNextCursor() != null) {
+      builder.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+    }
+    return builder.build();
   }
   
   @Override
@@ -66,6 +91,41 @@ public class JobHTTPServiceImpl implements JobHTTPService {
     return Response.ok(Collections.emptyMap()).build();
   }
   
+  /**
+   * Writes Jobs as JSON array page by page, so the whole list is never held in memory
+   */
+  private class JobStreamingOutput implements StreamingOutput {
+
+    private final Page firstPage;
+    private final JobStatus status;
+    private final boolean allPages;
+
+    private JobStreamingOutput(Page firstPage, JobStatus status, boolean allPages) {
+      this.firstPage = firstPage;
+      this.status = status;
+      this.allPages = allPages;
+    }
+
+    @Override
+    public void write(OutputStream output) throws IOException {
+      JsonGenerator generator = JSONHelper.mapperWithoutIdentation.getFactory().createGenerator(output);
+      generator.writeStartArray();
+
+      Page page = firstPage;
+      while (true) {
+        for (Job job : page.getJobs()) {
+          generator.writeObject(job);
+        }
+        if (!allPages || page.getNextCursor() == null) {
+          break;
+        }
+        page = jobService.get(page.getNextCursor(), STREAM_PAGE_SIZE, status);
+      }
+      generator.writeEndArray();
+      generator.flush();
+    }
+  }
+
   private Response ok(Object items) {
     if (items == null) {
       return ok();
@@ -1,119 +1,122 @@
 package org.rabix.engine.rest.backend;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.commons.configuration.Configuration;
+import org.rabix.bindings.BindingException;
+import org.rabix.bindings.Bindings;
+import org.rabix.bindings.BindingsFactory;
+import org.rabix.bindings.helper.URIHelper;
 import org.rabix.bindings.model.Job;
 import org.rabix.bindings.model.Job.JobStatus;
+import org.rabix.bindings.model.dag.DAGContainer;
+import org.rabix.bindings.model.dag.DAGNode;
+import org.rabix.bindings.model.requirement.DockerContainerRequirement;
+import org.rabix.bindings.model.requirement.Requirement;
+import org.rabix.bindings.model.requirement.ResourceRequirement;
 import org.rabix.common.engine.control.EngineControlFreeMessage;
+import org.rabix.common.engine.control.EngineControlPrefetchMessage;
 import org.rabix.common.engine.control.EngineControlStopMessage;
 import org.rabix.engine.rest.backend.stub.BackendStub;
+import org.rabix.engine.rest.backend.stub.BackendStub.HeartbeatCallback;
 import org.rabix.transport.backend.Backend;
+import org.rabix.transport.backend.HeartbeatInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
 
+/**
+ * Sends Jobs to the least loaded backend that has room for them.
+ * Capacity comes from backend heartbeats and is reduced by Jobs sent since the backend reported. Waiting Jobs are sent as soon as capacity appears.
+ * Heartbeats also carry Docker image prefetch totals of the backend, newly prefetched and failed images are logged.
+ * If too many Jobs are waiting, {@link #send(Job...)} blocks the caller until backends catch up.
+ */
 public class BackendDispatcher {
 
   private final static Logger logger = LoggerFactory.getLogger(BackendDispatcher.class);
 
   private final static long DEFAULT_HEARTBEAT_PERIOD = TimeUnit.MINUTES.toMillis(2);
-  
+  private final static int DEFAULT_MAX_WAITING_JOBS = 1000;
+  private final static long DEFAULT_BACKPRESSURE_TIMEOUT = 60;
+
   private final List<BackendStub<?,?,?>> backendStubs = new ArrayList<>();
-  private final Map<String, Long> heartbeatInfo = new HashMap<>();
+  private final Map<String, BackendCapacity> backendCapacities = new HashMap<>();
 
-  private final Set<Job> freeJobs = new HashSet<>();
-  private final ConcurrentMap<Job, String> jobBackendMapping = new ConcurrentHashMap<>();
+  private final Map<String, Assignment> waitingJobs = new LinkedHashMap<>();
+  private final Map<String, Assignment> jobBackendMapping = new HashMap<>();
+  private final Map<String, Set<String>> rootBackendMapping = new HashMap<>();
 
-  private ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor();
   private ScheduledExecutorService heartbeatService = Executors.newSingleThreadScheduledExecutor();
+  private ExecutorService prefetchService = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("image-prefetch-%d").setDaemon(true).build());
 
   private Lock dispatcherLock = new ReentrantLock(true);
+  private Condition waitingJobsDrained = dispatcherLock.newCondition();
 
-  private int position = 0;
-  
   private final long heartbeatPeriod;
-  
+  private final int maxWaitingJobs;
+  private final long backpressureTimeout;
+  private final boolean prefetchImages;
+
   @Inject
   public BackendDispatcher(Configuration configuration) {
     this.heartbeatPeriod = configuration.getLong("backend.cleaner.heartbeatPeriodMills", DEFAULT_HEARTBEAT_PERIOD);
+    this.maxWaitingJobs = configuration.getInt("backend.dispatcher.max_waiting_jobs", DEFAULT_MAX_WAITING_JOBS);
+    this.backpressureTimeout = configuration.getLong("backend.dispatcher.backpressure_timeout_seconds", DEFAULT_BACKPRESSURE_TIMEOUT);
+    this.prefetchImages = configuration.getBoolean("backend.dispatcher.prefetch_images", true);
     start();
   }
 
   private synchronized void start() {
-    executorService.scheduleAtFixedRate(new Runnable() {
-      @Override
-      public void run() {
-        try {
-          dispatcherLock.lock();
-          if (!backendStubs.isEmpty()) {
-            send(freeJobs.toArray(new Job[] {}));
-            freeJobs.clear();
-          }
-        } finally {
-          dispatcherLock.unlock();
-        }
-      }
-    }, 0, 10, TimeUnit.SECONDS);
-
     heartbeatService.scheduleAtFixedRate(new HeartbeatMonitor(), 0, heartbeatPeriod, TimeUnit.MILLISECONDS);
   }
 
+  /**
+   * Sends Jobs to backends or keeps them until some backend has room. Blocks while there are too many waiting Jobs.
+   */
   public boolean send(Job... jobs) {
     try {
       dispatcherLock.lock();
       for (Job job : jobs) {
-        freeJobs.add(job);
-      }
-
-      if (backendStubs.isEmpty()) {
-        return false;
-      }
-
-      Iterator<Job> freeJobIterator = freeJobs.iterator();
-      while (freeJobIterator.hasNext()) {
-        Job freeJob = freeJobIterator.next();
-
-        if (jobBackendMapping.containsKey(freeJob)) {
-          freeJobIterator.remove();
-          continue;
+        if (!jobBackendMapping.containsKey(job.getId())) {
+          waitingJobs.put(job.getId(), createAssignment(job));
         }
-        BackendStub<?,?,?> backendStub = nextBackend();
-
-        freeJobIterator.remove();
-        jobBackendMapping.put(freeJob, backendStub.getBackend().getId());
-        backendStub.send(freeJob);
-        logger.info("Job {} sent to {}.", freeJob.getId(), backendStub.getBackend().getId());
       }
-      return true;
+      dispatch();
+      awaitWaitingJobs();
+      return !backendStubs.isEmpty();
     } finally {
       dispatcherLock.unlock();
     }
   }
-  
+
   public boolean stop(Job... jobs) {
     try {
       dispatcherLock.lock();
-      
+
       for (Job job : jobs) {
-        String backendId = jobBackendMapping.get(job);
-        if (backendId != null) {
-          BackendStub<?,?,?> backendStub = getBackendStub(backendId);
+        Assignment assignment = jobBackendMapping.get(job.getId());
+        if (assignment != null) {
+          BackendStub<?,?,?> backendStub = getBackendStub(assignment.backendId);
           if (backendStub != null) {
             backendStub.send(new EngineControlStopMessage(job.getId(), job.getRootId()));
           }
@@ -128,45 +131,257 @@ public class BackendDispatcher {
   public void addBackendStub(BackendStub<?,?,?> backendStub) {
     try {
       dispatcherLock.lock();
-      backendStub.start(heartbeatInfo);
+      backendStub.start(new HeartbeatCallback() {
+        @Override
+        public void onHeartbeat(HeartbeatInfo heartbeatInfo) {
+          heartbeat(heartbeatInfo);
+        }
+      });
       this.backendStubs.add(backendStub);
-      this.heartbeatInfo.put(backendStub.getBackend().getId(), System.currentTimeMillis());
+      this.backendCapacities.put(backendStub.getBackend().getId(), new BackendCapacity(System.currentTimeMillis()));
+      dispatch();
     } finally {
       dispatcherLock.unlock();
     }
   }
-  
-  public void freeBackend(Job rootJob) {
-    Set<BackendStub<?,?,?>> backendStubs = new HashSet<>();
-    
-    synchronized (jobBackendMapping) {
-      for (Entry<Job, String> jobBackendEntry : jobBackendMapping.entrySet()) {
-        if (jobBackendEntry.getKey().getRootId().equals(rootJob.getRootId())) {
-          backendStubs.add(getBackendStub(jobBackendEntry.getValue()));
+
+  /**
+   * Collects Docker images of all executable nodes in the DAG and announces them to every backend, so images are pulled before Jobs arrive.
+   * Runs in the background and never delays the root Job.
+   */
+  public void prefetch(final Job rootJob, final DAGNode node) {
+    if (!prefetchImages) {
+      return;
+    }
+    prefetchService.submit(new Runnable() {
+      @Override
+      public void run() {
+        Set<String> images = new LinkedHashSet<>();
+        collectImages(rootJob, node, images);
+        if (images.isEmpty()) {
+          return;
+        }
+        try {
+          dispatcherLock.lock();
+          for (BackendStub<?,?,?> backendStub : backendStubs) {
+            backendStub.send(new EngineControlPrefetchMessage(new ArrayList<>(images), rootJob.getRootId()));
+          }
+          logger.info("Prefetch of {} Docker images for {} sent to {} backends.", images.size(), rootJob.getRootId(), backendStubs.size());
+        } finally {
+          dispatcherLock.unlock();
+        }
+      }
+    });
+  }
+
+  /**
+   * Finds the Docker image of each executable node the same way the executor does: the first Docker requirement among hints and requirements
+   */
+  private void collectImages(Job rootJob, DAGNode node, Set<String> images) {
+    if (node instanceof DAGContainer) {
+      for (DAGNode child : ((DAGContainer) node).getChildren()) {
+        collectImages(rootJob, child, images);
+      }
+      return;
+    }
+    try {
+      String encodedApp = URIHelper.createDataURI(node.getApp().serialize());
+      Job job = new Job(null, rootJob.getRootId(), rootJob.getRootId(), node.getId(), encodedApp, JobStatus.PENDING, null, new HashMap<String, Object>(), null, rootJob.getConfig(), null, null);
+      Bindings bindings = BindingsFactory.create(job);
+
+      List<Requirement> requirements = new ArrayList<>();
+      requirements.addAll(bindings.getHints(job));
+      requirements.addAll(bindings.getRequirements(job));
+      for (Requirement requirement : requirements) {
+        if (requirement instanceof DockerContainerRequirement) {
+          String dockerPull = ((DockerContainerRequirement) requirement).getDockerPull();
+          if (dockerPull != null) {
+            images.add(dockerPull);
+          }
+          break;
         }
       }
-      
-      for (BackendStub<?, ?, ?> backendStub : backendStubs) {
-        backendStub.send(new EngineControlFreeMessage(rootJob.getConfig(), rootJob.getRootId()));
+    } catch (BindingException | RuntimeException e) {
+      logger.debug("Failed to find Docker image for " + node.getId(), e);
+    }
+  }
+
+  public void freeBackend(Job rootJob) {
+    try {
+      dispatcherLock.lock();
+      Set<String> backendIds = rootBackendMapping.remove(rootJob.getRootId());
+      if (backendIds == null) {
+        return;
+      }
+      for (String backendId : backendIds) {
+        BackendStub<?,?,?> backendStub = getBackendStub(backendId);
+        if (backendStub != null) {
+          backendStub.send(new EngineControlFreeMessage(rootJob.getConfig(), rootJob.getRootId()));
+        }
       }
+    } finally {
+      dispatcherLock.unlock();
     }
   }
 
+  /**
+   * Drops the assignment of the Job. Its capacity is back once the backend reports it. Root Jobs also drop the list of backends used by their children.
+   */
   public void remove(Job job) {
     try {
       dispatcherLock.lock();
-      this.jobBackendMapping.remove(job);
+      Assignment assignment = jobBackendMapping.remove(job.getId());
+      if (assignment != null) {
+        BackendCapacity capacity = backendCapacities.get(assignment.backendId);
+        if (capacity != null) {
+          capacity.release();
+        }
+        dispatch();
+      }
+      if (job.isRoot()) {
+        rootBackendMapping.remove(job.getRootId());
+      }
     } finally {
       dispatcherLock.unlock();
     }
   }
 
-  private BackendStub<?,?,?> nextBackend() {
-    BackendStub<?,?,?> backendStub = backendStubs.get(position % backendStubs.size());
-    position = (position + 1) % backendStubs.size();
-    return backendStub;
+  private void heartbeat(HeartbeatInfo heartbeatInfo) {
+    try {
+      dispatcherLock.lock();
+      BackendCapacity capacity = backendCapacities.get(heartbeatInfo.getId());
+      if (capacity == null) {
+        return;
+      }
+      capacity.update(heartbeatInfo, System.currentTimeMillis());
+      if (!waitingJobs.isEmpty()) {
+        dispatch();
+      }
+    } finally {
+      dispatcherLock.unlock();
+    }
   }
-  
+
+  /**
+   * Sends waiting Jobs in order of arrival, batched per backend. Jobs that don't fit anywhere stay in the queue and don't block the ones behind them.
+   */
+  private void dispatch() {
+    if (backendStubs.isEmpty() || waitingJobs.isEmpty()) {
+      return;
+    }
+    Map<BackendStub<?,?,?>, List<Job>> batches = new LinkedHashMap<>();
+    Iterator<Assignment> waitingJobIterator = waitingJobs.values().iterator();
+    while (waitingJobIterator.hasNext() && hasFreeSlots()) {
+      Assignment assignment = waitingJobIterator.next();
+      Job job = assignment.job;
+
+      BackendStub<?,?,?> backendStub = selectBackend(assignment);
+      if (backendStub == null) {
+        continue;
+      }
+      String backendId = backendStub.getBackend().getId();
+      assignment.backendId = backendId;
+
+      waitingJobIterator.remove();
+      jobBackendMapping.put(job.getId(), assignment);
+      backendCapacities.get(backendId).reserve(assignment);
+
+      Set<String> rootBackendIds = rootBackendMapping.get(job.getRootId());
+      if (rootBackendIds == null) {
+        rootBackendIds = new HashSet<>();
+        rootBackendMapping.put(job.getRootId(), rootBackendIds);
+      }
+      rootBackendIds.add(backendId);
+
+      List<Job> batch = batches.get(backendStub);
+      if (batch == null) {
+        batch = new ArrayList<>();
+        batches.put(backendStub, batch);
+      }
+      batch.add(job);
+    }
+    for (Entry<BackendStub<?,?,?>, List<Job>> batch : batches.entrySet()) {
+      batch.getKey().send(batch.getValue());
+      for (Job job : batch.getValue()) {
+        logger.info("Job {} sent to {}.", job.getId(), batch.getKey().getBackend().getId());
+      }
+    }
+    if (!batches.isEmpty()) {
+      waitingJobsDrained.signalAll();
+    }
+  }
+
+  /**
+   * Waits while there are more waiting Jobs than allowed. Gives up after the timeout so the engine doesn't stall forever.
+   */
+  private void awaitWaitingJobs() {
+    long remaining = TimeUnit.SECONDS.toNanos(backpressureTimeout);
+    try {
+      while (waitingJobs.size() > maxWaitingJobs && remaining > 0) {
+        remaining = waitingJobsDrained.awaitNanos(remaining);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (waitingJobs.size() > maxWaitingJobs) {
+      logger.warn("There are {} Jobs waiting for backends.", waitingJobs.size());
+    }
+  }
+
+  private boolean hasFreeSlots() {
+    for (BackendStub<?,?,?> backendStub : backendStubs) {
+      if (backendCapacities.get(backendStub.getBackend().getId()).hasFreeSlot()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Finds the least loaded backend the Job fits to. Job that doesn't fit anywhere goes to the best idle backend.
+   */
+  private BackendStub<?,?,?> selectBackend(Assignment assignment) {
+    BackendStub<?,?,?> selected = null;
+    BackendCapacity selectedCapacity = null;
+    BackendStub<?,?,?> idle = null;
+    BackendCapacity idleCapacity = null;
+
+    for (BackendStub<?,?,?> backendStub : backendStubs) {
+      BackendCapacity capacity = backendCapacities.get(backendStub.getBackend().getId());
+      if (!capacity.hasFreeSlot()) {
+        continue;
+      }
+      if (capacity.fits(assignment)) {
+        if (selectedCapacity == null || capacity.compareTo(selectedCapacity) < 0) {
+          selected = backendStub;
+          selectedCapacity = capacity;
+        }
+      } else if (capacity.assigned == 0) {
+        if (idleCapacity == null || capacity.compareTo(idleCapacity) < 0) {
+          idle = backendStub;
+          idleCapacity = capacity;
+        }
+      }
+    }
+    return selected != null ? selected : idle;
+  }
+
+  private Assignment createAssignment(Job job) {
+    Long cpu = null;
+    Long memory = null;
+    try {
+      Bindings bindings = BindingsFactory.create(job);
+      ResourceRequirement resourceRequirement = bindings.getResourceRequirement(job);
+      if (resourceRequirement != null) {
+        cpu = resourceRequirement.getCpuMin();
+        memory = resourceRequirement.getMemMinMB();
+      }
+    } catch (BindingException e) {
+      logger.warn("Failed to find resource requirement for Job {}.", job.getId());
+    }
+    return new Assignment(job, cpu, memory);
+  }
+
   private BackendStub<?,?,?> getBackendStub(String id) {
     for (BackendStub<?,?,?> backendStub : backendStubs) {
       if (backendStub.getBackend().getId().equals(id)) {
@@ -176,35 +391,177 @@ public class BackendDispatcher {
     return null;
   }
 
+  /**
+   * Backend and resources taken by a sent Job
+   */
+  private static class Assignment {
+    private String backendId;
+    private final Job job;
+    private final Long cpu;
+    private final Long memory;
+
+    private Assignment(Job job, Long cpu, Long memory) {
+      this.job = job;
+      this.cpu = cpu;
+      this.memory = memory;
+    }
+  }
+
+  /**
+   * Last reported capacity of a backend minus Jobs sent to it that the report doesn't include yet.
+   * Null values mean the backend doesn't report them. Finished Jobs free capacity with the next heartbeat.
+   */
+  private static class BackendCapacity implements Comparable<BackendCapacity> {
+    private long lastHeartbeat;
+    private Integer freeSlots;
+    private Long availableCores;
+    private Long availableMemory;
+    private int assigned;
+
+    private long sent;
+    private final Deque<Assignment> inFlight = new ArrayDeque<>();
+
+    private long prefetchedImages;
+    private long failedPrefetches;
+
+    private BackendCapacity(long lastHeartbeat) {
+      this.lastHeartbeat = lastHeartbeat;
+    }
+
+    private void update(HeartbeatInfo heartbeatInfo, long time) {
+      this.lastHeartbeat = time;
+      this.freeSlots = heartbeatInfo.getFreeSlots();
+      this.availableCores = heartbeatInfo.getAvailableCores();
+      this.availableMemory = heartbeatInfo.getAvailableMemoryMB();
+
+      Long received = heartbeatInfo.getReceivedJobs();
+      if (received == null || received < sent - inFlight.size()) {
+        // backend doesn't count Jobs or it has restarted, Jobs sent before this heartbeat are either included or lost
+        inFlight.clear();
+        sent = received != null ? received : sent;
+      }
+      while (!inFlight.isEmpty() && sent - inFlight.size() < received) {
+        inFlight.poll();
+      }
+      for (Assignment assignment : inFlight) {
+        take(assignment);
+      }
+      updatePrefetches(heartbeatInfo);
+    }
+
+    /**
+     * Logs images prefetched or failed since the previous heartbeat. Totals restart with the backend, so lower totals are just taken over.
+     */
+    private void updatePrefetches(HeartbeatInfo heartbeatInfo) {
+      Long prefetched = heartbeatInfo.getPrefetchedImages();
+      Long failed = heartbeatInfo.getFailedPrefetches();
+      if (prefetched != null && prefetched > prefetchedImages) {
+        logger.info("Backend {} prefetched {} Docker images.", heartbeatInfo.getId(), prefetched - prefetchedImages);
+      }
+      if (failed != null && failed > failedPrefetches) {
+        logger.warn("Backend {} failed to prefetch {} Docker images. Jobs will pull them when they start.", heartbeatInfo.getId(), failed - failedPrefetches);
+      }
+      prefetchedImages = prefetched != null ? prefetched : 0;
+      failedPrefetches = failed != null ? failed : 0;
+    }
+
+    private boolean hasFreeSlot() {
+      return freeSlots == null || freeSlots > 0;
+    }
+
+    private boolean fits(Assignment assignment) {
+      if (assignment.cpu != null && availableCores != null && assignment.cpu > availableCores) {
+        return false;
+      }
+      if (assignment.memory != null && availableMemory != null && assignment.memory > availableMemory) {
+        return false;
+      }
+      return true;
+    }
+
+    private void reserve(Assignment assignment) {
+      assigned++;
+      sent++;
+      inFlight.add(assignment);
+      take(assignment);
+    }
+
+    private void take(Assignment assignment) {
+      if (freeSlots != null) {
+        freeSlots--;
+      }
+      if (availableCores != null && assignment.cpu != null) {
+        availableCores -= assignment.cpu;
+      }
+      if (availableMemory != null && assignment.memory != null) {
+        availableMemory -= assignment.memory;
+      }
+    }
+
+    private void release() {
+      assigned--;
+    }
+
+    /**
+     * Less loaded backends come first: more free slots, then more free cores, then fewer assigned Jobs, then more free memory
+     */
+    @Override
+    public int compareTo(BackendCapacity other) {
+      int result = Long.compare(valueOf(other.freeSlots), valueOf(freeSlots));
+      if (result != 0) {
+        return result;
+      }
+      result = Long.compare(valueOf(other.availableCores), valueOf(availableCores));
+      if (result != 0) {
+        return result;
+      }
+      result = Integer.compare(assigned, other.assigned);
+      if (result != 0) {
+        return result;
+      }
+      return Long.compare(valueOf(other.availableMemory), valueOf(availableMemory));
+    }
+
+    private static long valueOf(Number value) {
+      return value != null ? value.longValue() : Long.MAX_VALUE;
+    }
+  }
+
   private class HeartbeatMonitor implements Runnable {
     @Override
     public void run() {
       try {
         dispatcherLock.lock();
         logger.info("Checking Backend heartbeats...");
-        
+
         long currentTime = System.currentTimeMillis();
-        for (BackendStub<?,?,?> backendStub : backendStubs) {
+        Iterator<BackendStub<?,?,?>> backendStubIterator = backendStubs.iterator();
+        while (backendStubIterator.hasNext()) {
+          BackendStub<?,?,?> backendStub = backendStubIterator.next();
           Backend backend = backendStub.getBackend();
 
-          if (currentTime - heartbeatInfo.get(backend.getId()) > heartbeatPeriod) {
+          if (currentTime - backendCapacities.get(backend.getId()).lastHeartbeat > heartbeatPeriod) {
             backendStub.stop();
-            backendStubs.remove(backendStub);
-            logger.info("Removing Backend {}", backendStub.getBackend().getId());
-            
-            List<Job> jobsToRemove = new ArrayList<>();
-            for (Entry<Job, String> jobBackendEntry : jobBackendMapping.entrySet()) {
-              if (jobBackendEntry.getValue().equals(backend.getId())) {
-                jobsToRemove.add(jobBackendEntry.getKey());
+            backendStubIterator.remove();
+            backendCapacities.remove(backend.getId());
+            logger.info("Removing Backend {}", backend.getId());
+
+            Iterator<Entry<String, Assignment>> assignmentIterator = jobBackendMapping.entrySet().iterator();
+            while (assignmentIterator.hasNext()) {
+              Assignment assignment = assignmentIterator.next().getValue();
+              if (assignment.backendId.equals(backend.getId())) {
+                assignmentIterator.remove();
+                Job job = Job.cloneWithStatus(assignment.job, JobStatus.READY);
+                waitingJobs.put(job.getId(), new Assignment(job, assignment.cpu, assignment.memory));
+                logger.info("Reassign Job {} to free Jobs", assignment.job.getId());
               }
             }
-            for (Job job : jobsToRemove) {
-              jobBackendMapping.remove(job);
-              freeJobs.add(Job.cloneWithStatus(job, JobStatus.READY));
-              logger.info("Reassign Job {} to free Jobs", job.getId());
+            for (Set<String> rootBackendIds : rootBackendMapping.values()) {
+              rootBackendIds.remove(backend.getId());
             }
           }
         }
+        dispatch();
         logger.info("Heartbeats checked");
       } finally {
         dispatcherLock.unlock();
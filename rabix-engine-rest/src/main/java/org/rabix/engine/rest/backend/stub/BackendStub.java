@@ -1,6 +1,6 @@
 package org.rabix.engine.rest.backend.stub;
 
-import java.util.Map;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -34,7 +34,14 @@ public abstract class BackendStub<Q extends TransportQueue, B extends Backend, T
 
   private ExecutorService executorService = Executors.newFixedThreadPool(2);
   
-  public void start(final Map<String, Long> heartbeatInfo) {
+  /**
+   * Callback for heartbeats received from the backend
+   */
+  public static interface HeartbeatCallback {
+    void onHeartbeat(HeartbeatInfo heartbeatInfo);
+  }
+
+  public void start(final HeartbeatCallback heartbeatCallback) {
     transportPlugin.startReceiver(receiveFromBackendQueue, Job.class, new ReceiveCallback<Job>() {
       @Override
       public void handleReceive(Job job) throws TransportPluginException {
@@ -56,7 +63,7 @@ public abstract class BackendStub<Q extends TransportQueue, B extends Backend, T
           @Override
           public void handleReceive(HeartbeatInfo entity) throws TransportPluginException {
             logger.debug("Got heartbeat info from {}", entity.getId());
-            heartbeatInfo.put(entity.getId(), entity.getTimestamp());
+            heartbeatCallback.onHeartbeat(entity);
           }
         }, new ErrorCallback() {
           @Override
@@ -74,6 +81,13 @@ public abstract class BackendStub<Q extends TransportQueue, B extends Backend, T
     this.transportPlugin.send(sendToBackendQueue, job);
   }
 
+  /**
+   * Sends Jobs to the backend at once
+   */
+  public void send(List<Job> jobs) {
+    this.transportPlugin.sendBatch(sendToBackendQueue, jobs);
+  }
+
   public Backend getBackend() {
     return backend;
   }
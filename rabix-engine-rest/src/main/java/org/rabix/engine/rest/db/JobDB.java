@@ -1,43 +1,248 @@
 package org.rabix.engine.rest.db;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
+import org.apache.commons.configuration.Configuration;
 import org.rabix.bindings.model.Job;
+import org.rabix.bindings.model.Job.JobStatus;
 
+import com.google.common.util.concurrent.Striped;
+import com.google.inject.Inject;
+
+/**
+ * Keeps Jobs indexed by root ID and status. Writes of one root are serialized by a striped lock, reads don't lock.
+ * Finished root Jobs are evicted together with their children after the retention time or once there are too many of them.
+ */
 public class JobDB {
 
-  private Map<String, Job> jobs = new HashMap<>();
-  
-  public synchronized void add(Job job) {
-    jobs.put(job.getId(), job);
+  private final static int LOCK_STRIPES = 64;
+
+  private final static long DEFAULT_RETENTION_SECONDS = TimeUnit.HOURS.toSeconds(1);
+  private final static int DEFAULT_MAX_FINISHED_ROOTS = 1000;
+
+  private final ConcurrentMap<String, JobEntry> jobs = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, Set<String>> rootIndex = new ConcurrentHashMap<>();
+
+  private final ConcurrentNavigableMap<Long, String> order = new ConcurrentSkipListMap<>();
+  private final Map<JobStatus, ConcurrentNavigableMap<Long, String>> statusIndex = new EnumMap<>(JobStatus.class);
+
+  private final Queue<FinishedRoot> finishedRoots = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger finishedRootCount = new AtomicInteger();
+
+  private final AtomicLong sequence = new AtomicLong();
+  private final Striped<Lock> locks = Striped.lock(LOCK_STRIPES);
+  private final Lock evictionLock = new ReentrantLock();
+
+  private final long retentionMillis;
+  private final int maxFinishedRoots;
+
+  @Inject
+  public JobDB(Configuration configuration) {
+    this.retentionMillis = TimeUnit.SECONDS.toMillis(configuration.getLong("engine.job_db.retention_seconds", DEFAULT_RETENTION_SECONDS));
+    this.maxFinishedRoots = configuration.getInt("engine.job_db.max_finished_roots", DEFAULT_MAX_FINISHED_ROOTS);
+
+    for (JobStatus status : JobStatus.values()) {
+      statusIndex.put(status, new ConcurrentSkipListMap<Long, String>());
+    }
+  }
+
+  public void add(Job job) {
+    update(job);
   }
-  
-  public synchronized void update(Job job) {
-    jobs.put(job.getId(), job);
+
+  public void update(Job job) {
+    Lock lock = locks.get(job.getRootId());
+    lock.lock();
+    try {
+      JobEntry entry = jobs.get(job.getId());
+      if (entry == null) {
+        entry = new JobEntry(sequence.incrementAndGet(), job);
+        jobs.put(job.getId(), entry);
+        order.put(entry.sequence, job.getId());
+        getRootJobIds(job.getRootId()).add(job.getId());
+      } else {
+        JobStatus previous = entry.job.getStatus();
+        if (previous != null && !previous.equals(job.getStatus())) {
+          statusIndex.get(previous).remove(entry.sequence);
+        }
+        entry.job = job;
+      }
+      if (job.getStatus() != null) {
+        statusIndex.get(job.getStatus()).put(entry.sequence, job.getId());
+      }
+      if (job.isRoot() && Job.isFinished(job) && !entry.finished) {
+        entry.finished = true;
+        finishedRoots.add(new FinishedRoot(job.getRootId(), System.currentTimeMillis()));
+        finishedRootCount.incrementAndGet();
+      }
+    } finally {
+      lock.unlock();
+    }
+    evict();
   }
-  
-  public synchronized Job get(String id) {
-    return jobs.get(id);
+
+  public Job get(String id) {
+    JobEntry entry = jobs.get(id);
+    return entry != null ? entry.job : null;
   }
-  
-  public synchronized Set<Job> getJobs() {
+
+  public Set<Job> getJobs(String rootId) {
+    Set<String> ids = rootIndex.get(rootId);
+    if (ids == null) {
+      return Collections.emptySet();
+    }
     Set<Job> jobSet = new HashSet<>();
-    for (Job job : jobs.values()) {
-      jobSet.add(job);
+    for (String id : ids) {
+      JobEntry entry = jobs.get(id);
+      if (entry != null) {
+        jobSet.add(entry.job);
+      }
     }
     return jobSet;
   }
-  
-  public synchronized Set<Job> getJobs(String rootId) {
-    Set<Job> jobSet = new HashSet<>();
-    for (Job job : jobs.values()) {
-      if (job.getRootId().equals(rootId)) {
-        jobSet.add(job);
+
+  /**
+   * Returns at most limit Jobs in order of creation, starting after the cursor. Status is optional.
+   */
+  public Page getJobs(String cursor, int limit, JobStatus status) {
+    NavigableMap<Long, String> index = status != null ? statusIndex.get(status) : order;
+    if (cursor != null) {
+      try {
+        index = index.tailMap(Long.parseLong(cursor), false);
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Invalid cursor " + cursor);
       }
     }
-    return jobSet;
+
+    List<Job> jobList = new ArrayList<>();
+    Long last = null;
+    boolean hasMore = false;
+    for (Map.Entry<Long, String> indexEntry : index.entrySet()) {
+      JobEntry entry = jobs.get(indexEntry.getValue());
+      if (entry == null || (status != null && !status.equals(entry.job.getStatus()))) {
+        continue;
+      }
+      if (jobList.size() == limit) {
+        hasMore = true;
+        break;
+      }
+      jobList.add(entry.job);
+      last = indexEntry.getKey();
+    }
+    return new Page(jobList, hasMore ? String.valueOf(last) : null);
   }
+
+  private Set<String> getRootJobIds(String rootId) {
+    Set<String> ids = rootIndex.get(rootId);
+    if (ids == null) {
+      ids = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+      rootIndex.put(rootId, ids);
+    }
+    return ids;
+  }
+
+  /**
+   * Removes finished roots older than the retention time and the oldest ones above the limit
+   */
+  private void evict() {
+    if (finishedRoots.isEmpty() || !evictionLock.tryLock()) {
+      return;
+    }
+    try {
+      long threshold = System.currentTimeMillis() - retentionMillis;
+
+      FinishedRoot root = null;
+      while ((root = finishedRoots.peek()) != null && (root.time < threshold || finishedRootCount.get() > maxFinishedRoots)) {
+        finishedRoots.poll();
+        finishedRootCount.decrementAndGet();
+        remove(root.rootId);
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  private void remove(String rootId) {
+    Lock lock = locks.get(rootId);
+    lock.lock();
+    try {
+      Set<String> ids = rootIndex.remove(rootId);
+      if (ids == null) {
+        return;
+      }
+      for (String id : ids) {
+        JobEntry entry = jobs.remove(id);
+        if (entry == null) {
+          continue;
+        }
+        order.remove(entry.sequence);
+        if (entry.job.getStatus() != null) {
+          statusIndex.get(entry.job.getStatus()).remove(entry.sequence);
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Page of Jobs with the cursor of the next page. Cursor is null if there are no more Jobs.
+   */
+  public static class Page {
+    private final List<Job> jobs;
+    private final String nextCursor;
+
+    public Page(List<Job> jobs, String nextCursor) {
+      this.jobs = jobs;
+      this.nextCursor = nextCursor;
+    }
+
+    public List<Job> getJobs() {
+      return jobs;
+    }
+
+    public String getNextCursor() {
+      return nextCursor;
+    }
+  }
+
+  private static class JobEntry {
+    private final long sequence;
+    private volatile Job job;
+    private boolean finished;
+
+    private JobEntry(long sequence, Job job) {
+      this.sequence = sequence;
+      this.job = job;
+    }
+  }
+
+  private static class FinishedRoot {
+    private final String rootId;
+    private final long time;
+
+    private FinishedRoot(String rootId, long time) {
+      this.rootId = rootId;
+      this.time = time;
+    }
+  }
+
 }
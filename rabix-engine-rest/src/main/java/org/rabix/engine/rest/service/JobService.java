@@ -4,7 +4,9 @@ import java.util.Map;
 import java.util.Set;
 
 import org.rabix.bindings.model.Job;
+import org.rabix.bindings.model.Job.JobStatus;
 import org.rabix.engine.processor.EventProcessor;
+import org.rabix.engine.rest.db.JobDB.Page;
 
 public interface JobService {
 
@@ -16,7 +18,7 @@ public interface JobService {
   
   void stop(String id) throws JobServiceException;
   
-  Set<Job> get();
+  Page get(String cursor, int limit, JobStatus status);
   
   Job get(String id);
 
@@ -27,6 +27,7 @@ import org.rabix.engine.processor.EventProcessor;
 import org.rabix.engine.processor.handler.EventHandlerException;
 import org.rabix.engine.rest.backend.BackendDispatcher;
 import org.rabix.engine.rest.db.JobDB;
+import org.rabix.engine.rest.db.JobDB.Page;
 import org.rabix.engine.rest.service.JobService;
 import org.rabix.engine.rest.service.JobServiceException;
 import org.rabix.engine.service.ContextRecordService;
@@ -85,6 +86,9 @@ public class JobServiceImpl implements JobService {
   public void update(Job job) throws JobServiceException {
     logger.debug("Update Job {}", job.getId());
     
+    if (Job.isFinished(job) && !job.isRoot()) {
+      backendDispatcher.remove(job);
+    }
     JobRecord jobRecord = jobRecordService.find(job.getName(), job.getRootId());
     try {
       JobStatusEvent statusEvent = null;
@@ -145,6 +149,7 @@ public class JobServiceImpl implements JobService {
       jobDB.add(job);
 
       InitEvent initEvent = new InitEvent(job.getConfig(), job.getRootId(), node, job.getInputs());
+      backendDispatcher.prefetch(job, node);
       eventProcessor.send(initEvent);
       return job;
     } catch (EventHandlerException e) {
@@ -174,8 +179,8 @@ public class JobServiceImpl implements JobService {
   }
   
   @Override
-  public Set<Job> get() {
-    return jobDB.getJobs();
+  public Page get(String cursor, int limit, JobStatus status) {
+    return jobDB.getJobs(cursor, limit, status);
   }
 
   @Override
@@ -295,6 +300,8 @@ public class JobServiceImpl implements JobService {
       job = Job.cloneWithStatus(job, JobStatus.COMPLETED);
       job = JobHelper.fillOutputs(job, jobRecordService, variableRecordService);
       jobDB.update(job);
+      
+      backendDispatcher.remove(job);
       logger.info("Root Job {} completed. Successfull {}.", job.getId(), successCount.incrementAndGet());
     }
 
@@ -2,7 +2,10 @@ package org.rabix.engine.db;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+import org.rabix.bindings.helper.URIHelper;
 import org.rabix.bindings.model.dag.DAGContainer;
 import org.rabix.bindings.model.dag.DAGNode;
 
@@ -12,9 +15,11 @@ import org.rabix.bindings.model.dag.DAGNode;
 public class DAGNodeDB {
 
   private final Map<String, Map<String, DAGNode>> nodes;
+  private final ConcurrentMap<String, ConcurrentMap<String, String>> encodedApps;
   
   public DAGNodeDB() {
     this.nodes = new HashMap<>();
+    this.encodedApps = new ConcurrentHashMap<>();
   }
   
   /**
@@ -25,6 +30,29 @@ public class DAGNodeDB {
     return contextNodes == null ? null : contextNodes.get(id);
   }
   
+  /**
+   * Gets node's application encoded as data URI. The application is encoded only once per node and context.
+   */
+  public String getEncodedApp(DAGNode node, String contextId) {
+    ConcurrentMap<String, String> contextApps = encodedApps.get(contextId);
+    if (contextApps == null) {
+      contextApps = new ConcurrentHashMap<>();
+      ConcurrentMap<String, String> existing = encodedApps.putIfAbsent(contextId, contextApps);
+      if (existing != null) {
+        contextApps = existing;
+      }
+    }
+    String encodedApp = contextApps.get(node.getId());
+    if (encodedApp == null) {
+      encodedApp = URIHelper.createDataURI(node.getApp().serialize());
+      String existing = contextApps.putIfAbsent(node.getId(), encodedApp);
+      if (existing != null) {
+        encodedApp = existing;
+      }
+    }
+    return encodedApp;
+  }
+  
   /**
    * Loads node into the repository recursively
    */
@@ -53,6 +81,11 @@ public class DAGNodeDB {
       nodes.put(contextId, contextNodes);
     }
     contextNodes.put(node.getId(), node);
+
+    ConcurrentMap<String, String> contextApps = encodedApps.get(contextId);
+    if (contextApps != null) {
+      contextApps.remove(node.getId());
+    }
   }
   
 }
@@ -1,6 +1,10 @@
 package org.rabix.engine.processor.impl;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -33,7 +37,7 @@ public class EventProcessorImpl implements EventProcessor {
 
   private static final Logger logger = LoggerFactory.getLogger(EventProcessorImpl.class);
   
-  public final static long SLEEP = 100;
+  public final static int BATCH_SIZE = 1000;
   
   private final BlockingQueue<Event> events = new LinkedBlockingQueue<>();
   private final ExecutorService executorService = Executors.newSingleThreadExecutor();
@@ -56,53 +60,95 @@ public class EventProcessorImpl implements EventProcessor {
   }
 
   public void start(final List<IterationCallback> iterationCallbacks, EngineStatusCallback engineStatusCallback) {
-    this.handlerFactory.initialize(engineStatusCallback);
+    initialize(engineStatusCallback);
     
     executorService.execute(new Runnable() {
       @Override
       public void run() {
-        Event event = null;
+        List<Event> batch = new ArrayList<>(BATCH_SIZE);
+        Map<String, Integer> processed = new LinkedHashMap<>();
         while (!stop.get()) {
           try {
-            event = events.poll();
-            if (event == null) {
+            Event first = events.poll();
+            if (first == null) {
               running.set(false);
-              Thread.sleep(SLEEP);
-              continue;
-            }
-            ContextRecord context = contextRecordService.find(event.getContextId());
-            if (context != null && context.getStatus().equals(ContextStatus.FAILED)) {
-              logger.info("Skip event {}. Context {} has been invalidated.", event, context.getId());
-              continue;
+              first = events.take();
             }
             running.set(true);
-            handlerFactory.get(event.getType()).handle(event);
+            batch.add(first);
+            events.drainTo(batch, BATCH_SIZE - 1);
 
-            Integer iteration = iterations.get(event.getContextId());
-            if (iteration == null) {
-              iteration = 0;
+            for (Event event : batch) {
+              if (process(event, EventProcessorImpl.this)) {
+                Integer iteration = iterations.get(event.getContextId());
+                iteration = iteration == null ? 1 : iteration + 1;
+                iterations.put(event.getContextId(), iteration);
+                processed.put(event.getContextId(), iteration);
+              }
             }
-            
-            iteration++;
             if (iterationCallbacks != null) {
-              for (IterationCallback callback : iterationCallbacks) {
-                callback.call(EventProcessorImpl.this, event.getContextId(), iteration);
+              for (Entry<String, Integer> contextIteration : processed.entrySet()) {
+                callIterationCallbacks(EventProcessorImpl.this, iterationCallbacks, contextIteration.getKey(), contextIteration.getValue());
               }
             }
-            iterations.put(event.getContextId(), iteration);
-          } catch (Exception e) {
-            logger.error("EventProcessor failed to process event {}.", event, e);
-            try {
-              invalidateContext(event.getContextId());
-            } catch (EventHandlerException ehe) {
-              logger.error("Failed to invalidate Context {}.", event.getContextId(), ehe);
-              stop();
-            }
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            break;
+          } finally {
+            batch.clear();
+            processed.clear();
           }
         }
+        running.set(false);
       }
     });
   }
+
+  void initialize(EngineStatusCallback engineStatusCallback) {
+    this.handlerFactory.initialize(engineStatusCallback);
+  }
+
+  /**
+   * Handles one event on behalf of the owning processor. Returns false if the event was skipped or failed.
+   */
+  boolean process(Event event, EventProcessor owner) {
+    try {
+      ContextRecord context = contextRecordService.find(event.getContextId());
+      if (context != null && context.getStatus().equals(ContextStatus.FAILED)) {
+        logger.info("Skip event {}. Context {} has been invalidated.", event, context.getId());
+        return false;
+      }
+      handlerFactory.get(event.getType()).handle(event);
+      return true;
+    } catch (Exception e) {
+      logger.error("EventProcessor failed to process event {}.", event, e);
+      invalidateContextOrStop(event.getContextId(), owner);
+      return false;
+    }
+  }
+
+  /**
+   * Calls iteration callbacks once for all events of one context processed in the current batch
+   */
+  void callIterationCallbacks(EventProcessor owner, List<IterationCallback> iterationCallbacks, String contextId, int iteration) {
+    try {
+      for (IterationCallback callback : iterationCallbacks) {
+        callback.call(owner, contextId, iteration);
+      }
+    } catch (Exception e) {
+      logger.error("EventProcessor failed to execute iteration callbacks for Context {}.", contextId, e);
+      invalidateContextOrStop(contextId, owner);
+    }
+  }
+
+  private void invalidateContextOrStop(String contextId, EventProcessor owner) {
+    try {
+      invalidateContext(contextId);
+    } catch (EventHandlerException ehe) {
+      logger.error("Failed to invalidate Context {}.", contextId, ehe);
+      owner.stop();
+    }
+  }
   
   /**
    * Invalidates context 
@@ -115,6 +161,7 @@ public class EventProcessorImpl implements EventProcessor {
   public void stop() {
     stop.set(true);
     running.set(false);
+    executorService.shutdownNow();
   }
 
   public boolean isRunning() {
@@ -1,81 +1,252 @@
 package org.rabix.engine.processor.impl;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.configuration.Configuration;
 import org.rabix.engine.event.Event;
+import org.rabix.engine.event.Event.EventType;
 import org.rabix.engine.processor.EventProcessor;
+import org.rabix.engine.processor.dispatcher.EventDispatcher;
+import org.rabix.engine.processor.dispatcher.EventDispatcherFactory;
 import org.rabix.engine.processor.handler.EventHandlerException;
 import org.rabix.engine.status.EngineStatusCallback;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.inject.Inject;
-import com.google.inject.Provider;
 
+/**
+ * Event processor that keeps one mailbox per context (root Job) and runs mailboxes on a shared work-stealing pool.
+ * Events of one context are handled strictly in order, by one worker at a time, while idle workers take whole contexts from busy ones.
+ */
 public class MultiEventProcessorImpl implements EventProcessor {
 
   private final static Logger logger = LoggerFactory.getLogger(MultiEventProcessorImpl.class);
-  
-  private int eventProcessorCount;
-  
-  private final ConcurrentMap<Integer, EventProcessorImpl> eventProcessors;
 
+  private final int eventProcessorCount;
+  private final int metricsInterval;
+
+  private final EventProcessorImpl eventProcessor;
+  private final EventDispatcher eventDispatcher;
+
+  private final ConcurrentMap<String, ContextMailbox> mailboxes = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, Integer> iterations = new ConcurrentHashMap<>();
+  private final ConcurrentMap<Integer, AtomicLong> processedPerWorker = new ConcurrentHashMap<>();
+
+  private volatile List<IterationCallback> iterationCallbacks;
+
+  private ForkJoinPool pool;
+  private ScheduledExecutorService metricsReporter;
+
+  private final AtomicBoolean stop = new AtomicBoolean(false);
   private volatile boolean isRunning = false;
-  
+
   @Inject
-  public MultiEventProcessorImpl(Provider<EventProcessorImpl> singleEventProcessorProvider, Configuration configuration) {
+  public MultiEventProcessorImpl(EventProcessorImpl eventProcessor, EventDispatcherFactory eventDispatcherFactory, Configuration configuration) {
+    this.eventProcessor = eventProcessor;
+    this.eventDispatcher = eventDispatcherFactory.create(EventDispatcher.Type.SYNC);
     this.eventProcessorCount = configuration.getInt("bunny.event_processor.count", Runtime.getRuntime().availableProcessors());
-    this.eventProcessors = new ConcurrentHashMap<>(eventProcessorCount);
-    for (int i = 0; i < eventProcessorCount; i++) {
-      this.eventProcessors.put(i, singleEventProcessorProvider.get());
-    }
+    this.metricsInterval = configuration.getInt("bunny.event_processor.metrics_interval", 0);
   }
 
   @Override
-  public void start(List<IterationCallback> iterationCallbacks, EngineStatusCallback engineStatusCallback) {
-    for (EventProcessorImpl singleEventProcessor : eventProcessors.values()) {
-      singleEventProcessor.start(iterationCallbacks, engineStatusCallback);
+  public synchronized void start(List<IterationCallback> iterationCallbacks, EngineStatusCallback engineStatusCallback) {
+    this.eventProcessor.initialize(engineStatusCallback);
+    this.iterationCallbacks = iterationCallbacks;
+    this.pool = new ForkJoinPool(eventProcessorCount, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+
+    if (metricsInterval > 0) {
+      metricsReporter = Executors.newSingleThreadScheduledExecutor();
+      metricsReporter.scheduleAtFixedRate(new Runnable() {
+        @Override
+        public void run() {
+          logger.info("EventProcessor queue depths {}, processed events per worker {}, steals {}.", getQueueDepths(), getProcessedEventCounts(), pool.getStealCount());
+        }
+      }, metricsInterval, metricsInterval, TimeUnit.SECONDS);
     }
     this.isRunning = true;
+
+    for (ContextMailbox mailbox : mailboxes.values()) {
+      mailbox.schedule();
+    }
   }
 
   @Override
-  public void stop() {
-    for (EventProcessorImpl eventProcessor : eventProcessors.values()) {
-      eventProcessor.stop();
+  public synchronized void stop() {
+    stop.set(true);
+    if (pool != null) {
+      pool.shutdownNow();
+    }
+    if (metricsReporter != null) {
+      metricsReporter.shutdownNow();
     }
     this.isRunning = false;
   }
 
   @Override
   public void send(Event event) throws EventHandlerException {
-    getEventProcessor(event.getContextId()).send(event);
+    if (stop.get()) {
+      return;
+    }
+    if (event.getType().equals(EventType.INIT)) {
+      addToQueue(event);
+      return;
+    }
+    eventDispatcher.send(event);
   }
 
   @Override
   public void addToQueue(Event event) {
-    getEventProcessor(event.getContextId()).addToQueue(event);
+    if (stop.get()) {
+      return;
+    }
+    while (!getMailbox(event.getContextId()).offer(event)) {
+      // mailbox has just been retired, the next call creates a fresh one
+    }
   }
-  
+
   @Override
   public boolean isRunning() {
     return isRunning;
   }
 
   /**
-   * Gets {@link EventProcessor} based on Root ID
-   * TODO: discuss load balancing algorithm 
-   * 
-   * @param rootId  Root ID
-   * @return        EventProcessor instance
+   * Number of pending events per context
+   */
+  public Map<String, Integer> getQueueDepths() {
+    Map<String, Integer> depths = new HashMap<>();
+    for (ContextMailbox mailbox : mailboxes.values()) {
+      depths.put(mailbox.contextId, mailbox.size.get());
+    }
+    return depths;
+  }
+
+  /**
+   * Number of processed events per pool worker
+   */
+  public Map<Integer, Long> getProcessedEventCounts() {
+    Map<Integer, Long> counts = new HashMap<>();
+    for (Map.Entry<Integer, AtomicLong> entry : processedPerWorker.entrySet()) {
+      counts.put(entry.getKey(), entry.getValue().get());
+    }
+    return counts;
+  }
+
+  private ContextMailbox getMailbox(String contextId) {
+    ContextMailbox mailbox = mailboxes.get(contextId);
+    if (mailbox == null) {
+      mailbox = new ContextMailbox(contextId);
+      ContextMailbox existing = mailboxes.putIfAbsent(contextId, mailbox);
+      if (existing != null) {
+        mailbox = existing;
+      }
+    }
+    return mailbox;
+  }
+
+  private void countProcessed(int count) {
+    Thread thread = Thread.currentThread();
+    int worker = thread instanceof ForkJoinWorkerThread ? ((ForkJoinWorkerThread) thread).getPoolIndex() : -1;
+
+    AtomicLong counter = processedPerWorker.get(worker);
+    if (counter == null) {
+      counter = new AtomicLong();
+      AtomicLong existing = processedPerWorker.putIfAbsent(worker, counter);
+      if (existing != null) {
+        counter = existing;
+      }
+    }
+    counter.addAndGet(count);
+  }
+
+  /**
+   * Pending events of one context. At most one pool task runs a mailbox at any time.
+   * An empty mailbox retires itself so finished contexts don't stay in memory.
    */
-  private EventProcessor getEventProcessor(String rootId) {
-    int index = Math.abs(rootId.hashCode() % eventProcessorCount);
-    logger.debug("Root Job {} goes to EventProcessor {}", rootId, index);
-    return eventProcessors.get(index);
+  private class ContextMailbox implements Runnable {
+
+    private final String contextId;
+    private final Queue<Event> events = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+    private boolean retired = false;
+
+    private ContextMailbox(String contextId) {
+      this.contextId = contextId;
+    }
+
+    private boolean offer(Event event) {
+      synchronized (this) {
+        if (retired) {
+          return false;
+        }
+        events.add(event);
+        size.incrementAndGet();
+      }
+      schedule();
+      return true;
+    }
+
+    private void schedule() {
+      if (isRunning && scheduled.compareAndSet(false, true)) {
+        pool.execute(this);
+      }
+    }
+
+    @Override
+    public void run() {
+      try {
+        int processed = 0;
+        Event event = null;
+        while (processed < EventProcessorImpl.BATCH_SIZE && !stop.get() && (event = events.poll()) != null) {
+          size.decrementAndGet();
+          processed++;
+          if (eventProcessor.process(event, MultiEventProcessorImpl.this)) {
+            Integer iteration = iterations.get(contextId);
+            iterations.put(contextId, iteration == null ? 1 : iteration + 1);
+          }
+        }
+        if (processed > 0) {
+          countProcessed(processed);
+          Integer iteration = iterations.get(contextId);
+          if (iterationCallbacks != null && iteration != null) {
+            eventProcessor.callIterationCallbacks(MultiEventProcessorImpl.this, iterationCallbacks, contextId, iteration);
+          }
+        }
+      } finally {
+        // retire and release the mailbox in one step, otherwise a task scheduled by offer() could run next to this one
+        boolean reschedule = false;
+        synchronized (this) {
+          if (events.isEmpty()) {
+            retired = true;
+            mailboxes.remove(contextId, this);
+            scheduled.set(false);
+          } else if (isRunning && !stop.get()) {
+            reschedule = true;
+          } else {
+            scheduled.set(false);
+          }
+        }
+        if (reschedule) {
+          pool.execute(this);
+        }
+      }
+    }
   }
-  
+
 }
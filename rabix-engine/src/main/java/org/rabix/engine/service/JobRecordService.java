@@ -1,7 +1,10 @@
 package org.rabix.engine.service;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -18,12 +21,12 @@ public class JobRecordService {
     FAILED
   }
 
-  private ConcurrentMap<String, List<JobRecord>> jobRecordsPerContext = new ConcurrentHashMap<String, List<JobRecord>>();
+  private ConcurrentMap<String, JobRecords> jobRecordsPerContext = new ConcurrentHashMap<String, JobRecords>();
 
   public static String generateUniqueId() {
     return UUID.randomUUID().toString();
   }
-  
+
   public void create(JobRecord jobRecord) {
     getJobRecords(jobRecord.getRootId()).add(jobRecord);
   }
@@ -31,73 +34,88 @@ public class JobRecordService {
   public void delete(String rootId) {
     jobRecordsPerContext.remove(rootId);
   }
-  
+
   public void update(JobRecord jobRecord) {
-    for (JobRecord jr : getJobRecords(jobRecord.getRootId())) {
-      if (jr.getId().equals(jobRecord.getId())) {
-        jr.setState(jobRecord.getState());
-        jr.setContainer(jobRecord.isContainer());
-        jr.setScattered(jobRecord.isScattered());
-        jr.setInputCounters(jobRecord.getInputCounters());
-        jr.setOutputCounters(jobRecord.getOutputCounters());
-        jr.setScatterWrapper(jobRecord.isScatterWrapper());
-        jr.setScatterStrategy(jobRecord.getScatterStrategy());
-        return;
-      }
+    JobRecord jr = getJobRecords(jobRecord.getRootId()).byId.get(jobRecord.getId());
+    if (jr == null) {
+      return;
     }
+    jr.setState(jobRecord.getState());
+    jr.setContainer(jobRecord.isContainer());
+    jr.setScattered(jobRecord.isScattered());
+    jr.setInputCounters(jobRecord.getInputCounters());
+    jr.setOutputCounters(jobRecord.getOutputCounters());
+    jr.setScatterWrapper(jobRecord.isScatterWrapper());
+    jr.setScatterStrategy(jobRecord.getScatterStrategy());
   }
-  
+
   public List<JobRecord> find(String contextId) {
-    return getJobRecords(contextId);
+    return getJobRecords(contextId).all;
   }
-  
+
   public List<JobRecord> findReady(String contextId) {
     List<JobRecord> result = new ArrayList<>();
-    
-    for (JobRecord jr : getJobRecords(contextId)) {
+
+    // states are changed on the records directly, so READY can't be indexed
+    for (JobRecord jr : getJobRecords(contextId).all) {
       if (jr.getState().equals(JobState.READY) && jr.getRootId().equals(contextId)) {
         result.add(jr);
       }
     }
     return result;
   }
-  
-  public List<JobRecord> findByParent(String parentId, String contextId) {
-    List<JobRecord> result = new ArrayList<>();
 
-    for (JobRecord jr : getJobRecords(contextId)) {
-      if (jr.getParentId() != null && jr.getParentId().equals(parentId)) {
-        result.add(jr);
-      }
-    }
-    return result;
+  public List<JobRecord> findByParent(String parentId, String contextId) {
+    List<JobRecord> children = getJobRecords(contextId).byParent.get(parentId);
+    return children != null ? new ArrayList<>(children) : Collections.<JobRecord> emptyList();
   }
-  
+
   public JobRecord find(String id, String contextId) {
-    for (JobRecord jr : getJobRecords(contextId)) {
-      if (jr.getId().equals(id) && jr.getRootId().equals(contextId)) {
-        return jr;
-      }
-    }
-    return null;
+    return getJobRecords(contextId).byId.get(id);
   }
-  
+
   public JobRecord findRoot(String contextId) {
-    for (JobRecord jr : getJobRecords(contextId)) {
-      if (jr.isMaster() && jr.getRootId().equals(contextId)) {
-        return jr;
+    return getJobRecords(contextId).root;
+  }
+
+  private JobRecords getJobRecords(String contextId) {
+    JobRecords jobRecords = jobRecordsPerContext.get(contextId);
+    if (jobRecords == null) {
+      jobRecords = new JobRecords();
+      JobRecords existing = jobRecordsPerContext.putIfAbsent(contextId, jobRecords);
+      if (existing != null) {
+        jobRecords = existing;
       }
     }
-    return null;
+    return jobRecords;
   }
-  
-  private List<JobRecord> getJobRecords(String contextId) {
-    List<JobRecord> jobRecordList = jobRecordsPerContext.get(contextId);
-    if (jobRecordList == null) {
-      jobRecordList = new ArrayList<>();
-      jobRecordsPerContext.put(contextId, jobRecordList);
+
+  /**
+   * Job records of one context indexed by ID and parent ID
+   */
+  private static class JobRecords {
+    private final List<JobRecord> all = new ArrayList<>();
+    private final Map<String, JobRecord> byId = new HashMap<>();
+    private final Map<String, List<JobRecord>> byParent = new HashMap<>();
+    private JobRecord root;
+
+    private void add(JobRecord jobRecord) {
+      all.add(jobRecord);
+      if (!byId.containsKey(jobRecord.getId())) {
+        byId.put(jobRecord.getId(), jobRecord);
+      }
+      if (jobRecord.getParentId() != null) {
+        List<JobRecord> children = byParent.get(jobRecord.getParentId());
+        if (children == null) {
+          children = new ArrayList<>();
+          byParent.put(jobRecord.getParentId(), children);
+        }
+        children.add(jobRecord);
+      }
+      if (root == null && jobRecord.isMaster()) {
+        root = jobRecord;
+      }
     }
-    return jobRecordList;
   }
-  
+
 }
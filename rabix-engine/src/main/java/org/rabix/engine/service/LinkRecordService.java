@@ -1,7 +1,10 @@
 package org.rabix.engine.service;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -10,7 +13,7 @@ import org.rabix.engine.model.LinkRecord;
 
 public class LinkRecordService {
 
-  private ConcurrentMap<String, List<LinkRecord>> linkRecordsPerContext = new ConcurrentHashMap<String, List<LinkRecord>>();
+  private ConcurrentMap<String, LinkRecords> linkRecordsPerContext = new ConcurrentHashMap<String, LinkRecords>();
 
   public void create(LinkRecord link) {
     getLinkRecords(link.getContextId()).add(link);
@@ -19,41 +22,29 @@ public class LinkRecordService {
   public void delete(String rootId) {
     linkRecordsPerContext.remove(rootId);
   }
-  
+
   public List<LinkRecord> findBySourceJobId(String jobId, String contextId) {
-    List<LinkRecord> result = new ArrayList<>();
-    for (LinkRecord lr : getLinkRecords(contextId)) {
-      if (lr.getSourceJobId().equals(jobId) && lr.getContextId().equals(contextId)) {
-        result.add(lr);
-      }
-    }
-    return result;
+    return new ArrayList<>(getLinkRecords(contextId).findBySourceJob(jobId));
   }
-  
+
   public List<LinkRecord> findBySourceAndSourceType(String jobId, LinkPortType varType, String contextId) {
     List<LinkRecord> result = new ArrayList<>();
-    for (LinkRecord lr : getLinkRecords(contextId)) {
-      if (lr.getSourceJobId().equals(jobId) && lr.getSourceVarType().equals(varType) && lr.getContextId().equals(contextId)) {
+    for (LinkRecord lr : getLinkRecords(contextId).findBySourceJob(jobId)) {
+      if (lr.getSourceVarType().equals(varType)) {
         result.add(lr);
       }
     }
     return result;
   }
-  
+
   public List<LinkRecord> findBySource(String jobId, String portId, String contextId) {
-    List<LinkRecord> result = new ArrayList<>();
-    for (LinkRecord lr : getLinkRecords(contextId)) {
-      if (lr.getSourceJobId().equals(jobId) && lr.getSourceJobPort().equals(portId) && lr.getContextId().equals(contextId)) {
-        result.add(lr);
-      }
-    }
-    return result;
+    return new ArrayList<>(getLinkRecords(contextId).findBySourcePort(jobId, portId));
   }
-  
+
   public List<LinkRecord> findBySourceAndDestinationType(String jobId, String portId, LinkPortType varType, String contextId) {
     List<LinkRecord> result = new ArrayList<>();
-    for (LinkRecord lr : getLinkRecords(contextId)) {
-      if (lr.getSourceJobId().equals(jobId) && lr.getSourceJobPort().equals(portId) && lr.getDestinationVarType().equals(varType) && lr.getContextId().equals(contextId)) {
+    for (LinkRecord lr : getLinkRecords(contextId).findBySourcePort(jobId, portId)) {
+      if (lr.getDestinationVarType().equals(varType)) {
         result.add(lr);
       }
     }
@@ -61,16 +52,98 @@ public class LinkRecordService {
   }
 
   public List<LinkRecord> find(String contextId) {
-    return getLinkRecords(contextId);
+    return getLinkRecords(contextId).all;
   }
-  
-  private List<LinkRecord> getLinkRecords(String contextId) {
-    List<LinkRecord> linkList = linkRecordsPerContext.get(contextId);
-    if (linkList == null) {
-      linkList = new ArrayList<>();
-      linkRecordsPerContext.put(contextId, linkList);
+
+  private LinkRecords getLinkRecords(String contextId) {
+    LinkRecords linkRecords = linkRecordsPerContext.get(contextId);
+    if (linkRecords == null) {
+      linkRecords = new LinkRecords();
+      LinkRecords existing = linkRecordsPerContext.putIfAbsent(contextId, linkRecords);
+      if (existing != null) {
+        linkRecords = existing;
+      }
     }
-    return linkList;
+    return linkRecords;
   }
-  
+
+  /**
+   * Link records of one context indexed by source job ID and (source job ID, source port ID)
+   */
+  private static class LinkRecords {
+    private final List<LinkRecord> all = new ArrayList<>();
+    private final Map<String, List<LinkRecord>> bySourceJob = new HashMap<>();
+    private final Map<SourceKey, List<LinkRecord>> bySourcePort = new HashMap<>();
+
+    private void add(LinkRecord link) {
+      all.add(link);
+
+      List<LinkRecord> sourceJobLinks = bySourceJob.get(link.getSourceJobId());
+      if (sourceJobLinks == null) {
+        sourceJobLinks = new ArrayList<>();
+        bySourceJob.put(link.getSourceJobId(), sourceJobLinks);
+      }
+      sourceJobLinks.add(link);
+
+      SourceKey key = new SourceKey(link.getSourceJobId(), link.getSourceJobPort());
+      List<LinkRecord> sourcePortLinks = bySourcePort.get(key);
+      if (sourcePortLinks == null) {
+        sourcePortLinks = new ArrayList<>();
+        bySourcePort.put(key, sourcePortLinks);
+      }
+      sourcePortLinks.add(link);
+    }
+
+    private List<LinkRecord> findBySourceJob(String jobId) {
+      List<LinkRecord> links = bySourceJob.get(jobId);
+      return links != null ? links : Collections.<LinkRecord> emptyList();
+    }
+
+    private List<LinkRecord> findBySourcePort(String jobId, String portId) {
+      List<LinkRecord> links = bySourcePort.get(new SourceKey(jobId, portId));
+      return links != null ? links : Collections.<LinkRecord> emptyList();
+    }
+  }
+
+  private static class SourceKey {
+    private final String jobId;
+    private final String portId;
+
+    private SourceKey(String jobId, String portId) {
+      this.jobId = jobId;
+      this.portId = portId;
+    }
+
+    @Override
+    public int hashCode() {
+      final int prime = 31;
+      int result = 1;
+      result = prime * result + ((jobId == null) ? 0 : jobId.hashCode());
+      result = prime * result + ((portId == null) ? 0 : portId.hashCode());
+      return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj)
+        return true;
+      if (obj == null)
+        return false;
+      if (getClass() != obj.getClass())
+        return false;
+      SourceKey other = (SourceKey) obj;
+      if (jobId == null) {
+        if (other.jobId != null)
+          return false;
+      } else if (!jobId.equals(other.jobId))
+        return false;
+      if (portId == null) {
+        if (other.portId != null)
+          return false;
+      } else if (!portId.equals(other.portId))
+        return false;
+      return true;
+    }
+  }
+
 }
@@ -1,7 +1,10 @@
 package org.rabix.engine.service;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -10,39 +13,37 @@ import org.rabix.engine.model.VariableRecord;
 
 public class VariableRecordService {
 
-  private ConcurrentMap<String, List<VariableRecord>> variableRecordsPerContext = new ConcurrentHashMap<String, List<VariableRecord>>();
+  private ConcurrentMap<String, VariableRecords> variableRecordsPerContext = new ConcurrentHashMap<String, VariableRecords>();
 
   public void create(VariableRecord variableRecord) {
-    getVariableRecords(variableRecord.getContextId()).add(variableRecord);
+    getIndex(variableRecord.getContextId()).add(variableRecord);
   }
-  
+
   public void delete(String rootId) {
     variableRecordsPerContext.remove(rootId);
   }
 
   public void update(VariableRecord variableRecord) {
-    for (VariableRecord vr : getVariableRecords(variableRecord.getContextId())) {
-      if (vr.getJobId().equals(variableRecord.getJobId()) && vr.getPortId().equals(variableRecord.getPortId()) && vr.getType().equals(variableRecord.getType()) && vr.getContextId().equals(variableRecord.getContextId())) {
-        vr.setValue(variableRecord.getValue());
-        return;
-      }
+    VariableRecord vr = find(variableRecord.getJobId(), variableRecord.getPortId(), variableRecord.getType(), variableRecord.getContextId());
+    if (vr != null) {
+      vr.setValue(variableRecord.getValue());
     }
   }
-  
+
   public List<VariableRecord> find(String jobId, LinkPortType type, String contextId) {
     List<VariableRecord> result = new ArrayList<>();
-    for (VariableRecord vr : getVariableRecords(contextId)) {
-      if (vr.getJobId().equals(jobId) && vr.getType().equals(type) && vr.getContextId().equals(contextId)) {
+    for (VariableRecord vr : getIndex(contextId).findByJob(jobId)) {
+      if (vr.getType().equals(type)) {
         result.add(vr);
       }
     }
     return result;
   }
-  
+
   public List<VariableRecord> find(String jobId, String portId, String contextId) {
     List<VariableRecord> result = new ArrayList<>();
-    for (VariableRecord vr : getVariableRecords(contextId)) {
-      if (vr.getJobId().equals(jobId) && vr.getPortId().equals(portId) && vr.getContextId().equals(contextId)) {
+    for (VariableRecord vr : getIndex(contextId).findByJob(jobId)) {
+      if (vr.getPortId().equals(portId)) {
         result.add(vr);
       }
     }
@@ -50,35 +51,107 @@ public class VariableRecordService {
   }
 
   public VariableRecord find(String jobId, String portId, LinkPortType type, String contextId) {
-    for (VariableRecord vr : getVariableRecords(contextId)) {
-      if (vr.getJobId().equals(jobId) && vr.getPortId().equals(portId) && vr.getType().equals(type) && vr.getContextId().equals(contextId)) {
-        return vr;
-      }
-    }
-    return null;
+    return getIndex(contextId).byPort.get(new PortKey(jobId, portId, type));
   }
 
   public List<VariableRecord> findByJobId(String jobId, LinkPortType type, String contextId) {
-    List<VariableRecord> result = new ArrayList<>();
-    for (VariableRecord vr : getVariableRecords(contextId)) {
-      if (vr.getJobId().equals(jobId) && vr.getType().equals(type) && vr.getContextId().equals(contextId)) {
-        result.add(vr);
-      }
-    }
-    return result;
+    return find(jobId, type, contextId);
   }
 
   public List<VariableRecord> find(String contextId) {
     return getVariableRecords(contextId);
   }
-  
+
   public List<VariableRecord> getVariableRecords(String contextId) {
-    List<VariableRecord> variableList = variableRecordsPerContext.get(contextId);
-    if (variableList == null) {
-      variableList = new ArrayList<>();
-      variableRecordsPerContext.put(contextId, variableList);
+    return getIndex(contextId).all;
+  }
+
+  private VariableRecords getIndex(String contextId) {
+    VariableRecords variableRecords = variableRecordsPerContext.get(contextId);
+    if (variableRecords == null) {
+      variableRecords = new VariableRecords();
+      VariableRecords existing = variableRecordsPerContext.putIfAbsent(contextId, variableRecords);
+      if (existing != null) {
+        variableRecords = existing;
+      }
+    }
+    return variableRecords;
+  }
+
+  /**
+   * Variable records of one context indexed by job ID and (job ID, port ID, type)
+   */
+  private static class VariableRecords {
+    private final List<VariableRecord> all = new ArrayList<>();
+    private final Map<String, List<VariableRecord>> byJob = new HashMap<>();
+    private final Map<PortKey, VariableRecord> byPort = new HashMap<>();
+
+    private void add(VariableRecord variableRecord) {
+      all.add(variableRecord);
+
+      List<VariableRecord> jobVariables = byJob.get(variableRecord.getJobId());
+      if (jobVariables == null) {
+        jobVariables = new ArrayList<>();
+        byJob.put(variableRecord.getJobId(), jobVariables);
+      }
+      jobVariables.add(variableRecord);
+
+      PortKey key = new PortKey(variableRecord.getJobId(), variableRecord.getPortId(), variableRecord.getType());
+      if (!byPort.containsKey(key)) {
+        byPort.put(key, variableRecord);
+      }
+    }
+
+    private List<VariableRecord> findByJob(String jobId) {
+      List<VariableRecord> jobVariables = byJob.get(jobId);
+      return jobVariables != null ? jobVariables : Collections.<VariableRecord> emptyList();
     }
-    return variableList;
   }
-  
+
+  private static class PortKey {
+    private final String jobId;
+    private final String portId;
+    private final LinkPortType type;
+
+    private PortKey(String jobId, String portId, LinkPortType type) {
+      this.jobId = jobId;
+      this.portId = portId;
+      this.type = type;
+    }
+
+    @Override
+    public int hashCode() {
+      final int prime = 31;
+      int result = 1;
+      result = prime * result + ((jobId == null) ? 0 : jobId.hashCode());
+      result = prime * result + ((portId == null) ? 0 : portId.hashCode());
+      result = prime * result + ((type == null) ? 0 : type.hashCode());
+      return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj)
+        return true;
+      if (obj == null)
+        return false;
+      if (getClass() != obj.getClass())
+        return false;
+      PortKey other = (PortKey) obj;
+      if (jobId == null) {
+        if (other.jobId != null)
+          return false;
+      } else if (!jobId.equals(other.jobId))
+        return false;
+      if (portId == null) {
+        if (other.portId != null)
+          return false;
+      } else if (!portId.equals(other.portId))
+        return false;
+      if (type != other.type)
+        return false;
+      return true;
+    }
+  }
+
 }
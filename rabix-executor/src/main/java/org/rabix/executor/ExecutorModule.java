@@ -10,12 +10,14 @@ import org.rabix.executor.handler.impl.JobHandlerImpl;
 import org.rabix.executor.service.ResultCacheService;
 import org.rabix.executor.service.ExecutorService;
 import org.rabix.executor.service.FilePermissionService;
+import org.rabix.executor.service.ImagePrefetchService;
 import org.rabix.executor.service.FileService;
 import org.rabix.executor.service.JobDataService;
 import org.rabix.executor.service.JobFitter;
 import org.rabix.executor.service.impl.ResultCacheServiceImpl;
 import org.rabix.executor.service.impl.ExecutorServiceImpl;
 import org.rabix.executor.service.impl.FilePermissionServiceImpl;
+import org.rabix.executor.service.impl.ImagePrefetchServiceImpl;
 import org.rabix.executor.service.impl.FileServiceImpl;
 import org.rabix.executor.service.impl.JobDataServiceImpl;
 import org.rabix.executor.service.impl.JobFitterImpl;
@@ -47,6 +49,7 @@ public class ExecutorModule extends AbstractModule {
     bind(FileService.class).to(FileServiceImpl.class).in(Scopes.SINGLETON);
     bind(ExecutorService.class).to(ExecutorServiceImpl.class).in(Scopes.SINGLETON);
     bind(FilePermissionService.class).to(FilePermissionServiceImpl.class).in(Scopes.SINGLETON);
+    bind(ImagePrefetchService.class).to(ImagePrefetchServiceImpl.class).in(Scopes.SINGLETON);
     bind(ResultCacheService.class).to(ResultCacheServiceImpl.class).in(Scopes.SINGLETON);
   }
 
@@ -27,6 +27,11 @@ public interface ContainerHandler {
    */
   public boolean isRunning() throws ContainerException;
 
+  /**
+   * Registers listener that is called once the container exits (immediately if it has already exited)
+   */
+  public void onExit(Runnable listener) throws ContainerException;
+
   /**
    * Get container exit status 
    */
@@ -0,0 +1,69 @@
+package org.rabix.executor.container;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.rabix.executor.execution.JobHandlerThreadFactoryBuilder;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * Shared poller that waits for processes and containers to exit. All waits are polled from one thread,
+ * so running Jobs don't hold a thread each and Job handler threads are never blocked on them.
+ */
+public class ContainerWaitExecutor {
+
+  /**
+   * Checks once whether a process or container has exited
+   */
+  public static interface ExitPoll {
+
+    /**
+     * Returns exit code or null if it is still running
+     */
+    Integer poll() throws Exception;
+
+  }
+
+  private final static ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+      new JobHandlerThreadFactoryBuilder().setNamePrefix("ContainerWait-Thread").setDaemon(true).build());
+
+  private ContainerWaitExecutor() {
+  }
+
+  /**
+   * Polls until exit code is received. The returned future fails if a poll throws and stops polling once it's cancelled.
+   */
+  public static ListenableFuture<Integer> watch(final ExitPoll exitPoll, long interval, TimeUnit unit) {
+    final SettableFuture<Integer> exitFuture = SettableFuture.create();
+    final ScheduledFuture<?> polling = scheduler.scheduleWithFixedDelay(new Runnable() {
+      @Override
+      public void run() {
+        if (exitFuture.isDone()) {
+          return;
+        }
+        try {
+          Integer exitCode = exitPoll.poll();
+          if (exitCode != null) {
+            exitFuture.set(exitCode);
+          }
+        } catch (Exception e) {
+          exitFuture.setException(e);
+        }
+      }
+    }, interval, interval, unit);
+
+    exitFuture.addListener(new Runnable() {
+      @Override
+      public void run() {
+        polling.cancel(false);
+      }
+    }, MoreExecutors.directExecutor());
+    return exitFuture;
+  }
+
+}
@@ -34,6 +34,11 @@ public class CompletedContainerHandler implements ContainerHandler {
     return false;
   }
 
+  @Override
+  public void onExit(Runnable listener) throws ContainerException {
+    listener.run();
+  }
+
   @Override
   public int getProcessExitStatus() throws ContainerException {
     return 0;
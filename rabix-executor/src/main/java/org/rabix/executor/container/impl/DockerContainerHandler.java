@@ -10,6 +10,7 @@ import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -17,6 +18,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.configuration.Configuration;
@@ -37,6 +42,7 @@ import org.rabix.executor.config.DockerConfigation;
 import org.rabix.executor.config.StorageConfiguration;
 import org.rabix.executor.container.ContainerException;
 import org.rabix.executor.container.ContainerHandler;
+import org.rabix.executor.container.ContainerWaitExecutor;
 import org.rabix.executor.handler.JobHandler;
 import org.rabix.executor.status.ExecutorStatusCallback;
 import org.rabix.executor.status.ExecutorStatusCallbackException;
@@ -45,7 +51,11 @@ import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.google.common.base.Optional;
+import com.google.common.base.Throwables;
 import com.google.common.net.HostAndPort;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
 import com.google.inject.Inject;
 import com.spotify.docker.client.DefaultDockerClient;
 import com.spotify.docker.client.DockerCertificateException;
@@ -53,6 +63,7 @@ import com.spotify.docker.client.DockerCertificates;
 import com.spotify.docker.client.DockerClient;
 import com.spotify.docker.client.DockerClient.LogsParam;
 import com.spotify.docker.client.DockerException;
+import com.spotify.docker.client.ImageNotFoundException;
 import com.spotify.docker.client.LogMessage;
 import com.spotify.docker.client.LogStream;
 import com.spotify.docker.client.messages.AuthConfig;
@@ -62,6 +73,7 @@ import com.spotify.docker.client.messages.ContainerExit;
 import com.spotify.docker.client.messages.ContainerInfo;
 import com.spotify.docker.client.messages.ContainerState;
 import com.spotify.docker.client.messages.HostConfig;
+import com.spotify.docker.client.messages.ImageInfo;
 
 /**
  * Docker based implementation of {@link ContainerHandler}
@@ -83,6 +95,8 @@ public class DockerContainerHandler implements ContainerHandler {
   private String containerId;
   private DockerClientLockDecorator dockerClient;
 
+  private ListenableFuture<Integer> exitFuture;
+
   private final Job job;
   private final DockerContainerRequirement dockerResource;
 
@@ -107,24 +121,23 @@ public class DockerContainerHandler implements ContainerHandler {
     this.isConfigAuthEnabled = dockerConfig.isDockerConfigAuthEnabled();
   }
 
-  private void pull(String image) throws ContainerException {
-    logger.debug("Pulling docker image");
-    VerboseLogger.log(String.format("Pulling docker image %s", image));
-
+  private void pull(final String image) throws ContainerException {
     try {
+      if (dockerClient.isImagePresent(image)) {
+        logger.debug("Docker image {} is already present", image);
+        return;
+      }
+      logger.debug("Pulling docker image");
+      VerboseLogger.log(String.format("Pulling docker image %s", image));
+
       statusCallback.onContainerImagePullStarted(job, image);
-      if (isConfigAuthEnabled) {
-        dockerClient.pull(image);
-      } else {
-        try {
-          String serverAddress = extractServerName(image);
-          AuthConfig authConfig = AuthConfig.fromDockerConfig(serverAddress).build();
-          this.dockerClient.pull(image, authConfig);
-        } catch (IOException | RuntimeException e) {
-          logger.debug("Can't find docker config file", e);
-          dockerClient.pull(image);
+      dockerClient.pullOnce(image, new Callable<Void>() {
+        @Override
+        public Void call() throws Exception {
+          pullImage(image);
+          return null;
         }
-      }
+      });
       statusCallback.onContainerImagePullCompleted(job, image);
     } catch (DockerException | InterruptedException e) {
       logger.error("Failed to pull " + image, e);
@@ -140,14 +153,36 @@ public class DockerContainerHandler implements ContainerHandler {
     }
   }
 
-  private String extractServerName(String image) {
+  private void pullImage(String image) throws DockerException, InterruptedException {
+    pull(dockerClient, image, isConfigAuthEnabled);
+  }
+
+  /**
+   * Pulls the image with credentials from the Docker config file, unless credentials come from the configuration
+   */
+  public static void pull(DockerClientLockDecorator dockerClient, String image, boolean isConfigAuthEnabled) throws DockerException, InterruptedException {
+    if (isConfigAuthEnabled) {
+      dockerClient.pull(image);
+    } else {
+      try {
+        String serverAddress = extractServerName(image);
+        AuthConfig authConfig = AuthConfig.fromDockerConfig(serverAddress).build();
+        dockerClient.pull(image, authConfig);
+      } catch (IOException | RuntimeException e) {
+        logger.debug("Can't find docker config file", e);
+        dockerClient.pull(image);
+      }
+    }
+  }
+
+  private static String extractServerName(String image) {
     if (StringUtils.countMatches(image, "/") <= 1) {
       return dockerHubServer;
     }
     return image.substring(0, image.indexOf("/"));
   }
   
-  private String checkTagOrAddLatest(String image) {
+  public static String checkTagOrAddLatest(String image) {
     return image.contains(TAG_SEPARATOR) ? image : image + TAG_SEPARATOR + LATEST;
   }
 
@@ -230,12 +265,40 @@ public class DockerContainerHandler implements ContainerHandler {
         throw new ContainerException("Failed to start Docker container " + containerId);
       }
       logger.info("Docker container {} has started.", containerId);
+      exitFuture = awaitExit(containerId);
     } catch (Exception e) {
       logger.error("Failed to start container.", e);
       throw new ContainerException("Failed to start container.", e);
     }
   }
 
+  /**
+   * Polls the container state until it exits
+   */
+  private ListenableFuture<Integer> awaitExit(final String containerId) {
+    return ContainerWaitExecutor.watch(new ContainerWaitExecutor.ExitPoll() {
+      @Override
+      public Integer poll() throws Exception {
+        return dockerClient.getExitCode(containerId);
+      }
+    }, DockerClientLockDecorator.EXIT_POLL_INTERVAL, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Returns exit code received from the waiter or null if the container hasn't exited or the wait failed
+   */
+  private Integer getAwaitedExitCode() {
+    if (exitFuture == null || !exitFuture.isDone()) {
+      return null;
+    }
+    try {
+      return exitFuture.get();
+    } catch (InterruptedException | ExecutionException e) {
+      logger.warn("Failed to wait for Docker container " + containerId, e);
+      return null;
+    }
+  }
+
   private List<String> transformEnvironmentVariables(Map<String, String> variables) {
     List<String> transformed = new ArrayList<>();
     for (Entry<String, String> variableEntry : variables.entrySet()) {
@@ -290,6 +353,12 @@ public class DockerContainerHandler implements ContainerHandler {
     if (overrideResultStatus != null) {
       return false;
     }
+    if (exitFuture != null && !exitFuture.isDone()) {
+      return true;
+    }
+    if (getAwaitedExitCode() != null) {
+      return false;
+    }
     ContainerInfo containerInfo;
     try {
       containerInfo = dockerClient.inspectContainer(containerId);
@@ -307,6 +376,10 @@ public class DockerContainerHandler implements ContainerHandler {
     if (overrideResultStatus != null) {
       return overrideResultStatus;
     }
+    Integer exitCode = getAwaitedExitCode();
+    if (exitCode != null) {
+      return exitCode;
+    }
     ContainerInfo containerInfo;
     try {
       containerInfo = dockerClient.inspectContainer(containerId);
@@ -318,6 +391,18 @@ public class DockerContainerHandler implements ContainerHandler {
     }
   }
 
+  @Override
+  public void onExit(Runnable listener) throws ContainerException {
+    if (overrideResultStatus != null) {
+      listener.run();
+      return;
+    }
+    if (exitFuture == null) {
+      throw new ContainerException("Docker container hasn't started yet.");
+    }
+    exitFuture.addListener(listener, MoreExecutors.directExecutor());
+  }
+
   /**
    * Does after processing (dumps standard error log for now)
    */
@@ -395,6 +480,7 @@ public class DockerContainerHandler implements ContainerHandler {
     public final static long METHOD_TIMEOUT = 10 * MINUTE; // maximize time (it's mostly because of big Docker images)
     public final static long DEFAULT_DOCKER_CLIENT_TIMEOUT = 1000 * SECOND;
     public final static long SLEEP_TIME = 1 * SECOND;
+    public final static long EXIT_POLL_INTERVAL = 1 * SECOND;
     
     public static final String DOCKER_HOST_ENVVAR = "DOCKER_HOST";
     public static final String DOCKER_HOST_CONFIG = "docker.host";
@@ -405,13 +491,16 @@ public class DockerContainerHandler implements ContainerHandler {
     
     private DockerClient dockerClient;
 
+    private final Set<String> presentImages = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private final ConcurrentMap<String, SettableFuture<Void>> pulls = new ConcurrentHashMap<>();
+
     @Inject
     public DockerClientLockDecorator(Configuration configuration) throws ContainerException {
       this.dockerClient = createDockerClient(configuration);
     }
 
     @Retry(times = RETRY_TIMES, methodTimeoutMillis = METHOD_TIMEOUT, exponentialBackoff = false, sleepTimeMillis = SLEEP_TIME)
-    public synchronized void pull(String image) throws DockerException, InterruptedException {
+    public void pull(String image) throws DockerException, InterruptedException {
       try {
         dockerClient.pull(image);
       } catch (Throwable e) {
@@ -422,7 +511,7 @@ public class DockerContainerHandler implements ContainerHandler {
     }
     
     @Retry(times = RETRY_TIMES, methodTimeoutMillis = METHOD_TIMEOUT, exponentialBackoff = false, sleepTimeMillis = SLEEP_TIME)
-    public synchronized void pull(String image, AuthConfig authConfig) throws DockerException, InterruptedException {
+    public void pull(String image, AuthConfig authConfig) throws DockerException, InterruptedException {
       try {
         dockerClient.pull(image, authConfig);
       } catch (Throwable e) {
@@ -431,36 +520,120 @@ public class DockerContainerHandler implements ContainerHandler {
       }
     }
     
+    /**
+     * Checks whether the image is available locally. Images found once are not inspected again.
+     */
+    public boolean isImagePresent(String image) throws InterruptedException {
+      if (presentImages.contains(image)) {
+        return true;
+      }
+      try {
+        dockerClient.inspectImage(image);
+        presentImages.add(image);
+        return true;
+      } catch (ImageNotFoundException e) {
+        return false;
+      } catch (DockerException e) {
+        logger.debug("Failed to inspect Docker image " + image, e);
+        return false;
+      }
+    }
+
+    /**
+     * Runs the pull unless the same image is already being pulled. In that case it waits for the pull in progress
+     * and shares its outcome. Returns true if this call pulled the image.
+     */
+    public boolean pullOnce(String image, Callable<Void> pull) throws DockerException, InterruptedException {
+      SettableFuture<Void> future = SettableFuture.create();
+      SettableFuture<Void> pullInProgress = pulls.putIfAbsent(image, future);
+      if (pullInProgress != null) {
+        try {
+          pullInProgress.get();
+          return false;
+        } catch (ExecutionException e) {
+          throw toDockerException(e.getCause());
+        }
+      }
+      try {
+        pull.call();
+        presentImages.add(image);
+        future.set(null);
+        return true;
+      } catch (Exception e) {
+        future.setException(e);
+        throw toDockerException(e);
+      } finally {
+        pulls.remove(image, future);
+      }
+    }
+
+    private static DockerException toDockerException(Throwable e) throws InterruptedException {
+      if (e instanceof DockerException) {
+        return (DockerException) e;
+      }
+      if (e instanceof InterruptedException) {
+        throw (InterruptedException) e;
+      }
+      Throwables.propagateIfPossible(e);
+      return new DockerException(e);
+    }
+
+    /**
+     * Inspects the image without retries, missing images fail fast
+     */
+    public ImageInfo inspectImage(String image) throws DockerException, InterruptedException {
+      return dockerClient.inspectImage(image);
+    }
+
     @Retry(times = RETRY_TIMES, methodTimeoutMillis = METHOD_TIMEOUT, exponentialBackoff = true)
-    public synchronized ContainerCreation createContainer(ContainerConfig containerConfig) throws DockerException, InterruptedException {
-      return dockerClient.createContainer(containerConfig);
+    public ContainerCreation createContainer(ContainerConfig containerConfig) throws DockerException, InterruptedException {
+      try {
+        return dockerClient.createContainer(containerConfig);
+      } catch (ImageNotFoundException e) {
+        presentImages.remove(containerConfig.image());
+        throw e;
+      }
     }
     
     @Retry(times = RETRY_TIMES, methodTimeoutMillis = METHOD_TIMEOUT, exponentialBackoff = true)
-    public synchronized void startContainer(String containerId) throws DockerException, InterruptedException {
+    public void startContainer(String containerId) throws DockerException, InterruptedException {
       dockerClient.startContainer(containerId);
     }
     
     @Retry(times = RETRY_TIMES, methodTimeoutMillis = METHOD_TIMEOUT, exponentialBackoff = true)
-    public synchronized void stopContainer(String containerId, int timeToWait) throws DockerException, InterruptedException {
+    public void stopContainer(String containerId, int timeToWait) throws DockerException, InterruptedException {
       dockerClient.stopContainer(containerId, timeToWait);
     }
     
     @Retry(times = RETRY_TIMES, methodTimeoutMillis = METHOD_TIMEOUT, exponentialBackoff = true)
-    public synchronized ContainerInfo inspectContainer(String containerId) throws DockerException, InterruptedException {
+    public ContainerInfo inspectContainer(String containerId) throws DockerException, InterruptedException {
       return dockerClient.inspectContainer(containerId);
     }
     
     @Retry(times = RETRY_TIMES, methodTimeoutMillis = METHOD_TIMEOUT, exponentialBackoff = true)
-    public synchronized LogStream logs(String containerId, LogsParam... params) throws DockerException, InterruptedException {
+    public LogStream logs(String containerId, LogsParam... params) throws DockerException, InterruptedException {
       return dockerClient.logs(containerId, params);
     }
     
     @Retry(times = RETRY_TIMES, methodTimeoutMillis = METHOD_TIMEOUT, exponentialBackoff = true)
-    public synchronized ContainerExit waitContainer(String containerId) throws DockerException, InterruptedException {
+    public ContainerExit waitContainer(String containerId) throws DockerException, InterruptedException {
       return dockerClient.waitContainer(containerId);
     }
     
+    /**
+     * Returns exit code of the container or null if it is still running. It is not retried, failed queries
+     * are treated as running and checked again on the next poll.
+     */
+    public Integer getExitCode(String containerId) throws InterruptedException {
+      try {
+        ContainerState containerState = dockerClient.inspectContainer(containerId).state();
+        return containerState.running() ? null : containerState.exitCode();
+      } catch (DockerException e) {
+        logger.debug("Failed to query Docker container " + containerId + ". Checking again.", e);
+        return null;
+      }
+    }
+
     public static DockerClient createDockerClient(Configuration configuration) throws ContainerException {
       DockerClient docker = null;
       DefaultDockerClient.Builder dockerClientBuilder = dockerClientBuilder(configuration);
@@ -9,11 +9,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
@@ -29,10 +26,14 @@ import org.rabix.common.logging.VerboseLogger;
 import org.rabix.executor.config.StorageConfiguration;
 import org.rabix.executor.container.ContainerException;
 import org.rabix.executor.container.ContainerHandler;
+import org.rabix.executor.container.ContainerWaitExecutor;
 import org.rabix.executor.handler.JobHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+
 public class LocalContainerHandler implements ContainerHandler {
 
   private final static Logger logger = LoggerFactory.getLogger(LocalContainerHandler.class);
@@ -40,8 +41,7 @@ public class LocalContainerHandler implements ContainerHandler {
   private Job job;
   private File workingDir;
 
-  private Future<Integer> processFuture;
-  private ExecutorService executorService = Executors.newSingleThreadExecutor();
+  private ListenableFuture<Integer> processFuture;
 
   private Process process;
   private String commandLine;
@@ -49,6 +49,8 @@ public class LocalContainerHandler implements ContainerHandler {
   public static final String HOME_ENV_VAR = "HOME";
   public static final String TMPDIR_ENV_VAR = "TMPDIR";
 
+  public static final long EXIT_POLL_INTERVAL = 100; // milliseconds
+
   public LocalContainerHandler(Job job, StorageConfiguration storageConfig) {
     this.job = job;
     this.workingDir = storageConfig.getWorkingDir(job);
@@ -109,14 +111,18 @@ public class LocalContainerHandler implements ContainerHandler {
       processBuilder.directory(workingDir);
       
       VerboseLogger.log(String.format("Running command line: %s", commandLine));
-      processFuture = executorService.submit(new Callable<Integer>() {
+      process = processBuilder.start();
+      final Process startedProcess = process;
+      processFuture = ContainerWaitExecutor.watch(new ContainerWaitExecutor.ExitPoll() {
         @Override
-        public Integer call() throws Exception {
-          process = processBuilder.start();
-          process.waitFor();
-          return process.exitValue();
+        public Integer poll() {
+          try {
+            return startedProcess.exitValue();
+          } catch (IllegalThreadStateException e) {
+            return null;
+          }
         }
-      });
+      }, EXIT_POLL_INTERVAL, TimeUnit.MILLISECONDS);
       logger.info("Local container has started.");
     } catch (Exception e) {
       logger.error("Failed to start application", e);
@@ -140,6 +146,7 @@ public class LocalContainerHandler implements ContainerHandler {
       return;
     }
     processFuture.cancel(true);
+    process.destroy();
   }
 
   @Override
@@ -155,6 +162,14 @@ public class LocalContainerHandler implements ContainerHandler {
     return !processFuture.isDone();
   }
 
+  @Override
+  public synchronized void onExit(Runnable listener) throws ContainerException {
+    if (processFuture == null) {
+      throw new ContainerException("Process hasn't started yet.");
+    }
+    processFuture.addListener(listener, MoreExecutors.directExecutor());
+  }
+
   @Override
   public synchronized int getProcessExitStatus() throws ContainerException {
     try {
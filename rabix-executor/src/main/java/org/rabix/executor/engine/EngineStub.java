@@ -3,12 +3,15 @@ package org.rabix.executor.engine;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.rabix.bindings.model.Job;
 import org.rabix.common.engine.control.EngineControlFreeMessage;
 import org.rabix.common.engine.control.EngineControlMessage;
+import org.rabix.common.engine.control.EngineControlPrefetchMessage;
 import org.rabix.common.engine.control.EngineControlStopMessage;
 import org.rabix.executor.service.ExecutorService;
 import org.rabix.executor.service.FileService;
@@ -31,6 +34,15 @@ public abstract class EngineStub<Q extends TransportQueue, B extends Backend, T
 
   protected ScheduledExecutorService scheduledHeartbeatService = Executors.newSingleThreadScheduledExecutor();
 
+  private final AtomicLong receivedJobs = new AtomicLong();
+
+  private final Runnable heartbeat = new Runnable() {
+    @Override
+    public void run() {
+      transportPlugin.send(receiveFromBackendHeartbeatQueue, createHeartbeatInfo());
+    }
+  };
+
   protected Q sendToBackendQueue;
   protected Q sendToBackendControlQueue;
   protected Q receiveFromBackendQueue;
@@ -43,7 +55,11 @@ public abstract class EngineStub<Q extends TransportQueue, B extends Backend, T
     transportPlugin.startReceiver(sendToBackendQueue, Job.class, new ReceiveCallback<Job>() {
       @Override
       public void handleReceive(Job job) throws TransportPluginException {
-        executorService.start(job, job.getRootId());
+        try {
+          executorService.start(job, job.getRootId());
+        } finally {
+          receivedJobs.incrementAndGet();
+        }
       }
     }, new ErrorCallback() {
       @Override
@@ -64,6 +80,9 @@ public abstract class EngineStub<Q extends TransportQueue, B extends Backend, T
         case FREE:
           executorService.free(controlMessage.getRootId(), ((EngineControlFreeMessage)controlMessage).getConfig());
           break;
+        case PREFETCH:
+          executorService.prefetch(controlMessage.getRootId(), ((EngineControlPrefetchMessage)controlMessage).getImages());
+          break;
         default:
           break;
         }
@@ -75,20 +94,43 @@ public abstract class EngineStub<Q extends TransportQueue, B extends Backend, T
       }
     });
 
-    scheduledHeartbeatService.scheduleAtFixedRate(new Runnable() {
-      @Override
-      public void run() {
-        transportPlugin.send(receiveFromBackendHeartbeatQueue, new HeartbeatInfo(backend.getId(), System.currentTimeMillis()));
-      }
-    }, 0, 1, TimeUnit.SECONDS);
+    scheduledHeartbeatService.scheduleAtFixedRate(heartbeat, 0, 1, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Creates heartbeat with the current capacity and image prefetch totals of the executor. Capacity is left out if it can't be determined.
+   * Received Jobs are counted before capacity is read, so the capacity never misses a counted Job.
+   */
+  private HeartbeatInfo createHeartbeatInfo() {
+    long timestamp = System.currentTimeMillis();
+    long received = receivedJobs.get();
+    try {
+      HeartbeatInfo heartbeatInfo = new HeartbeatInfo(backend.getId(), timestamp, executorService.getFreeSlots(), executorService.getAvailableCores(), executorService.getAvailableMemory(), received);
+      heartbeatInfo.setPrefetchedImages(executorService.getPrefetchedImages());
+      heartbeatInfo.setFailedPrefetches(executorService.getFailedPrefetches());
+      return heartbeatInfo;
+    } catch (RuntimeException e) {
+      logger.warn("Failed to determine executor capacity.", e);
+      return new HeartbeatInfo(backend.getId(), timestamp);
+    }
   }
 
   public void stop() {
     scheduledHeartbeatService.shutdown();
   }
 
+  /**
+   * Sends the Job. A finished Job is followed by a heartbeat, so the engine sees the freed capacity right away.
+   */
   public void send(Job job) {
     transportPlugin.send(receiveFromBackendQueue, job);
+    if (Job.isFinished(job) && !scheduledHeartbeatService.isShutdown()) {
+      try {
+        scheduledHeartbeatService.execute(heartbeat);
+      } catch (RejectedExecutionException e) {
+        logger.debug("Heartbeat service is stopped.");
+      }
+    }
   }
 
 }
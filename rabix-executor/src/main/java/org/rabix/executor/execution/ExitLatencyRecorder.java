@@ -0,0 +1,42 @@
+package org.rabix.executor.execution;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects time between the container exit and the moment the final status is sent to the engine
+ */
+public class ExitLatencyRecorder {
+
+  private final AtomicLong count = new AtomicLong();
+  private final AtomicLong total = new AtomicLong();
+  private final AtomicLong max = new AtomicLong();
+
+  public void record(long latencyMillis) {
+    count.incrementAndGet();
+    total.addAndGet(latencyMillis);
+
+    long currentMax = max.get();
+    while (latencyMillis > currentMax && !max.compareAndSet(currentMax, latencyMillis)) {
+      currentMax = max.get();
+    }
+  }
+
+  public long getCount() {
+    return count.get();
+  }
+
+  public long getAverageMillis() {
+    long currentCount = count.get();
+    return currentCount > 0 ? total.get() / currentCount : 0;
+  }
+
+  public long getMaxMillis() {
+    return max.get();
+  }
+
+  @Override
+  public String toString() {
+    return "ExitLatencyRecorder [count=" + getCount() + ", averageMillis=" + getAverageMillis() + ", maxMillis=" + getMaxMillis() + "]";
+  }
+
+}
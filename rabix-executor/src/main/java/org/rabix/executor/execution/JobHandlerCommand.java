@@ -60,6 +60,14 @@ public abstract class JobHandlerCommand {
    */
   public abstract Result run(JobData jobData, JobHandler handler, String contextId);
 
+  /**
+   * Does the command block on I/O (image pulls, downloads, uploads)? Blocking commands run on a separate pool,
+   * so they don't hold up short commands of other Jobs. By default, the command is short.
+   */
+  public boolean isBlocking(String id, String contextId, JobHandler handler) {
+    return false;
+  }
+
   /**
    * Get repeat information. By default, the command is not repeatable.
    */
@@ -1,19 +1,20 @@
 package org.rabix.executor.execution;
 
 import java.lang.Thread.UncaughtExceptionHandler;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 
+import org.apache.commons.configuration.Configuration;
 import org.rabix.bindings.model.Job;
 import org.rabix.executor.engine.EngineStub;
 import org.rabix.executor.handler.JobHandlerFactory;
@@ -23,6 +24,8 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Job execution command dispatcher.
+ * Commands of one Job run one by one, but Jobs share either a bounded pool or a virtual thread per task executor.
+ * Blocking commands (start and postprocessing) use their own pool, so short commands of other Jobs don't wait behind them.
  */
 public class JobHandlerCommandDispatcher {
 
@@ -30,18 +33,22 @@ public class JobHandlerCommandDispatcher {
 
   private final JobHandlerFactory jobHandlerFactory;
 
-  private final Map<String, Map<String, JobHandlerRunnable>> jobHandlerRunnables = new HashMap<>();
+  private final ConcurrentMap<String, ConcurrentMap<String, JobHandlerRunnable>> jobHandlerRunnables = new ConcurrentHashMap<>();
+
+  private final ExitLatencyRecorder exitLatencyRecorder = new ExitLatencyRecorder();
 
   private final ThreadFactory jobHandlerThreadFactory;
   private final ExecutorService jobHandlerThreadExecutor;
-  private final ScheduledExecutorService jobHandlerThreadCleanExecutor;
+  private final ExecutorService jobHandlerIOExecutor;
+  private final ScheduledExecutorService jobHandlerScheduler;
 
   @Inject
-  public JobHandlerCommandDispatcher(JobHandlerFactory jobHandlerFactory) {
+  public JobHandlerCommandDispatcher(JobHandlerFactory jobHandlerFactory, Configuration configuration) {
     this.jobHandlerFactory = jobHandlerFactory;
-    this.jobHandlerThreadFactory = buildJobHandlerThreadFactory();
-    this.jobHandlerThreadExecutor = Executors.newCachedThreadPool(jobHandlerThreadFactory);
-    this.jobHandlerThreadCleanExecutor = Executors.newScheduledThreadPool(1);
+    this.jobHandlerThreadFactory = buildJobHandlerThreadFactory("JobHandler-Thread");
+    this.jobHandlerThreadExecutor = buildJobHandlerThreadExecutor(configuration);
+    this.jobHandlerIOExecutor = buildJobHandlerIOExecutor(configuration);
+    this.jobHandlerScheduler = Executors.newScheduledThreadPool(1);
     init();
   }
 
@@ -53,43 +60,85 @@ public class JobHandlerCommandDispatcher {
   }
 
   /**
-   * Dispatch commands to appropriate runnable threads
+   * Dispatch commands to appropriate runnable
    */
   public void dispatch(JobData jobData, JobHandlerCommand command, EngineStub<?,?,?> engineStub) {
-    synchronized (jobHandlerRunnables) {
-      String contextId = jobData.getJob().getRootId();
-      JobHandlerRunnable jobHandlerRunnable = getJobs(contextId).get(jobData.getJob().getId());
+    Job job = jobData.getJob();
+    ConcurrentMap<String, JobHandlerRunnable> jobs = getJobs(job.getRootId());
 
+    JobHandlerRunnable jobHandlerRunnable = jobs.get(job.getId());
+    if (jobHandlerRunnable == null) {
+      JobHandlerRunnable newRunnable = new JobHandlerRunnable(job.getId(), job.getRootId(), jobHandlerFactory.createHandler(job, engineStub), jobHandlerThreadExecutor, jobHandlerIOExecutor, jobHandlerScheduler, exitLatencyRecorder);
+      jobHandlerRunnable = jobs.putIfAbsent(job.getId(), newRunnable);
       if (jobHandlerRunnable == null) {
-        Job job = jobData.getJob();
-        jobHandlerRunnable = new JobHandlerRunnable(job.getId(), job.getRootId(), jobHandlerFactory.createHandler(job, engineStub));
-        getJobs(contextId).put(job.getId(), jobHandlerRunnable);
-        jobHandlerThreadExecutor.execute(jobHandlerRunnable);
+        jobHandlerRunnable = newRunnable;
         logger.info("JobHandlerRunnable created for {}.", job.getId());
       }
-      jobHandlerRunnable.addCommand(command);
     }
+    jobHandlerRunnable.addCommand(command);
+  }
+
+  /**
+   * Time between the container exit and the moment the final status is sent to the engine
+   */
+  public ExitLatencyRecorder getExitLatencyRecorder() {
+    return exitLatencyRecorder;
   }
 
-  private Map<String, JobHandlerRunnable> getJobs(String contextId) {
-    synchronized (jobHandlerRunnables) {
-      Map<String, JobHandlerRunnable> jobList = jobHandlerRunnables.get(contextId);
-      if (jobList == null) {
-        jobList = new HashMap<>();
-        jobHandlerRunnables.put(contextId, jobList);
+  private ConcurrentMap<String, JobHandlerRunnable> getJobs(String contextId) {
+    ConcurrentMap<String, JobHandlerRunnable> jobs = jobHandlerRunnables.get(contextId);
+    if (jobs == null) {
+      jobs = new ConcurrentHashMap<>();
+      ConcurrentMap<String, JobHandlerRunnable> existing = jobHandlerRunnables.putIfAbsent(contextId, jobs);
+      if (existing != null) {
+        jobs = existing;
+      }
+    }
+    return jobs;
+  }
+
+  /**
+   * Creates executor for {@link JobHandlerRunnable}s. Virtual threads are used if they are enabled and supported by the JVM.
+   */
+  private ExecutorService buildJobHandlerThreadExecutor(Configuration configuration) {
+    if (configuration.getBoolean("executor.job_handler.virtual_threads", false)) {
+      try {
+        ExecutorService executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        logger.info("JobHandlerRunnables use virtual threads.");
+        return executor;
+      } catch (Exception e) {
+        logger.warn("Virtual threads are not supported by this JVM. Falling back to the bounded pool.");
       }
-      return jobList;
     }
+    int poolSize = configuration.getInt("executor.job_handler.pool_size", Runtime.getRuntime().availableProcessors() * 4);
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), jobHandlerThreadFactory);
+    executor.allowCoreThreadTimeOut(true);
+    logger.info("JobHandlerRunnables use a pool of {} threads.", poolSize);
+    return executor;
+  }
+
+  /**
+   * Creates executor for blocking commands. With virtual threads, all commands share the virtual thread per task executor.
+   */
+  private ExecutorService buildJobHandlerIOExecutor(Configuration configuration) {
+    if (!(jobHandlerThreadExecutor instanceof ThreadPoolExecutor)) {
+      return jobHandlerThreadExecutor;
+    }
+    int poolSize = configuration.getInt("executor.job_handler.io_pool_size", Runtime.getRuntime().availableProcessors() * 4);
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), buildJobHandlerThreadFactory("JobHandler-IO-Thread"));
+    executor.allowCoreThreadTimeOut(true);
+    logger.info("Blocking Job commands use a pool of {} threads.", poolSize);
+    return executor;
   }
 
   /**
    * Creates simple Job handler thread factory
    */
-  private ThreadFactory buildJobHandlerThreadFactory() {
+  private ThreadFactory buildJobHandlerThreadFactory(String namePrefix) {
     return new JobHandlerThreadFactoryBuilder()
-      .setNamePrefix("JobHandler-Thread")
+      .setNamePrefix(namePrefix)
       .setDaemon(false)
-      .setPriority(Thread.MAX_PRIORITY)
+      .setPriority(Thread.NORM_PRIORITY)
       .setUncaughtExceptionHandler(new UncaughtExceptionHandler() {
         @Override
         public void uncaughtException(Thread t, Throwable e) {
@@ -99,50 +148,28 @@ public class JobHandlerCommandDispatcher {
   }
 
   /**
-   * Schedule cleaner thread that will go through the list of Job threads
+   * Schedule cleaner that will go through the list of Job runnables
    */
   private void scheduleCleaner() {
-    jobHandlerThreadCleanExecutor.scheduleWithFixedDelay(new Runnable() {
+    jobHandlerScheduler.scheduleWithFixedDelay(new Runnable() {
       @Override
       public void run() {
-        synchronized (jobHandlerRunnables) {
-          logger.debug("Cleaner thread is executing. There are {} runnable(s) in the pool.", jobHandlerRunnables.size());
-
-          List<Pair> stoppedIds = new ArrayList<>();
-          List<Pair> runningIds = new ArrayList<>();
-
-          for (Entry<String, Map<String, JobHandlerRunnable>> runnableEntry : jobHandlerRunnables.entrySet()) {
-            String contextId = runnableEntry.getKey();
-            for (Entry<String, JobHandlerRunnable> runnable : runnableEntry.getValue().entrySet()) {
-              String id = runnable.getKey();
-              JobHandlerRunnable thread = runnable.getValue();
-
-              if (thread.isStopped()) {
-                stoppedIds.add(new Pair(id, contextId));
-              } else {
-                runningIds.add(new Pair(id, contextId));
-              }
+        logger.debug("Cleaner thread is executing. There are {} context(s) in the pool.", jobHandlerRunnables.size());
+
+        for (Entry<String, ConcurrentMap<String, JobHandlerRunnable>> runnableEntry : jobHandlerRunnables.entrySet()) {
+          String contextId = runnableEntry.getKey();
+          for (Entry<String, JobHandlerRunnable> runnable : runnableEntry.getValue().entrySet()) {
+            if (runnable.getValue().isStopped()) {
+              logger.debug("Cleaner thread removes JobHandlerRunnable for context {} and job {}.", contextId, runnable.getKey());
+              runnableEntry.getValue().remove(runnable.getKey(), runnable.getValue());
             }
           }
-
-          for (Pair stopped : stoppedIds) {
-            logger.debug("Cleaner thread removes JobHandlerRunnable for context {} and job {}.", stopped.contextId, stopped.jobId);
-            jobHandlerRunnables.get(stopped.contextId).remove(stopped.jobId);
-          }
         }
-      }
-      
-      class Pair {
-        private String jobId;
-        private String contextId;
-        
-        public Pair(String jobId, String contextId) {
-          this.jobId = jobId;
-          this.contextId = contextId;
+        if (exitLatencyRecorder.getCount() > 0) {
+          logger.info("Exit to engine latency {}.", exitLatencyRecorder);
         }
       }
-
     }, 1, 1, TimeUnit.MINUTES);
   }
-  
+
 }
@@ -1,82 +1,178 @@
 package org.rabix.executor.execution;
 
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.rabix.executor.ExecutorException;
 import org.rabix.executor.execution.JobHandlerCommand.Repeat;
 import org.rabix.executor.handler.JobHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Job execution thread runnable. It executes commands one by one in synchronous matter. 
+ * Job execution runnable. It executes commands one by one in synchronous matter.
+ * The runnable is scheduled on the shared executor only while it has pending commands, so it doesn't hold a thread while the Job is running.
+ * Blocking commands run on a separate I/O executor.
+ * Repeatable commands are re-run as soon as the execution exits or, as a fallback, after the repeat delay.
  */
 public class JobHandlerRunnable implements Runnable {
 
   private final static Logger logger = LoggerFactory.getLogger(JobHandlerRunnable.class);
 
-  private final static long DEFAULT_SLEEP_TIME = TimeUnit.SECONDS.toMillis(1);
-
   private final String jobId;
   private final String contextId;
   private final JobHandler jobHandler;
-  private final BlockingQueue<JobHandlerCommand> commands;
+  private final Queue<JobHandlerCommand> commands;
+
+  private final Executor executor;
+  private final Executor ioExecutor;
+  private final ScheduledExecutorService scheduler;
+  private final ExitLatencyRecorder exitLatencyRecorder;
 
   private final AtomicBoolean stop = new AtomicBoolean(false);
+  private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+  private JobHandlerCommand repeatCommand;
+  private ScheduledFuture<?> repeatFuture;
+  private boolean exitListenerRegistered = false;
+  private volatile long exitTime = 0;
+
+  private final Runnable ioTask = new Runnable() {
+    @Override
+    public void run() {
+      process(true);
+    }
+  };
 
-  public JobHandlerRunnable(String jobId, String contextId, JobHandler jobHandler) {
+  public JobHandlerRunnable(String jobId, String contextId, JobHandler jobHandler, Executor executor, Executor ioExecutor, ScheduledExecutorService scheduler, ExitLatencyRecorder exitLatencyRecorder) {
     this.jobId = jobId;
     this.contextId = contextId;
     this.jobHandler = jobHandler;
-    this.commands = new LinkedBlockingQueue<>();
+    this.executor = executor;
+    this.ioExecutor = ioExecutor;
+    this.scheduler = scheduler;
+    this.exitLatencyRecorder = exitLatencyRecorder;
+    this.commands = new ConcurrentLinkedQueue<>();
   }
 
   @Override
   public void run() {
-    logger.info("JobHandlerRunnable {} started.", Thread.currentThread().getName());
+    process(false);
+  }
 
-    long sleepTime = DEFAULT_SLEEP_TIME;
-    
-    while (!isStopped()) {
-      try {
-        JobHandlerCommand command = commands.poll();
-        if (command == null) {
-          logger.debug("No active commands. Sleep for {}", sleepTime);
-          Thread.sleep(sleepTime);
-          continue;
+  /**
+   * Runs pending commands. Blocking commands are handed over to the I/O executor and the runnable moves back
+   * once a short command is next. The runnable stays scheduled while it is handed over.
+   */
+  private void process(boolean io) {
+    boolean handedOver = false;
+    try {
+      JobHandlerCommand command = null;
+      while (!isStopped() && (command = commands.peek()) != null) {
+        boolean blocking = ioExecutor != executor && command.isBlocking(jobId, contextId, jobHandler);
+        if (blocking && !io) {
+          ioExecutor.execute(ioTask);
+          handedOver = true;
+          return;
         }
-        logger.debug("Command {} found. Start execution.", command);
-
-        Repeat repeat = command.getRepeat();
-        if (repeat != null) {
-          logger.debug("Command {} is repeatable. Delay and put it back to queue.", command);
-          Thread.sleep(repeat.delay);
-          addCommand(command);
+        if (!blocking && io) {
+          break;
         }
+        commands.poll();
+        if (command == repeatCommand) {
+          repeatCommand = null;
+          repeatFuture.cancel(false);
+        }
+        logger.debug("Command {} found. Start execution.", command);
 
         JobHandlerCommand.Result result = command.run(jobId, contextId, jobHandler);
         if (result.isLastCommand) {
-          logger.debug("Command {} is last command. Stop thread.", command);
+          logger.debug("Command {} is last command. Stop runnable.", command);
+          if (exitTime > 0) {
+            exitLatencyRecorder.record(System.currentTimeMillis() - exitTime);
+          }
           stop();
+          break;
+        }
+
+        Repeat repeat = command.getRepeat();
+        if (repeat != null && repeatCommand == null) {
+          logger.debug("Command {} is repeatable. Run it again once the execution exits.", command);
+          repeatCommand = command;
+          repeatFuture = scheduleRepeat(command, repeat.delay);
+          registerExitListener(command);
         }
-      } catch (Exception e) {
-        logger.error("JobHandlerRunnable faced a runtime error. Stop execution.", e);
-        stop();
+      }
+    } catch (Exception e) {
+      logger.error("JobHandlerRunnable faced a runtime error. Stop execution.", e);
+      stop();
+    } finally {
+      if (!handedOver) {
+        scheduled.set(false);
+        if (!isStopped() && !commands.isEmpty()) {
+          schedule();
+        }
+      }
+    }
+  }
+
+  private ScheduledFuture<?> scheduleRepeat(final JobHandlerCommand command, long delay) {
+    return scheduler.schedule(new Runnable() {
+      @Override
+      public void run() {
+        addCommand(command);
+      }
+    }, delay, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Puts the repeatable command back to the queue when the execution exits
+   */
+  private void registerExitListener(final JobHandlerCommand command) {
+    if (exitListenerRegistered) {
+      return;
+    }
+    try {
+      jobHandler.onExit(new Runnable() {
+        @Override
+        public void run() {
+          exitTime = System.currentTimeMillis();
+          addCommand(command);
+        }
+      });
+      exitListenerRegistered = true;
+    } catch (ExecutorException e) {
+      logger.warn("Failed to register exit listener for {}. Command {} will be repeated with delay.", jobId, command);
+    }
+  }
+
+  private void schedule() {
+    if (scheduled.compareAndSet(false, true)) {
+      try {
+        executor.execute(this);
+      } catch (RejectedExecutionException e) {
+        scheduled.set(false);
+        logger.error("Failed to schedule JobHandlerRunnable for " + jobId, e);
       }
     }
-    logger.info("JobHandlerRunnable {} finished.", Thread.currentThread().getName());
   }
 
   /**
-   * Add command to queue 
+   * Add command to queue
    */
   public void addCommand(JobHandlerCommand command) {
     if (stop.get()) {
-      logger.error("Failed to add command {}. Thread is stopped.", command);
+      logger.error("Failed to add command {}. Runnable is stopped.", command);
+      return;
     }
     this.commands.add(command);
+    schedule();
   }
 
   /**
@@ -84,11 +180,14 @@ public class JobHandlerRunnable implements Runnable {
    */
   public void stop() {
     stop.set(true);
-    logger.info("JobHandlerRunnable {} stopped.", Thread.currentThread().getName());
+    if (repeatFuture != null) {
+      repeatFuture.cancel(false);
+    }
+    logger.info("JobHandlerRunnable for {} stopped.", jobId);
   }
 
   /**
-   * Is runnable stopped? 
+   * Is runnable stopped?
    */
   public boolean isStopped() {
     return stop.get();
@@ -37,6 +37,11 @@ public class StartCommand extends JobHandlerCommand {
     return new Result(false);
   }
 
+  @Override
+  public boolean isBlocking(String id, String contextId, JobHandler handler) {
+    return true;
+  }
+
   @Override
   public JobHandlerCommandType getType() {
     return JobHandlerCommandType.START;
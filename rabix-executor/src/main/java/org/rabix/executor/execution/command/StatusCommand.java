@@ -5,6 +5,7 @@ import java.util.concurrent.TimeUnit;
 import javax.inject.Inject;
 
 import org.rabix.bindings.model.Job;
+import org.rabix.executor.ExecutorException;
 import org.rabix.executor.execution.JobHandlerCommand;
 import org.rabix.executor.handler.JobHandler;
 import org.rabix.executor.model.JobData;
@@ -16,13 +17,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Command that checks status of {@link JobHandler} 
+ * Command that checks status of {@link JobHandler}. It is repeated once the execution exits,
+ * so the delay is only a fallback for handlers that fail to notify about the exit.
  */
 public class StatusCommand extends JobHandlerCommand {
 
   private final static Logger logger = LoggerFactory.getLogger(StatusCommand.class);
 
-  public final static long DEFAULT_DELAY = TimeUnit.SECONDS.toMillis(1);
+  public final static long DEFAULT_DELAY = TimeUnit.SECONDS.toMillis(30);
   
   private JobFitter jobFitter;
   
@@ -69,6 +71,22 @@ public class StatusCommand extends JobHandlerCommand {
     return new Result(true);
   }
 
+  /**
+   * Only the postprocessing (output collection and upload) of an exited Job is blocking
+   */
+  @Override
+  public boolean isBlocking(String id, String contextId, JobHandler handler) {
+    JobData jobData = jobDataService.find(id, contextId);
+    if (jobData == null || !JobDataStatus.STARTED.equals(jobData.getStatus())) {
+      return false;
+    }
+    try {
+      return !handler.isRunning();
+    } catch (ExecutorException e) {
+      return true;
+    }
+  }
+
   @Override
   public Repeat getRepeat() {
     return new Repeat(DEFAULT_DELAY);
@@ -32,6 +32,11 @@ public interface JobHandler {
    */
   boolean isRunning() throws ExecutorException;
 
+  /**
+   * Registers listener that is called once the execution exits
+   */
+  void onExit(Runnable listener) throws ExecutorException;
+
   /**
    * Get exit status
    */
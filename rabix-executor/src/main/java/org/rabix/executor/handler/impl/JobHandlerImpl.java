@@ -80,6 +80,7 @@ public class JobHandlerImpl implements JobHandler {
   private final FilePathMapper outputFileMapper;
 
   private Job job;
+  private final Job submittedJob;
   private EngineStub<?, ?, ?> engineStub;
 
   private DockerConfigation dockerConfig;
@@ -104,6 +105,7 @@ public class JobHandlerImpl implements JobHandler {
       UploadService uploadService, DownloadService downloadService,
       @InputFileMapper FilePathMapper inputFileMapper, @OutputFileMapper FilePathMapper outputFileMapper) {
     this.job = job;
+    this.submittedJob = job;
     this.engineStub = engineStub;
     this.storageConfiguration = storageConfig;
     this.dockerConfig = dockerConfig;
@@ -334,6 +336,7 @@ public class JobHandlerImpl implements JobHandler {
       JobData jobData = jobDataService.find(job.getId(), job.getRootId());
       jobData = JobData.cloneWithResult(jobData, job.getOutputs());
       jobDataService.save(jobData);
+      cacheService.storeResults(submittedJob, job.getOutputs());
 
       logger.debug("Command line tool {} returned result {}.", job.getId(), job.getOutputs());
       return job;
@@ -419,6 +422,19 @@ public class JobHandlerImpl implements JobHandler {
     }
   }
 
+  @Override
+  public void onExit(Runnable listener) throws ExecutorException {
+    if (containerHandler == null) {
+      throw new ExecutorException("Container hasn't started yet.");
+    }
+    try {
+      containerHandler.onExit(listener);
+    } catch (ContainerException e) {
+      logger.error("Couldn't register exit listener", e);
+      throw new ExecutorException("Couldn't register exit listener.", e);
+    }
+  }
+
   @Override
   public int getExitStatus() throws ExecutorException {
     logger.debug("getExitStatus()");
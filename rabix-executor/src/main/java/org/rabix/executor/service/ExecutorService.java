@@ -16,6 +16,11 @@ public interface ExecutorService {
   void stop(List<String> ids, String contextId);
 
   void free(String rootId, Map<String, Object> config);
+
+  /**
+   * Starts pulling Docker images that Jobs of the root Job will need
+   */
+  void prefetch(String rootId, List<String> images);
   
   void shutdown(Boolean stopEverything);
 
@@ -27,4 +32,29 @@ public interface ExecutorService {
 
   JobStatus findStatus(String id, String contextId);
 
+  /**
+   * Number of Jobs the executor can accept or null if it's not limited
+   */
+  Integer getFreeSlots();
+
+  /**
+   * Number of free cores or null if they are not tracked
+   */
+  Long getAvailableCores();
+
+  /**
+   * Free memory in MB or null if it's not tracked
+   */
+  Long getAvailableMemory();
+
+  /**
+   * Number of prefetched Docker images or null if images are not prefetched
+   */
+  Long getPrefetchedImages();
+
+  /**
+   * Number of Docker images that failed to be prefetched or null if images are not prefetched
+   */
+  Long getFailedPrefetches();
+
 }
@@ -0,0 +1,22 @@
+package org.rabix.executor.service;
+
+import java.util.List;
+
+public interface ImagePrefetchService {
+
+  /**
+   * Pulls images in the background. Images that are already present are skipped.
+   */
+  void prefetch(String rootId, List<String> images);
+
+  /**
+   * Number of images pulled or found present since start, null if prefetch is disabled
+   */
+  Long getPrefetchedImages();
+
+  /**
+   * Number of images that failed to be pulled since start, null if prefetch is disabled
+   */
+  Long getFailedPrefetches();
+  
+}
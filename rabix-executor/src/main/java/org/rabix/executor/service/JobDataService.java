@@ -18,4 +18,9 @@ public interface JobDataService {
 
   public List<JobData> find(JobDataStatus... statuses);
 
+  /**
+   * Number of Jobs that are pending, ready, started, running or aborting
+   */
+  public int countActive();
+
 }
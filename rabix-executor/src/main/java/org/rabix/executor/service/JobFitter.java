@@ -8,5 +8,20 @@ public interface JobFitter {
   boolean tryToFit(Job job) throws BindingException;
 
   void free(Job job) throws BindingException;
-  
+
+  /**
+   * Registers listener that is called after resources are freed
+   */
+  void addFreeListener(Runnable listener);
+
+  /**
+   * Returns number of free cores or null if the fitter is disabled
+   */
+  Long getAvailableCores();
+
+  /**
+   * Returns free memory in MB or null if the fitter is disabled
+   */
+  Long getAvailableMemory();
+
 }
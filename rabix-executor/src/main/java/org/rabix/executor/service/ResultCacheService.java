@@ -4,10 +4,22 @@ import java.util.Map;
 
 import org.rabix.bindings.model.Job;
 
+import com.google.common.cache.CacheStats;
+
 public interface ResultCacheService {
 
+  /**
+   * Finds outputs of a previous execution with the same app and inputs
+   */
   Map<String, Object> findResultsFromCache(Job job);
   
   Map<String, Object> findResultsFromCachingDir(Job job);
 
+  /**
+   * Remembers outputs of the successfully executed Job
+   */
+  void storeResults(Job job, Map<String, Object> outputs);
+
+  CacheStats getCacheStats();
+
 }
@@ -5,9 +5,6 @@ import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.commons.configuration.Configuration;
-import org.rabix.bindings.BindingException;
-import org.rabix.bindings.Bindings;
-import org.rabix.bindings.BindingsFactory;
 import org.rabix.bindings.model.Job;
 import org.rabix.bindings.model.Job.JobStatus;
 import org.rabix.executor.engine.EngineStub;
@@ -18,7 +15,9 @@ import org.rabix.executor.model.JobData;
 import org.rabix.executor.model.JobData.JobDataStatus;
 import org.rabix.executor.service.ExecutorService;
 import org.rabix.executor.service.FileService;
+import org.rabix.executor.service.ImagePrefetchService;
 import org.rabix.executor.service.JobDataService;
+import org.rabix.executor.service.JobFitter;
 import org.rabix.executor.service.ResultCacheService;
 import org.rabix.transport.backend.Backend;
 import org.rabix.transport.backend.impl.BackendActiveMQ;
@@ -35,6 +34,7 @@ public class ExecutorServiceImpl implements ExecutorService {
   private static final Logger logger = LoggerFactory.getLogger(ExecutorServiceImpl.class);
 
   private final JobDataService jobDataService;
+  private final JobFitter jobFitter;
 
   private final AtomicBoolean stopped = new AtomicBoolean(false);
 
@@ -44,14 +44,20 @@ public class ExecutorServiceImpl implements ExecutorService {
   
   private boolean cachingEnabled;
   private ResultCacheService resultCacheService;
+  private ImagePrefetchService imagePrefetchService;
+
+  private final int slots;
 
   @Inject
-  public ExecutorServiceImpl(JobDataService jobDataService, FileService fileService, ResultCacheService resultCacheService, Configuration configuration) {
+  public ExecutorServiceImpl(JobDataService jobDataService, JobFitter jobFitter, FileService fileService, ResultCacheService resultCacheService, ImagePrefetchService imagePrefetchService, Configuration configuration) {
     this.fileService = fileService;
     this.configuration = configuration;
+    this.jobFitter = jobFitter;
     this.jobDataService = jobDataService;
     this.resultCacheService = resultCacheService;
+    this.imagePrefetchService = imagePrefetchService;
     this.cachingEnabled = configuration.getBoolean("cache.is_enabled", true);
+    this.slots = configuration.getInt("executor.slots", 0);
   }
 
   @Override
@@ -78,21 +84,14 @@ public class ExecutorServiceImpl implements ExecutorService {
   }
 
   @Override
-  @SuppressWarnings("unchecked")
   public void start(final Job job, String rootId) {
     if (cachingEnabled) {
       Map<String, Object> result = resultCacheService.findResultsFromCache(job);
       if (result != null) {
         logger.info("Found cache hit for Job {}", job.getName());
         Job updatedJob = Job.cloneWithStatus(job, JobStatus.COMPLETED);
-        
-        try {
-          Bindings bindings = BindingsFactory.create(job);
-          updatedJob = Job.cloneWithOutputs(updatedJob, (Map<String, Object>) bindings.translateToCommon(result));
-          engineStub.send(updatedJob);
-        } catch (BindingException e) {
-          logger.error("Failed to find bindings for Job " + job.getId());
-        }
+        updatedJob = Job.cloneWithOutputs(updatedJob, result);
+        engineStub.send(updatedJob);
         return;
       }
     }
@@ -109,7 +108,7 @@ public class ExecutorServiceImpl implements ExecutorService {
 
     for (String id : ids) {
       final JobData jobData = jobDataService.find(id, contextId);
-      if (!isFinished(jobData.getStatus())) {
+      if (jobData != null && !isFinished(jobData.getStatus())) {
         jobDataService.save(jobData, "Stopping job", JobDataStatus.ABORTING);
       }
     }
@@ -119,6 +118,11 @@ public class ExecutorServiceImpl implements ExecutorService {
   public void free(String rootId, Map<String, Object> config) {
     fileService.delete(rootId, config);
   }
+
+  @Override
+  public void prefetch(String rootId, List<String> images) {
+    imagePrefetchService.prefetch(rootId, images);
+  }
   
   @Override
   public JobStatus findStatus(String jobId, String contextId) {
@@ -155,7 +159,7 @@ public class ExecutorServiceImpl implements ExecutorService {
   @Override
   public Map<String, Object> getResult(String id, String contextId) {
     JobData jobData = jobDataService.find(id, contextId);
-    return jobData.getResult();
+    return jobData != null ? jobData.getResult() : null;
   }
 
   @Override
@@ -189,4 +193,32 @@ public class ExecutorServiceImpl implements ExecutorService {
 
   }
 
+  @Override
+  public Integer getFreeSlots() {
+    if (slots <= 0) {
+      return null;
+    }
+    return Math.max(slots - jobDataService.countActive(), 0);
+  }
+
+  @Override
+  public Long getAvailableCores() {
+    return jobFitter.getAvailableCores();
+  }
+
+  @Override
+  public Long getAvailableMemory() {
+    return jobFitter.getAvailableMemory();
+  }
+
+  @Override
+  public Long getPrefetchedImages() {
+    return imagePrefetchService.getPrefetchedImages();
+  }
+
+  @Override
+  public Long getFailedPrefetches() {
+    return imagePrefetchService.getFailedPrefetches();
+  }
+
 }
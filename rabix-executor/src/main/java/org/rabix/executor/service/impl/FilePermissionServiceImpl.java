@@ -3,8 +3,26 @@ package org.rabix.executor.service.impl;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import org.apache.commons.configuration.Configuration;
 import org.rabix.bindings.model.Job;
@@ -20,6 +38,10 @@ import com.spotify.docker.client.messages.ContainerConfig;
 import com.spotify.docker.client.messages.ContainerCreation;
 import com.spotify.docker.client.messages.HostConfig;
 
+/**
+ * Makes job outputs readable and owned by the configured user. Permissions are fixed in-process (NIO) and
+ * the Docker container (chmod/chown) is used only when the executor has no privileges to do it itself.
+ */
 public class FilePermissionServiceImpl implements FilePermissionService {
 
   private final static Logger logger = LoggerFactory.getLogger(FilePermissionServiceImpl.class);
@@ -27,12 +49,28 @@ public class FilePermissionServiceImpl implements FilePermissionService {
   private final static String IMAGE = "ubuntu:latest";
   private final static String DIRECTORY_MAP_MODE = "rw";
 
+  private final static int S_IFMT = 0170000;
+  private final static int S_IFLNK = 0120000;
+  private final static int S_IRUSR = 0400;
+
   private final StorageConfiguration storageConfig;
   private final DockerClientLockDecorator dockerClient;
 
   private final String permissionUID;
   private final String permissionGID;
 
+  private final int uid;
+  private final int gid;
+
+  private final boolean nativeEnabled;
+  private final boolean batchPerRoot;
+  private final int walkThreads;
+  private ForkJoinPool walkPool;
+
+  private volatile boolean nativeFailed = false;
+
+  private final ConcurrentMap<String, RootBatch> batches = new ConcurrentHashMap<>();
+
   @Inject
   public FilePermissionServiceImpl(DockerClientLockDecorator dockerClient, StorageConfiguration storageConfiguration, Configuration configuration) {
     this.dockerClient = dockerClient;
@@ -40,12 +78,253 @@ public class FilePermissionServiceImpl implements FilePermissionService {
     
     this.permissionUID = configuration.containsKey("executor.permission.uid") ? configuration.getString("executor.permission.uid") : getUid();
     this.permissionGID = configuration.containsKey("executor.permission.gid") ? configuration.getString("executor.permission.gid") : getGid();
+
+    this.uid = toId(permissionUID);
+    this.gid = toId(permissionGID);
+    this.nativeEnabled = configuration.getBoolean("executor.permission.native", true) && uid >= 0 && gid >= 0;
+    this.batchPerRoot = configuration.getBoolean("executor.permission.batch_per_root", false);
+    this.walkThreads = configuration.getInt("executor.permission.threads", Runtime.getRuntime().availableProcessors());
   }
 
   @Override
   public void execute(Job job) throws ContainerException {
+    if (nativeEnabled && !nativeFailed) {
+      try {
+        if (batchPerRoot) {
+          getBatch(job.getRootId()).fix(storageConfig.getWorkingDir(job));
+        } else {
+          fixNative(Collections.singletonList(storageConfig.getWorkingDir(job)));
+        }
+        return;
+      } catch (AccessDeniedException | UnsupportedOperationException e) {
+        fallback(e);
+      } catch (FileSystemException e) {
+        if (e.getReason() == null || !e.getReason().contains("not permitted")) {
+          throw new ContainerException("Failed to set permissions for " + job.getId(), e);
+        }
+        fallback(e);
+      } catch (IOException e) {
+        throw new ContainerException("Failed to set permissions for " + job.getId(), e);
+      }
+    }
+    executeInContainer(job);
+  }
+
+  private static int toId(String id) {
+    try {
+      return id != null ? Integer.parseInt(id.trim()) : -1;
+    } catch (NumberFormatException e) {
+      logger.info("Permission id {} is not numeric. Permissions will be set by Docker container.", id);
+      return -1;
+    }
+  }
+
+  private void fallback(Exception e) {
+    if (!nativeFailed) {
+      nativeFailed = true;
+      logger.warn("Executor is not allowed to change file permissions ({}). Falling back to Docker container.", e.getMessage());
+    }
+  }
+
+  private RootBatch getBatch(String rootId) {
+    RootBatch batch = batches.get(rootId);
+    if (batch == null) {
+      RootBatch newBatch = new RootBatch(rootId);
+      batch = batches.putIfAbsent(rootId, newBatch);
+      if (batch == null) {
+        batch = newBatch;
+      }
+    }
+    return batch;
+  }
+
+  /**
+   * Creates the pool on first native walk, so executors that fix permissions in Docker don't keep its threads
+   */
+  private synchronized ForkJoinPool getWalkPool() {
+    if (walkPool == null) {
+      walkPool = new ForkJoinPool(walkThreads);
+    }
+    return walkPool;
+  }
+
+  /**
+   * Does what 'chmod -R u+r dir/*; chown -R uid:gid dir/*' does for every directory, walking sub directories in parallel
+   */
+  private void fixNative(Collection<File> workingDirs) throws IOException {
+    List<Path> children = new ArrayList<>();
+    for (File workingDir : workingDirs) {
+      Path directory = workingDir.toPath();
+      if (!Files.isDirectory(directory, LinkOption.NOFOLLOW_LINKS)) {
+        continue;
+      }
+      try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+        for (Path child : stream) {
+          if (!child.getFileName().toString().startsWith(".")) {
+            children.add(child);
+          }
+        }
+      }
+    }
+    long start = System.currentTimeMillis();
+    try {
+      getWalkPool().invoke(new FixAction(children));
+    } catch (WalkException e) {
+      throw (IOException) e.getCause();
+    }
+    logger.debug("Permissions for {} fixed in {} ms.", workingDirs, System.currentTimeMillis() - start);
+  }
+
+  /**
+   * Reads mode and ownership with a single stat and only changes what differs. Symbolic links are not followed.
+   */
+  private void fix(Path path) throws IOException {
+    Map<String, Object> attributes;
     try {
-      dockerClient.pull(IMAGE);
+      attributes = Files.readAttributes(path, "unix:mode,uid,gid", LinkOption.NOFOLLOW_LINKS);
+    } catch (NoSuchFileException e) {
+      return;
+    }
+    int mode = (int) attributes.get("mode");
+    if ((mode & S_IFMT) != S_IFLNK && (mode & S_IRUSR) == 0) {
+      Files.setAttribute(path, "unix:mode", (mode & ~S_IFMT) | S_IRUSR, LinkOption.NOFOLLOW_LINKS);
+    }
+    if ((int) attributes.get("uid") != uid) {
+      Files.setAttribute(path, "unix:uid", uid, LinkOption.NOFOLLOW_LINKS);
+    }
+    if ((int) attributes.get("gid") != gid) {
+      Files.setAttribute(path, "unix:gid", gid, LinkOption.NOFOLLOW_LINKS);
+    }
+  }
+
+  /**
+   * Fixes a set of paths and forks one action per sub directory
+   */
+  private class FixAction extends RecursiveAction {
+
+    private static final long serialVersionUID = 5468712963215474327L;
+
+    private final List<Path> paths;
+
+    FixAction(List<Path> paths) {
+      this.paths = paths;
+    }
+
+    @Override
+    protected void compute() {
+      try {
+        List<FixAction> actions = new ArrayList<>();
+        for (Path path : paths) {
+          fix(path);
+          if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+            List<Path> children = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(path)) {
+              for (Path child : stream) {
+                children.add(child);
+              }
+            } catch (NoSuchFileException e) {
+              continue;
+            }
+            if (!children.isEmpty()) {
+              actions.add(new FixAction(children));
+            }
+          }
+        }
+        invokeAll(actions);
+      } catch (IOException e) {
+        throw new WalkException(e);
+      }
+    }
+  }
+
+  private static class WalkException extends RuntimeException {
+    private static final long serialVersionUID = -2165796143785402153L;
+
+    WalkException(IOException cause) {
+      super(cause);
+    }
+  }
+
+  /**
+   * Coalesces permission fixes of one root. Working directories of Jobs that ask while a walk is running are
+   * collected and fixed together by the next walk, so each directory is walked once.
+   * Every Job gets the result of the walk that covered its own directory.
+   */
+  private class RootBatch {
+
+    private final String rootId;
+
+    private boolean running = false;
+    private Walk next = new Walk();
+
+    RootBatch(String rootId) {
+      this.rootId = rootId;
+    }
+
+    void fix(File workingDir) throws IOException {
+      Walk walk;
+      synchronized (this) {
+        walk = next;
+        walk.workingDirs.add(workingDir);
+        while (running && !walk.done) {
+          try {
+            wait();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for permissions of " + rootId, e);
+          }
+        }
+        if (walk.done) {
+          if (walk.failure != null) {
+            throw walk.failure;
+          }
+          return;
+        }
+        running = true;
+        next = new Walk();
+      }
+      IOException error = null;
+      try {
+        fixNative(walk.workingDirs);
+      } catch (IOException e) {
+        error = e;
+      } finally {
+        synchronized (this) {
+          running = false;
+          walk.done = true;
+          walk.failure = error;
+          if (next.workingDirs.isEmpty()) {
+            batches.remove(rootId, this);
+          }
+          notifyAll();
+        }
+      }
+      if (error != null) {
+        throw error;
+      }
+    }
+  }
+
+  /**
+   * Working directories fixed by one walk and its outcome, guarded by the {@link RootBatch}
+   */
+  private static class Walk {
+    private final Set<File> workingDirs = new LinkedHashSet<>();
+    private boolean done = false;
+    private IOException failure;
+  }
+
+  private void executeInContainer(Job job) throws ContainerException {
+    try {
+      if (!dockerClient.isImagePresent(IMAGE)) {
+        dockerClient.pullOnce(IMAGE, new Callable<Void>() {
+          @Override
+          public Void call() throws Exception {
+            dockerClient.pull(IMAGE);
+            return null;
+          }
+        });
+      }
 
       Set<String> volumes = new HashSet<>();
       String physicalPath = storageConfig.getPhysicalExecutionBaseDir().getAbsolutePath();
@@ -0,0 +1,164 @@
+package org.rabix.executor.service.impl;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.configuration.Configuration;
+import org.rabix.executor.config.DockerConfigation;
+import org.rabix.executor.container.impl.DockerContainerHandler;
+import org.rabix.executor.container.impl.DockerContainerHandler.DockerClientLockDecorator;
+import org.rabix.executor.service.ImagePrefetchService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.spotify.docker.client.DockerException;
+
+/**
+ * Pulls Docker images announced by the engine with a bounded number of threads.
+ * Pulls go through {@link DockerClientLockDecorator#pullOnce}, so Jobs that need an image being prefetched wait for the same pull.
+ * Totals of prefetched and failed images are reported to the engine with executor heartbeats.
+ */
+public class ImagePrefetchServiceImpl implements ImagePrefetchService {
+
+  private final static Logger logger = LoggerFactory.getLogger(ImagePrefetchServiceImpl.class);
+
+  private final static int DEFAULT_THREADS = 2;
+
+  private final DockerClientLockDecorator dockerClient;
+  private final boolean isDockerSupported;
+  private final boolean isConfigAuthEnabled;
+
+  private final ExecutorService prefetchService;
+
+  private final AtomicLong prefetchedImages = new AtomicLong();
+  private final AtomicLong failedPrefetches = new AtomicLong();
+
+  @Inject
+  public ImagePrefetchServiceImpl(DockerClientLockDecorator dockerClient, DockerConfigation dockerConfig, Configuration configuration) {
+    this.dockerClient = dockerClient;
+    this.isDockerSupported = dockerConfig.isDockerSupported() && configuration.getBoolean("executor.image_prefetch.enabled", true);
+    this.isConfigAuthEnabled = dockerConfig.isDockerConfigAuthEnabled();
+
+    int threads = Math.max(1, configuration.getInt("executor.image_prefetch.threads", DEFAULT_THREADS));
+    this.prefetchService = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder().setNameFormat("image-prefetch-%d").setDaemon(true).build());
+  }
+
+  @Override
+  public void prefetch(String rootId, List<String> images) {
+    if (!isDockerSupported || images == null || images.isEmpty()) {
+      return;
+    }
+    Set<String> normalizedImages = new LinkedHashSet<>();
+    for (String image : images) {
+      if (image != null) {
+        normalizedImages.add(DockerContainerHandler.checkTagOrAddLatest(image));
+      }
+    }
+    logger.info("Prefetching {} Docker images for {}", normalizedImages.size(), rootId);
+
+    final PrefetchReport report = new PrefetchReport(rootId, normalizedImages.size());
+    for (final String image : normalizedImages) {
+      prefetchService.submit(new Runnable() {
+        @Override
+        public void run() {
+          prefetch(image, report);
+        }
+      });
+    }
+  }
+
+  @Override
+  public Long getPrefetchedImages() {
+    return isDockerSupported ? prefetchedImages.get() : null;
+  }
+
+  @Override
+  public Long getFailedPrefetches() {
+    return isDockerSupported ? failedPrefetches.get() : null;
+  }
+
+  private void prefetch(final String image, PrefetchReport report) {
+    long startTime = System.currentTimeMillis();
+    try {
+      if (dockerClient.isImagePresent(image)) {
+        report.present(image);
+        return;
+      }
+      boolean pulled = dockerClient.pullOnce(image, new Callable<Void>() {
+        @Override
+        public Void call() throws Exception {
+          DockerContainerHandler.pull(dockerClient, image, isConfigAuthEnabled);
+          return null;
+        }
+      });
+      Long size = pulled ? dockerClient.inspectImage(image).size() : null;
+      report.pulled(image, size, System.currentTimeMillis() - startTime);
+    } catch (DockerException e) {
+      report.failed(image, e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      report.failed(image, e);
+    } catch (RuntimeException e) {
+      report.failed(image, e);
+    }
+  }
+
+  /**
+   * Prefetch outcome for one root Job, logged when the last image is done. Each image is added to the service totals right away.
+   */
+  private class PrefetchReport {
+    private final String rootId;
+    private final AtomicInteger remaining;
+
+    private final AtomicInteger pulled = new AtomicInteger();
+    private final AtomicInteger present = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicLong bytes = new AtomicLong();
+
+    private PrefetchReport(String rootId, int images) {
+      this.rootId = rootId;
+      this.remaining = new AtomicInteger(images);
+    }
+
+    private void present(String image) {
+      logger.debug("Docker image {} is already present", image);
+      present.incrementAndGet();
+      prefetchedImages.incrementAndGet();
+      done();
+    }
+
+    private void pulled(String image, Long size, long millis) {
+      if (size != null) {
+        logger.info("Prefetched Docker image {} ({} bytes) in {} ms", image, size, millis);
+        bytes.addAndGet(size);
+      } else {
+        logger.info("Docker image {} was pulled by a concurrent pull in {} ms", image, millis);
+      }
+      pulled.incrementAndGet();
+      prefetchedImages.incrementAndGet();
+      done();
+    }
+
+    private void failed(String image, Exception e) {
+      logger.warn("Failed to prefetch Docker image " + image, e);
+      failed.incrementAndGet();
+      failedPrefetches.incrementAndGet();
+      done();
+    }
+
+    private void done() {
+      if (remaining.decrementAndGet() == 0) {
+        logger.info("Docker image prefetch for {} finished: {} pulled ({} bytes), {} present, {} failed", rootId, pulled.get(), bytes.get(), present.get(), failed.get());
+      }
+    }
+  }
+
+}
@@ -2,14 +2,19 @@ package org.rabix.executor.service.impl;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.commons.configuration.Configuration;
 import org.rabix.bindings.BindingException;
 import org.rabix.executor.engine.EngineStub;
 import org.rabix.executor.execution.JobHandlerCommandDispatcher;
@@ -27,125 +32,287 @@ import com.google.common.base.Preconditions;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 
+/**
+ * Keeps {@link JobData} per (context ID, Job ID) with queues of PENDING and ABORTING Jobs.
+ * Queues are processed as soon as a Job is queued or {@link JobFitter} frees resources. Terminal entries are evicted after the retention time.
+ * Number of active Jobs is counted on every status change.
+ */
 public class JobDataServiceImpl implements JobDataService {
 
   private final static Logger logger = LoggerFactory.getLogger(JobDataServiceImpl.class);
 
-  private final Map<String, Map<String, JobData>> jobDataMap = new HashMap<>();
+  private final static long EVICTION_INTERVAL_SECONDS = 60;
+
+  private final ConcurrentMap<JobDataKey, JobData> jobDataMap = new ConcurrentHashMap<>();
+
+  private final Queue<JobDataKey> pending = new ConcurrentLinkedQueue<>();
+  private final Queue<JobDataKey> aborting = new ConcurrentLinkedQueue<>();
+  private final Queue<TerminalEntry> terminal = new ConcurrentLinkedQueue<>();
+
+  private final AtomicInteger active = new AtomicInteger();
 
   private Provider<StopCommand> stopCommandProvider;
   private Provider<StartCommand> startCommandProvider;
   private Provider<StatusCommand> statusCommandProvider;
-  
+
   private JobHandlerCommandDispatcher jobHandlerCommandDispatcher;
 
   private EngineStub<?,?,?> engineStub;
-  
+
   private ScheduledExecutorService starter = Executors.newSingleThreadScheduledExecutor();
+  private final AtomicBoolean scheduled = new AtomicBoolean(false);
+  private volatile boolean initialized = false;
 
   private JobFitter jobFitter;
 
+  private final long retentionMillis;
+
   @Inject
   public JobDataServiceImpl(JobHandlerCommandDispatcher jobHandlerCommandDispatcher,
       Provider<StopCommand> stopCommandProvider, Provider<StartCommand> startCommandProvider,
-      Provider<StatusCommand> statusCommandProvider, JobFitter jobFitter) {
+      Provider<StatusCommand> statusCommandProvider, JobFitter jobFitter, Configuration configuration) {
     this.jobFitter = jobFitter;
     this.jobHandlerCommandDispatcher = jobHandlerCommandDispatcher;
     this.stopCommandProvider = stopCommandProvider;
     this.startCommandProvider = startCommandProvider;
     this.statusCommandProvider = statusCommandProvider;
+    this.retentionMillis = TimeUnit.SECONDS.toMillis(configuration.getLong("executor.job_data.retention_seconds", 600));
   }
-  
+
   @Override
   public void initialize(EngineStub<?,?,?> engineStub) {
     this.engineStub = engineStub;
-    this.starter.scheduleAtFixedRate(new JobStatusHandler(), 0, 100, TimeUnit.MILLISECONDS);
+    this.jobFitter.addFreeListener(new Runnable() {
+      @Override
+      public void run() {
+        schedule();
+      }
+    });
+    this.starter.scheduleWithFixedDelay(new Runnable() {
+      @Override
+      public void run() {
+        evictTerminal();
+      }
+    }, EVICTION_INTERVAL_SECONDS, EVICTION_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    this.initialized = true;
+    schedule();
   }
-  
+
   @Override
   public JobData find(String id, String contextId) {
     Preconditions.checkNotNull(id);
-    synchronized (jobDataMap) {
-      return getJobDataMap(contextId).get(id);
-    }
+    return jobDataMap.get(new JobDataKey(id, contextId));
   }
 
   @Override
   public List<JobData> find(JobDataStatus... statuses) {
     Preconditions.checkNotNull(statuses);
 
-    synchronized (jobDataMap) {
-      List<JobDataStatus> statusList = Arrays.asList(statuses);
-      List<JobData> jobDataByStatus = new ArrayList<>();
-      for (Entry<String, Map<String, JobData>> entry : jobDataMap.entrySet()) {
-        for (JobData jobData : entry.getValue().values()) {
-          if (statusList.contains(jobData.getStatus())) {
-            jobDataByStatus.add(jobData);
-          }
-        }
+    List<JobDataStatus> statusList = Arrays.asList(statuses);
+    List<JobData> jobDataByStatus = new ArrayList<>();
+    for (JobData jobData : jobDataMap.values()) {
+      if (statusList.contains(jobData.getStatus())) {
+        jobDataByStatus.add(jobData);
       }
-      return jobDataByStatus;
     }
+    return jobDataByStatus;
+  }
+
+  @Override
+  public int countActive() {
+    return active.get();
   }
 
   @Override
   public void save(JobData jobData) {
     Preconditions.checkNotNull(jobData);
-    synchronized (jobDataMap) {
-      getJobDataMap(jobData.getJob().getRootId()).put(jobData.getId(), jobData);
+    JobDataKey key = new JobDataKey(jobData.getId(), jobData.getJob().getRootId());
+    JobData previous = jobDataMap.put(key, jobData);
+    if (previous == null || !previous.getStatus().equals(jobData.getStatus())) {
+      count(previous, jobData);
+      index(key, jobData.getStatus());
     }
   }
-  
+
   @Override
   public JobData save(JobData jobData, String message, JobDataStatus status) {
     Preconditions.checkNotNull(jobData);
-    synchronized (jobDataMap) {
-      jobData = JobData.cloneWithStatusAndMessage(jobData, status, message);
-      save(jobData);
-      return jobData;
+    jobData = JobData.cloneWithStatusAndMessage(jobData, status, message);
+    save(jobData);
+    return jobData;
+  }
+
+  /**
+   * Replaces {@link JobData} only if it hasn't changed in the meantime
+   */
+  private boolean replace(JobDataKey key, JobData expected, JobData jobData) {
+    if (!jobDataMap.replace(key, expected, jobData)) {
+      return false;
+    }
+    count(expected, jobData);
+    index(key, jobData.getStatus());
+    return true;
+  }
+
+  /**
+   * Updates number of active Jobs after the entry has changed from previous to current
+   */
+  private void count(JobData previous, JobData current) {
+    int delta = (isActive(current) ? 1 : 0) - (isActive(previous) ? 1 : 0);
+    if (delta != 0) {
+      active.addAndGet(delta);
+    }
+  }
+
+  /**
+   * Puts the key to the queue of given status
+   */
+  private void index(JobDataKey key, JobDataStatus status) {
+    switch (status) {
+    case PENDING:
+      pending.add(key);
+      schedule();
+      break;
+    case ABORTING:
+      aborting.add(key);
+      schedule();
+      break;
+    case COMPLETED:
+    case FAILED:
+    case ABORTED:
+      terminal.add(new TerminalEntry(key, System.currentTimeMillis()));
+      break;
+    default:
+      break;
+    }
+  }
+
+  /**
+   * Schedules queue processing unless it's already scheduled
+   */
+  private void schedule() {
+    if (initialized && scheduled.compareAndSet(false, true)) {
+      starter.execute(new JobStatusHandler());
     }
   }
-  
-  private Map<String, JobData> getJobDataMap(String contextId) {
-    synchronized (jobDataMap) {
-      Map<String, JobData> jobList = jobDataMap.get(contextId);
-      if (jobList == null) {
-        jobList = new HashMap<>();
-        jobDataMap.put(contextId, jobList);
+
+  /**
+   * Removes terminal entries older than the retention time
+   */
+  private void evictTerminal() {
+    long threshold = System.currentTimeMillis() - retentionMillis;
+
+    TerminalEntry entry = null;
+    while ((entry = terminal.peek()) != null && entry.time < threshold) {
+      terminal.poll();
+      JobData jobData = jobDataMap.get(entry.key);
+      if (jobData != null && isTerminal(jobData.getStatus())) {
+        jobDataMap.remove(entry.key, jobData);
       }
-      return jobList;
     }
   }
-  
+
+  private boolean isActive(JobData jobData) {
+    return jobData != null && !isTerminal(jobData.getStatus());
+  }
+
+  private boolean isTerminal(JobDataStatus status) {
+    return JobDataStatus.COMPLETED.equals(status) || JobDataStatus.FAILED.equals(status) || JobDataStatus.ABORTED.equals(status);
+  }
+
   private class JobStatusHandler implements Runnable {
     @Override
     public void run() {
-      synchronized (jobDataMap) {
-        List<JobData> aborting = find(JobDataStatus.ABORTING);
-        for (JobData jobData : aborting) {
-          save(JobData.cloneWithStatus(jobData, JobDataStatus.ABORTED));
-          jobHandlerCommandDispatcher.dispatch(jobData, stopCommandProvider.get(), engineStub);
+      scheduled.set(false);
+
+      JobDataKey key = null;
+      while ((key = aborting.poll()) != null) {
+        JobData jobData = jobDataMap.get(key);
+        if (jobData == null || !JobDataStatus.ABORTING.equals(jobData.getStatus())) {
+          continue;
+        }
+        if (!replace(key, jobData, JobData.cloneWithStatus(jobData, JobDataStatus.ABORTED))) {
+          continue;
         }
+        jobHandlerCommandDispatcher.dispatch(jobData, stopCommandProvider.get(), engineStub);
+      }
 
-        List<JobData> pending = find(JobDataStatus.PENDING);
-
-        JobData jobData = null;
-        for (int i = 0; i < pending.size(); i++) {
-          try {
-            jobData = pending.get(i);
-            if (!jobFitter.tryToFit(jobData.getJob())) {
-              continue;
-            }
-            save(JobData.cloneWithStatus(jobData, JobDataStatus.READY));
-
-            jobHandlerCommandDispatcher.dispatch(jobData, startCommandProvider.get(), engineStub);
-            jobHandlerCommandDispatcher.dispatch(jobData, statusCommandProvider.get(), engineStub);
-          } catch (BindingException e) {
-            logger.error("Failed to schedule Job " + jobData.getId() + " for execution.", e);
+      Iterator<JobDataKey> pendingIterator = pending.iterator();
+      while (pendingIterator.hasNext()) {
+        key = pendingIterator.next();
+        JobData jobData = jobDataMap.get(key);
+        if (jobData == null || !JobDataStatus.PENDING.equals(jobData.getStatus())) {
+          pendingIterator.remove();
+          continue;
+        }
+        try {
+          if (!jobFitter.tryToFit(jobData.getJob())) {
+            continue;
           }
+          pendingIterator.remove();
+          if (!replace(key, jobData, JobData.cloneWithStatus(jobData, JobDataStatus.READY))) {
+            jobFitter.free(jobData.getJob());
+            continue;
+          }
+
+          jobHandlerCommandDispatcher.dispatch(jobData, startCommandProvider.get(), engineStub);
+          jobHandlerCommandDispatcher.dispatch(jobData, statusCommandProvider.get(), engineStub);
+        } catch (BindingException | RuntimeException e) {
+          logger.error("Failed to schedule Job " + jobData.getId() + " for execution.", e);
         }
       }
     }
   }
 
+  private static class TerminalEntry {
+    private final JobDataKey key;
+    private final long time;
+
+    private TerminalEntry(JobDataKey key, long time) {
+      this.key = key;
+      this.time = time;
+    }
+  }
+
+  private static class JobDataKey {
+    private final String id;
+    private final String contextId;
+
+    private JobDataKey(String id, String contextId) {
+      this.id = id;
+      this.contextId = contextId;
+    }
+
+    @Override
+    public int hashCode() {
+      final int prime = 31;
+      int result = 1;
+      result = prime * result + ((contextId == null) ? 0 : contextId.hashCode());
+      result = prime * result + ((id == null) ? 0 : id.hashCode());
+      return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj)
+        return true;
+      if (obj == null)
+        return false;
+      if (getClass() != obj.getClass())
+        return false;
+      JobDataKey other = (JobDataKey) obj;
+      if (contextId == null) {
+        if (other.contextId != null)
+          return false;
+      } else if (!contextId.equals(other.contextId))
+        return false;
+      if (id == null) {
+        if (other.id != null)
+          return false;
+      } else if (!id.equals(other.id))
+        return false;
+      return true;
+    }
+  }
+
 }
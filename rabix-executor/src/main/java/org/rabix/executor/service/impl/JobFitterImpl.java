@@ -1,5 +1,8 @@
 package org.rabix.executor.service.impl;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 import org.apache.commons.configuration.Configuration;
 import org.rabix.bindings.BindingException;
 import org.rabix.bindings.Bindings;
@@ -23,6 +26,8 @@ public class JobFitterImpl implements JobFitter {
   private boolean isEnabled;
   private int runningProcesses = 0;
 
+  private final List<Runnable> freeListeners = new CopyOnWriteArrayList<>();
+
   @Inject
   public JobFitterImpl(Configuration configuration) {
     this.isEnabled = configuration.getBoolean("resource.fitter.enabled", false);
@@ -43,13 +48,13 @@ public class JobFitterImpl implements JobFitter {
     ResourceRequirement resourceRequirement = bindings.getResourceRequirement(job);
 
     boolean cpuFits = true;
-    Long cpu = resourceRequirement.getCpuMin();
+    Long cpu = resourceRequirement != null ? resourceRequirement.getCpuMin() : null;
     if (cpu != null && cpu > availableCores) {
       cpuFits = false;
     }
 
     boolean memoryFits = true;
-    Long memory = resourceRequirement.getMemMinMB();
+    Long memory = resourceRequirement != null ? resourceRequirement.getMemMinMB() : null;
     if (memory != null && memory > availableMemory) {
       memoryFits = false;
     }
@@ -66,23 +71,49 @@ public class JobFitterImpl implements JobFitter {
   }
 
   @Override
-  public synchronized void free(Job job) throws BindingException {
+  public void free(Job job) throws BindingException {
+    if (freeResources(job)) {
+      for (Runnable listener : freeListeners) {
+        listener.run();
+      }
+    }
+  }
+
+  @Override
+  public void addFreeListener(Runnable listener) {
+    freeListeners.add(listener);
+  }
+
+  @Override
+  public synchronized Long getAvailableCores() {
+    return isEnabled ? Math.max(availableCores, 0) : null;
+  }
+
+  @Override
+  public synchronized Long getAvailableMemory() {
+    return isEnabled ? Math.max(availableMemory, 0) : null;
+  }
+
+  private synchronized boolean freeResources(Job job) throws BindingException {
     if (!isEnabled) {
-      return;
+      return false;
     }
 
     Bindings bindings = BindingsFactory.create(job);
     if (bindings.isSelfExecutable(job)) {
-      return;
+      return false;
     }
     
     ResourceRequirement resourceRequirement = bindings.getResourceRequirement(job);
 
     runningProcesses--;
-    availableCores += resourceRequirement.getCpuMin() != null ? resourceRequirement.getCpuMin() : 0;
-    availableMemory += resourceRequirement.getMemMinMB() != null ? resourceRequirement.getMemMinMB() : 0;
+    if (resourceRequirement != null) {
+      availableCores += resourceRequirement.getCpuMin() != null ? resourceRequirement.getCpuMin() : 0;
+      availableMemory += resourceRequirement.getMemMinMB() != null ? resourceRequirement.getMemMinMB() : 0;
+    }
 
     logger.info("Job {} freed reqsources. Number of running processes {}.", job.getId(), runningProcesses);
+    return true;
   }
   
 }
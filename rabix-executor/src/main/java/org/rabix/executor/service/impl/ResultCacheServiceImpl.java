@@ -2,94 +2,189 @@ package org.rabix.executor.service.impl;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.HashMap;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.configuration.Configuration;
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.lang3.StringUtils;
 import org.rabix.bindings.BindingException;
 import org.rabix.bindings.Bindings;
 import org.rabix.bindings.BindingsFactory;
+import org.rabix.bindings.json.JobValuesDeserializer;
+import org.rabix.bindings.model.DirectoryValue;
+import org.rabix.bindings.model.FileValue;
 import org.rabix.bindings.model.Job;
 import org.rabix.common.helper.ChecksumHelper;
 import org.rabix.common.helper.ChecksumHelper.HashAlgorithm;
 import org.rabix.common.helper.JSONHelper;
+import org.rabix.common.json.BeanSerializer;
 import org.rabix.executor.config.StorageConfiguration;
+import org.rabix.executor.config.StorageConfiguration.BackendStore;
 import org.rabix.executor.service.ResultCacheService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.google.inject.Inject;
 
+/**
+ * Caches outputs by the hash of the normalized app and the inputs. Input files are identified by their checksum or, if there is none, by size and modification time.
+ * Entries are kept in the index directory as one JSON file per key. The index is scanned on first use and trimmed to cache.max_entries in LRU order.
+ * Results in the older per Job directory layout are still found and copied to the index.
+ */
 public class ResultCacheServiceImpl implements ResultCacheService {
 
   private final static Logger logger = LoggerFactory.getLogger(ResultCacheService.class);
 
+  private final static String INDEX_DIRECTORY = ".index";
+  private final static String ENTRY_EXTENSION = ".json";
+
+  private final static int DEFAULT_MAX_ENTRIES = 10000;
+  private final static int APP_HASH_CACHE_SIZE = 100;
+
   private StorageConfiguration storageConfig;
-  private Map<String, CachedResult> cachedResults;
 
   private File cacheDirectory;
+  private File indexDirectory;
+
+  private final boolean storeResults;
+  private final int maxEntries;
+
+  private final Object indexLock = new Object();
+  private LinkedHashMap<String, File> index;
+
+  private final Cache<String, String> appHashes = CacheBuilder.newBuilder().maximumSize(APP_HASH_CACHE_SIZE).build();
+  private final ConcurrentMap<String, String> cachingDirHashes = new ConcurrentHashMap<>();
+
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+  private final AtomicLong storeCount = new AtomicLong();
+  private final AtomicLong evictionCount = new AtomicLong();
 
   @Inject
   public ResultCacheServiceImpl(StorageConfiguration storageConfig, Configuration configuration) {
     this.storageConfig = storageConfig;
-    this.cachedResults = new HashMap<>();
-    
+
     this.cacheDirectory = new File(configuration.getString("cache.directory"));
-    loadCachedResults(cacheDirectory, cacheDirectory, cachedResults);
+    this.indexDirectory = new File(configuration.getString("cache.index.directory", new File(cacheDirectory, INDEX_DIRECTORY).getPath()));
+    this.storeResults = configuration.getBoolean("cache.store_results", configuration.getBoolean("cache.is_enabled", true));
+    this.maxEntries = configuration.getInt("cache.max_entries", DEFAULT_MAX_ENTRIES);
   }
 
-  private void loadCachedResults(File cacheDirectory, File directory, final Map<String, CachedResult> cachedResults) {
+  @Override
+  public Map<String, Object> findResultsFromCache(Job job) {
     try {
-      if (!directory.isDirectory()) {
-        return;
-      }
-      
-      File[] files = directory.listFiles();
-      for (File file : files) {
-        loadCachedResults(cacheDirectory, file, cachedResults);
-      }
-      
-      String id = directory.getAbsolutePath().substring(cacheDirectory.getAbsolutePath().length());
-      if (StringUtils.isEmpty(id)) {
-        return;
-      }
-      id = id.substring(1).replace("/", ".").trim();
-      
-      if (StringUtils.isEmpty(id)) {
-        return;
+      if (!isIndexEmpty()) {
+        String key = createKey(job);
+        CachedResult cachedResult = readEntry(key);
+        if (cachedResult != null && isAvailable(cachedResult.getOutputs())) {
+          hitCount.incrementAndGet();
+          logger.info("Found cached results for Job {} with key {}", job.getName(), key);
+          return cachedResult.getOutputs();
+        }
+        logger.debug("Cache miss for Job {} with key {}", job.getName(), key);
+        if (cachedResult != null) {
+          removeEntry(key);
+        }
       }
-      File jobFile = new File(directory, "job.json");
-      if (!jobFile.exists()) {
-        return;
+      Map<String, Object> outputs = findLegacyResults(job);
+      if (outputs != null) {
+        hitCount.incrementAndGet();
+        logger.info("Found cached results for Job {} in the cache directory", job.getName());
+        storeResults(job, outputs);
+        return outputs;
       }
+    } catch (BindingException | IOException e) {
+      logger.error("Failed to look up cached results for Job " + job.getId(), e);
+    }
+    missCount.incrementAndGet();
+    return null;
+  }
 
-      String oldJobJson = FileUtils.readFileToString(jobFile);
-      JsonNode oldJobJsonNode = JSONHelper.readJsonNode(oldJobJson);
-      JsonNode oldAppJsonNode = oldJobJsonNode.get("app");
+  /**
+   * Looks up results in the layout used before the index (job.json and cwl.output.json in the directory named after the Job).
+   * Results are used only if the app didn't change and the inputs have the same fingerprint as the ones the index would use.
+   */
+  private Map<String, Object> findLegacyResults(Job job) throws BindingException, IOException {
+    File directory = new File(cacheDirectory, storageConfig.getWorkingDirWithoutRoot(job).getPath());
+    File jobFile = new File(directory, "job.json");
+    File resultFile = new File(directory, "cwl.output.json");
+    if (!jobFile.exists() || !resultFile.exists()) {
+      return null;
+    }
+    JsonNode oldJobJsonNode = JSONHelper.readJsonNode(FileUtils.readFileToString(jobFile));
 
-      String oldSerializedApp = JSONHelper.writeSortedWithoutIdentation(oldAppJsonNode);
-      String oldHash = ChecksumHelper.checksum(oldSerializedApp, HashAlgorithm.SHA1);
+    String oldHash = cachingDirHashes.get(directory.getAbsolutePath());
+    if (oldHash == null) {
+      oldHash = hash(oldJobJsonNode.get("app"));
+      cachingDirHashes.put(directory.getAbsolutePath(), oldHash);
+    }
+    Bindings bindings = BindingsFactory.create(job);
+    if (!oldHash.equals(getAppHash(bindings, job.getApp()))) {
+      return null;
+    }
 
-      File resultFile = new File(directory, "cwl.output.json");
-      if (resultFile.exists()) {
-        String resultJson = FileUtils.readFileToString(resultFile);
-        cachedResults.put(id, new CachedResult(oldHash, JSONHelper.readMap(resultJson)));
+    JsonNode oldInputsNode = oldJobJsonNode.get("inputs");
+    Map<String, Object> oldInputs = oldInputsNode != null ? JSONHelper.readMap(oldInputsNode) : new LinkedHashMap<String, Object>();
+    Object oldCommonInputs = bindings.translateToCommon(oldInputs);
+    if (!fingerprintInputs(oldCommonInputs).equals(fingerprintInputs(job.getInputs()))) {
+      logger.debug("Inputs of Job {} differ from the ones in {}", job.getName(), jobFile);
+      return null;
+    }
+    return JSONHelper.readMap(FileUtils.readFileToString(resultFile));
+  }
+
+  @Override
+  public void storeResults(Job job, Map<String, Object> outputs) {
+    if (!storeResults) {
+      return;
+    }
+    try {
+      String key = createKey(job);
+      File entryFile = getEntryFile(key);
+      File tempFile = new File(entryFile.getParentFile(), entryFile.getName() + ".tmp");
+      FileUtils.writeStringToFile(tempFile, BeanSerializer.serializeFull(new CachedResult(key, job.getName(), outputs)));
+      Files.move(tempFile.toPath(), entryFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+      synchronized (indexLock) {
+        loadIndex();
+        index.put(key, entryFile);
+        evict();
       }
-    } catch (IOException e) {
-      logger.error("Failed to traverse cached directory {}", directory);
+      storeCount.incrementAndGet();
+      logger.debug("Stored results of Job {} with key {}", job.getName(), key);
+    } catch (BindingException | IOException e) {
+      logger.error("Failed to store results of Job " + job.getId(), e);
     }
   }
-  
+
   @Override
-  public Map<String, Object> findResultsFromCache(Job job) {
-    CachedResult cachedResult = cachedResults.get(job.getName());
-    return cachedResult != null ? cachedResult.getResult() : null;
+  public CacheStats getCacheStats() {
+    return new CacheStats(hitCount.get(), missCount.get(), storeCount.get(), 0, 0, evictionCount.get());
   }
-  
+
   @Override
   public Map<String, Object> findResultsFromCachingDir(Job job) {
     try {
@@ -104,37 +199,31 @@ public class ResultCacheServiceImpl implements ResultCacheService {
       }
       logger.info("Cache directory exists. Directory {}", workingDir);
 
-      String serializedApp = JSONHelper.writeSortedWithoutIdentation(JSONHelper.readJsonNode(bindings.loadApp(job.getApp())));
-      String newHash = ChecksumHelper.checksum(serializedApp, HashAlgorithm.SHA1);
-
-      String oldJobJson = FileUtils.readFileToString(new File(workingDir, "job.json"));
-      JsonNode oldJobJsonNode = JSONHelper.readJsonNode(oldJobJson);
-      JsonNode oldAppJsonNode = oldJobJsonNode.get("app");
-
-      String oldSerializedApp = JSONHelper.writeSortedWithoutIdentation(oldAppJsonNode);
-      String oldHash = ChecksumHelper.checksum(oldSerializedApp, HashAlgorithm.SHA1);
-
-      if (!oldHash.equals(newHash)) {
+      File jobFile = new File(workingDir, "job.json");
+      if (!jobFile.exists()) {
         return null;
       }
+      JsonNode oldJobJsonNode = JSONHelper.readJsonNode(FileUtils.readFileToString(jobFile));
 
-      switch (bindings.getProtocolType()) {
-      case SB:
-      case DRAFT2:
-        File resultFile = new File(workingDir, "cwl.output.json");
-        if (resultFile.exists()) {
-          FileUtils.copyFile(resultFile, new File(storageConfig.getWorkingDir(job), "cwl.output.json"));
+      String oldHash = cachingDirHashes.get(workingDir.getAbsolutePath());
+      if (oldHash == null) {
+        oldHash = hash(oldJobJsonNode.get("app"));
+        cachingDirHashes.put(workingDir.getAbsolutePath(), oldHash);
+      }
+      if (!oldHash.equals(getAppHash(bindings, job.getApp()))) {
+        return null;
+      }
 
-          Map<String, Object> inputs = JSONHelper.readMap(oldJobJsonNode.get("inputs"));
-          @SuppressWarnings("unchecked")
-          Map<String, Object> commonInputs = (Map<String, Object>) bindings.translateToCommon(inputs);
-          Job newJob = Job.cloneWithInputs(job, commonInputs);
-          return bindings.postprocess(newJob, workingDir, null, null).getOutputs();
-        }
-        break;
-      default:
-        break;
+      File resultFile = new File(workingDir, "cwl.output.json");
+      if (resultFile.exists()) {
+        FileUtils.copyFile(resultFile, new File(storageConfig.getWorkingDir(job), "cwl.output.json"));
       }
+
+      Map<String, Object> inputs = JSONHelper.readMap(oldJobJsonNode.get("inputs"));
+      @SuppressWarnings("unchecked")
+      Map<String, Object> commonInputs = (Map<String, Object>) bindings.translateToCommon(inputs);
+      Job newJob = Job.cloneWithInputs(job, commonInputs);
+      return bindings.postprocess(newJob, workingDir, null, null).getOutputs();
     } catch (BindingException e) {
       logger.error("Failed to find Bindings", e);
     } catch (IOException e) {
@@ -143,31 +232,247 @@ public class ResultCacheServiceImpl implements ResultCacheService {
     return null;
   }
 
+  /**
+   * Creates key from the normalized app and the inputs with files replaced by their fingerprints
+   */
+  private String createKey(Job job) throws BindingException, IOException {
+    Bindings bindings = BindingsFactory.create(job);
+    String appHash = getAppHash(bindings, job.getApp());
+    return ChecksumHelper.sha1(appHash + fingerprintInputs(job.getInputs()));
+  }
+
+  private String fingerprintInputs(Object inputs) throws IOException {
+    return JSONHelper.writeSortedWithoutIdentation(JSONHelper.convertToJsonNode(fingerprint(inputs)));
+  }
+
+  private String getAppHash(Bindings bindings, String app) throws BindingException {
+    String appHash = appHashes.getIfPresent(app);
+    if (appHash == null) {
+      appHash = hash(JSONHelper.readJsonNode(bindings.loadApp(app)));
+      appHashes.put(app, appHash);
+    }
+    return appHash;
+  }
+
+  private String hash(JsonNode app) {
+    return ChecksumHelper.checksum(JSONHelper.writeSortedWithoutIdentation(app), HashAlgorithm.SHA1);
+  }
+
+  private Object fingerprint(Object value) throws IOException {
+    if (value instanceof FileValue) {
+      return fingerprint((FileValue) value);
+    }
+    if (value instanceof Map<?, ?>) {
+      Map<Object, Object> result = new LinkedHashMap<>();
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+        result.put(entry.getKey(), fingerprint(entry.getValue()));
+      }
+      return result;
+    }
+    if (value instanceof List<?>) {
+      List<Object> result = new ArrayList<>();
+      for (Object element : (List<?>) value) {
+        result.add(fingerprint(element));
+      }
+      return result;
+    }
+    return value;
+  }
+
+  private Map<String, Object> fingerprint(FileValue fileValue) throws IOException {
+    Map<String, Object> result = new LinkedHashMap<>();
+    result.put("class", fileValue instanceof DirectoryValue ? "Directory" : "File");
+    result.put("name", fileValue.getName());
+    if (fileValue.getContents() != null) {
+      result.put("contents", fileValue.getContents());
+    }
+
+    String path = fileValue.getPath() != null ? fileValue.getPath() : fileValue.getLocation();
+    File file = path != null ? new File(path) : null;
+    if (fileValue.getChecksum() != null) {
+      result.put("checksum", fileValue.getChecksum());
+    } else if (file != null && file.isFile()) {
+      result.put("size", file.length());
+      result.put("modified", file.lastModified());
+    } else if (file != null && file.isDirectory()) {
+      result.put("listing", fingerprintDirectory(file));
+    } else {
+      result.put("location", path);
+    }
+
+    if (fileValue.getSecondaryFiles() != null) {
+      result.put("secondaryFiles", fingerprint(fileValue.getSecondaryFiles()));
+    }
+    return result;
+  }
+
+  private String fingerprintDirectory(File directory) throws IOException {
+    final Path root = directory.toPath();
+    final List<String> entries = new ArrayList<>();
+    Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+      @Override
+      public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+        entries.add(root.relativize(file) + ":" + attrs.size() + ":" + attrs.lastModifiedTime().toMillis());
+        return FileVisitResult.CONTINUE;
+      }
+    });
+    Collections.sort(entries);
+
+    StringBuilder builder = new StringBuilder();
+    for (String entry : entries) {
+      builder.append(entry).append('\n');
+    }
+    return ChecksumHelper.sha1(builder.toString());
+  }
+
+  /**
+   * Checks that output files of the cached execution still exist
+   */
+  private boolean isAvailable(Object value) {
+    if (!BackendStore.LOCAL.equals(storageConfig.getBackendStore())) {
+      return true;
+    }
+    if (value instanceof FileValue) {
+      FileValue fileValue = (FileValue) value;
+      if (fileValue.getPath() != null && !new File(fileValue.getPath()).exists()) {
+        return false;
+      }
+      return fileValue.getSecondaryFiles() == null || isAvailable(fileValue.getSecondaryFiles());
+    }
+    if (value instanceof Map<?, ?>) {
+      return isAvailable(((Map<?, ?>) value).values());
+    }
+    if (value instanceof Iterable<?>) {
+      for (Object element : (Iterable<?>) value) {
+        if (!isAvailable(element)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private File getEntryFile(String key) throws IOException {
+    File directory = new File(indexDirectory, key.substring(0, 2));
+    if (!directory.exists() && !directory.mkdirs() && !directory.exists()) {
+      throw new IOException("Failed to create cache directory " + directory);
+    }
+    return new File(directory, key + ENTRY_EXTENSION);
+  }
+
+  private boolean isIndexEmpty() {
+    synchronized (indexLock) {
+      loadIndex();
+      return index.isEmpty();
+    }
+  }
+
+  private CachedResult readEntry(String key) throws IOException {
+    File entryFile = null;
+    synchronized (indexLock) {
+      loadIndex();
+      entryFile = index.get(key);
+    }
+    if (entryFile == null) {
+      return null;
+    }
+    try {
+      CachedResult cachedResult = BeanSerializer.deserialize(FileUtils.readFileToString(entryFile), CachedResult.class);
+      entryFile.setLastModified(System.currentTimeMillis());
+      return cachedResult;
+    } catch (RuntimeException e) {
+      logger.warn("Failed to read cache entry {}. Removing it.", entryFile);
+      removeEntry(key);
+      return null;
+    }
+  }
+
+  private void removeEntry(String key) {
+    synchronized (indexLock) {
+      File entryFile = index.remove(key);
+      if (entryFile != null) {
+        entryFile.delete();
+      }
+    }
+  }
+
+  /**
+   * Scans the index directory once. Least recently used entries come first.
+   */
+  private void loadIndex() {
+    if (index != null) {
+      return;
+    }
+    index = new LinkedHashMap<>(16, 0.75f, true);
+
+    List<File> entryFiles = new ArrayList<>();
+    File[] directories = indexDirectory.listFiles();
+    if (directories != null) {
+      for (File directory : directories) {
+        File[] files = directory.listFiles();
+        if (files == null) {
+          continue;
+        }
+        for (File file : files) {
+          if (file.getName().endsWith(ENTRY_EXTENSION)) {
+            entryFiles.add(file);
+          }
+        }
+      }
+    }
+    File[] sorted = entryFiles.toArray(new File[entryFiles.size()]);
+    Arrays.sort(sorted, new Comparator<File>() {
+      @Override
+      public int compare(File file1, File file2) {
+        return Long.compare(file1.lastModified(), file2.lastModified());
+      }
+    });
+    for (File file : sorted) {
+      String name = file.getName();
+      index.put(name.substring(0, name.length() - ENTRY_EXTENSION.length()), file);
+    }
+    logger.info("Loaded {} cached results from {}", index.size(), indexDirectory);
+    evict();
+  }
+
+  private void evict() {
+    Iterator<Map.Entry<String, File>> iterator = index.entrySet().iterator();
+    while (index.size() > maxEntries && iterator.hasNext()) {
+      Map.Entry<String, File> eldest = iterator.next();
+      iterator.remove();
+      eldest.getValue().delete();
+      evictionCount.incrementAndGet();
+    }
+  }
+
+  @JsonIgnoreProperties(ignoreUnknown = true)
   public static class CachedResult {
-    private String hash;
-    private Map<String, Object> result;
-    
+    @JsonProperty("key")
+    private final String key;
+    @JsonProperty("name")
+    private final String name;
+    @JsonProperty("outputs")
+    @JsonDeserialize(using = JobValuesDeserializer.class)
+    private final Map<String, Object> outputs;
+
     @JsonCreator
-    public CachedResult(String hash, Map<String, Object> result) {
-      this.hash = hash;
-      this.result = result;
+    public CachedResult(@JsonProperty("key") String key, @JsonProperty("name") String name, @JsonProperty("outputs") Map<String, Object> outputs) {
+      this.key = key;
+      this.name = name;
+      this.outputs = outputs;
     }
 
-    public String getHash() {
-      return hash;
+    public String getKey() {
+      return key;
     }
 
-    public void setHash(String hash) {
-      this.hash = hash;
+    public String getName() {
+      return name;
     }
 
-    public Map<String, Object> getResult() {
-      return result;
+    public Map<String, Object> getOutputs() {
+      return outputs;
     }
 
-    public void setResult(Map<String, Object> result) {
-      this.result = result;
-    }
-    
   }
 }
@@ -0,0 +1,171 @@
+package org.rabix.executor.service.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.io.FileUtils;
+import org.rabix.bindings.model.Job;
+import org.rabix.bindings.model.Job.JobStatus;
+import org.rabix.executor.config.StorageConfiguration;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+@Test(groups = { "functional" })
+public class FilePermissionServiceImplTest {
+
+  private File executionDir;
+  private int creator;
+  private int owner;
+  private int group;
+  private StorageConfiguration storageConfig;
+
+  @BeforeClass
+  public void before() throws IOException {
+    executionDir = Files.createTempDirectory("permissions").toFile();
+    creator = getUid(executionDir);
+    owner = creator == 0 ? 4321 : creator; // only root can hand files over
+    group = creator == 0 ? 4321 : (int) Files.getAttribute(executionDir.toPath(), "unix:gid");
+    storageConfig = new StorageConfiguration() {
+      @Override
+      public File getWorkingDir(Job job) {
+        return new File(executionDir, job.getName());
+      }
+
+      @Override
+      public File getRootDir(String rootId, Map<String, Object> config) {
+        return executionDir;
+      }
+
+      @Override
+      public File getWorkingDirWithoutRoot(Job job) {
+        return getWorkingDir(job);
+      }
+
+      @Override
+      public File getPhysicalExecutionBaseDir() {
+        return executionDir;
+      }
+
+      @Override
+      public BackendStore getBackendStore() {
+        return BackendStore.LOCAL;
+      }
+    };
+  }
+
+  @AfterClass
+  public void after() throws IOException {
+    FileUtils.deleteDirectory(executionDir);
+  }
+
+  @Test
+  public void testNativeWalk() throws Exception {
+    File workingDir = createWorkingDir("single");
+
+    new FilePermissionServiceImpl(null, storageConfig, configuration(false)).execute(job("single"));
+
+    assertFixed(new File(workingDir, "out.txt"));
+    assertFixed(new File(workingDir, "sub"));
+    assertFixed(new File(workingDir, "sub/nested.txt"));
+    assertFixed(new File(workingDir, "sub/.nested"));
+
+    assertUntouched(new File(workingDir, ".hidden"));
+    Assert.assertEquals(getUid(workingDir), creator, "Working directory itself is left as it is");
+  }
+
+  @Test
+  public void testBatchPerRoot() throws Exception {
+    final FilePermissionServiceImpl service = new FilePermissionServiceImpl(null, storageConfig, configuration(true));
+
+    List<String> names = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      names.add("batch_" + i);
+      createWorkingDir("batch_" + i);
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Void>> results = new ArrayList<>();
+      for (final String name : names) {
+        results.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() throws Exception {
+            service.execute(job(name));
+            return null;
+          }
+        }));
+      }
+      for (Future<Void> result : results) {
+        result.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    for (String name : names) {
+      File workingDir = new File(executionDir, name);
+      assertFixed(new File(workingDir, "out.txt"));
+      assertFixed(new File(workingDir, "sub/nested.txt"));
+      assertUntouched(new File(workingDir, ".hidden"));
+    }
+  }
+
+  private File createWorkingDir(String name) throws IOException {
+    File workingDir = new File(executionDir, name);
+    FileUtils.writeStringToFile(new File(workingDir, "out.txt"), "out");
+    FileUtils.writeStringToFile(new File(workingDir, "sub/nested.txt"), "nested");
+    FileUtils.writeStringToFile(new File(workingDir, "sub/.nested"), "nested");
+    FileUtils.writeStringToFile(new File(workingDir, ".hidden"), "hidden");
+
+    for (String path : new String[] { "out.txt", "sub/nested.txt", "sub/.nested", ".hidden" }) {
+      Files.setPosixFilePermissions(new File(workingDir, path).toPath(), PosixFilePermissions.fromString("-w-------"));
+    }
+    return workingDir;
+  }
+
+  private Configuration configuration(boolean batchPerRoot) {
+    Configuration configuration = new BaseConfiguration();
+    configuration.setProperty("executor.permission.uid", Integer.toString(owner));
+    configuration.setProperty("executor.permission.gid", Integer.toString(group));
+    configuration.setProperty("executor.permission.batch_per_root", batchPerRoot);
+    configuration.setProperty("executor.permission.threads", 2);
+    return configuration;
+  }
+
+  private Job job(String name) {
+    return new Job(name, "root", "root", name, null, JobStatus.RUNNING, null, new HashMap<String, Object>(), null, null, null, null);
+  }
+
+  private void assertFixed(File file) throws IOException {
+    Assert.assertTrue(Files.getPosixFilePermissions(file.toPath(), LinkOption.NOFOLLOW_LINKS).contains(PosixFilePermission.OWNER_READ), file + " is readable");
+    Assert.assertEquals(getUid(file), owner);
+    Assert.assertEquals(Files.getAttribute(file.toPath(), "unix:gid", LinkOption.NOFOLLOW_LINKS), group);
+  }
+
+  private void assertUntouched(File file) throws IOException {
+    Assert.assertFalse(Files.getPosixFilePermissions(file.toPath(), LinkOption.NOFOLLOW_LINKS).contains(PosixFilePermission.OWNER_READ), file + " is skipped");
+    Assert.assertEquals(getUid(file), creator);
+  }
+
+  private int getUid(File file) throws IOException {
+    Path path = file.toPath();
+    return (int) Files.getAttribute(path, "unix:uid", LinkOption.NOFOLLOW_LINKS);
+  }
+
+}
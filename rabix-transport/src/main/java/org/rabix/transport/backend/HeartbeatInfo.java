@@ -1,18 +1,50 @@
 package org.rabix.transport.backend;
 
+import org.rabix.common.helper.CloneHelper.DeepCopyable;
+
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
-public class HeartbeatInfo {
+public class HeartbeatInfo implements DeepCopyable {
   @JsonProperty("id")
   private String id;
   @JsonProperty("timestamp")
   private Long timestamp;
+  @JsonProperty("freeSlots")
+  private Integer freeSlots;
+  @JsonProperty("availableCores")
+  private Long availableCores;
+  @JsonProperty("availableMemoryMB")
+  private Long availableMemoryMB;
+  @JsonProperty("receivedJobs")
+  private Long receivedJobs;
+  @JsonProperty("prefetchedImages")
+  private Long prefetchedImages;
+  @JsonProperty("failedPrefetches")
+  private Long failedPrefetches;
+  
+  public HeartbeatInfo(String id, Long timestamp) {
+    this(id, timestamp, null, null, null, null);
+  }
   
   @JsonCreator
-  public HeartbeatInfo(@JsonProperty("id") String id, @JsonProperty("timestamp") Long timestamp) {
+  public HeartbeatInfo(@JsonProperty("id") String id, @JsonProperty("timestamp") Long timestamp,
+      @JsonProperty("freeSlots") Integer freeSlots, @JsonProperty("availableCores") Long availableCores,
+      @JsonProperty("availableMemoryMB") Long availableMemoryMB, @JsonProperty("receivedJobs") Long receivedJobs) {
     this.id = id;
     this.timestamp = timestamp;
+    this.freeSlots = freeSlots;
+    this.availableCores = availableCores;
+    this.availableMemoryMB = availableMemoryMB;
+    this.receivedJobs = receivedJobs;
+  }
+
+  @Override
+  public HeartbeatInfo deepCopy() {
+    HeartbeatInfo heartbeatInfo = new HeartbeatInfo(id, timestamp, freeSlots, availableCores, availableMemoryMB, receivedJobs);
+    heartbeatInfo.setPrefetchedImages(prefetchedImages);
+    heartbeatInfo.setFailedPrefetches(failedPrefetches);
+    return heartbeatInfo;
   }
 
   public String getId() {
@@ -30,4 +62,71 @@ public class HeartbeatInfo {
   public void setTimestamp(Long timestamp) {
     this.timestamp = timestamp;
   }
-}
\ No newline at end of file
+
+  /**
+   * Number of Jobs the backend can accept, null if it's not limited
+   */
+  public Integer getFreeSlots() {
+    return freeSlots;
+  }
+
+  public void setFreeSlots(Integer freeSlots) {
+    this.freeSlots = freeSlots;
+  }
+
+  /**
+   * Number of free cores, null if the backend doesn't track them
+   */
+  public Long getAvailableCores() {
+    return availableCores;
+  }
+
+  public void setAvailableCores(Long availableCores) {
+    this.availableCores = availableCores;
+  }
+
+  /**
+   * Free memory in MB, null if the backend doesn't track it
+   */
+  public Long getAvailableMemoryMB() {
+    return availableMemoryMB;
+  }
+
+  public void setAvailableMemoryMB(Long availableMemoryMB) {
+    this.availableMemoryMB = availableMemoryMB;
+  }
+
+  /**
+   * Number of Jobs the backend has received since it started, null if it doesn't count them.
+   * Capacity in the same heartbeat already includes these Jobs.
+   */
+  public Long getReceivedJobs() {
+    return receivedJobs;
+  }
+
+  public void setReceivedJobs(Long receivedJobs) {
+    this.receivedJobs = receivedJobs;
+  }
+
+  /**
+   * Number of Docker images the backend has prefetched or found present since it started, null if it doesn't prefetch them
+   */
+  public Long getPrefetchedImages() {
+    return prefetchedImages;
+  }
+
+  public void setPrefetchedImages(Long prefetchedImages) {
+    this.prefetchedImages = prefetchedImages;
+  }
+
+  /**
+   * Number of Docker images the backend has failed to prefetch since it started, null if it doesn't prefetch them
+   */
+  public Long getFailedPrefetches() {
+    return failedPrefetches;
+  }
+
+  public void setFailedPrefetches(Long failedPrefetches) {
+    this.failedPrefetches = failedPrefetches;
+  }
+}
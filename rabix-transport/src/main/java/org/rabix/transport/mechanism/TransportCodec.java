@@ -0,0 +1,175 @@
+package org.rabix.transport.mechanism;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.apache.commons.configuration.Configuration;
+import org.rabix.common.helper.JSONHelper;
+import org.rabix.common.json.BeanPropertyView;
+import org.rabix.common.json.processor.BeanProcessor;
+import org.rabix.common.json.processor.BeanProcessorException;
+import org.rabix.common.json.processor.BeanProcessorFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Encodes transport messages as compact JSON or Smile, optionally deflated.
+ * Incoming messages are recognized by their first bytes, so nodes that encode differently (including ones that send plain JSON) can talk to each other.
+ */
+public class TransportCodec {
+
+  public static enum Format {
+    JSON,
+    SMILE
+  }
+
+  public static enum Compression {
+    NONE,
+    DEFLATE
+  }
+
+  public final static int COMPRESSION_THRESHOLD = 1024;
+
+  private final static byte[] SMILE_HEADER = new byte[] { ':', ')', '\n' };
+
+  private final static ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+
+  static {
+    smileMapper.configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+  }
+
+  private final static ObjectWriter jsonWriter = JSONHelper.mapperWithoutIdentation.writerWithView(BeanPropertyView.Full.class);
+  private final static ObjectWriter smileWriter = smileMapper.writerWithView(BeanPropertyView.Full.class);
+
+  private final Format format;
+  private final Compression compression;
+
+  public TransportCodec(Format format, Compression compression) {
+    this.format = format;
+    this.compression = compression;
+  }
+
+  /**
+   * Creates codec from transport.codec.format and transport.codec.compression. Defaults to uncompressed JSON.
+   */
+  public static TransportCodec create(Configuration configuration) {
+    Format format = Format.valueOf(configuration.getString("transport.codec.format", Format.JSON.name()).toUpperCase());
+    Compression compression = Compression.valueOf(configuration.getString("transport.codec.compression", Compression.NONE.name()).toUpperCase());
+    return new TransportCodec(format, compression);
+  }
+
+  public Format getFormat() {
+    return format;
+  }
+
+  public Compression getCompression() {
+    return compression;
+  }
+
+  /**
+   * Is the output plain JSON text that older nodes can read
+   */
+  public boolean isPlainText() {
+    return Format.JSON.equals(format) && Compression.NONE.equals(compression);
+  }
+
+  public byte[] encode(Object entity) {
+    try {
+      byte[] payload = Format.SMILE.equals(format) ? smileWriter.writeValueAsBytes(entity) : jsonWriter.writeValueAsBytes(entity);
+      if (Compression.DEFLATE.equals(compression) && payload.length > COMPRESSION_THRESHOLD) {
+        return deflate(payload);
+      }
+      return payload;
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to encode " + entity, e);
+    }
+  }
+
+  public <T> T decode(byte[] payload, Class<T> clazz) throws BeanProcessorException {
+    try {
+      byte[] data = isDeflated(payload) ? inflate(payload) : payload;
+
+      T bean = isSmile(data) ? smileMapper.readValue(data, clazz) : JSONHelper.mapper.readValue(data, clazz);
+      BeanProcessor<T> processor = BeanProcessorFactory.create(clazz);
+      if (processor != null) {
+        return processor.process(bean);
+      }
+      return bean;
+    } catch (IOException | DataFormatException e) {
+      throw new BeanProcessorException("Failed to decode message payload", e);
+    }
+  }
+
+  public <T> T decode(String payload, Class<T> clazz) throws BeanProcessorException {
+    return decode(payload.getBytes(StandardCharsets.UTF_8), clazz);
+  }
+
+  private static boolean isSmile(byte[] data) {
+    if (data.length < SMILE_HEADER.length) {
+      return false;
+    }
+    for (int i = 0; i < SMILE_HEADER.length; i++) {
+      if (data[i] != SMILE_HEADER[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Checks for zlib header. JSON and Smile payloads never start with it.
+   */
+  private static boolean isDeflated(byte[] data) {
+    if (data.length < 2) {
+      return false;
+    }
+    int first = data[0] & 0xFF;
+    int second = data[1] & 0xFF;
+    return (first & 0x0F) == Deflater.DEFLATED && ((first << 8) | second) % 31 == 0;
+  }
+
+  private static byte[] deflate(byte[] data) {
+    Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try {
+      deflater.setInput(data);
+      deflater.finish();
+
+      ByteArrayOutputStream output = new ByteArrayOutputStream(data.length / 4 + 16);
+      byte[] buffer = new byte[8192];
+      while (!deflater.finished()) {
+        output.write(buffer, 0, deflater.deflate(buffer));
+      }
+      return output.toByteArray();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  private static byte[] inflate(byte[] data) throws DataFormatException {
+    Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(data);
+
+      ByteArrayOutputStream output = new ByteArrayOutputStream(data.length * 4);
+      byte[] buffer = new byte[8192];
+      while (!inflater.finished()) {
+        int count = inflater.inflate(buffer);
+        if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          throw new DataFormatException("Truncated deflated payload");
+        }
+        output.write(buffer, 0, count);
+      }
+      return output.toByteArray();
+    } finally {
+      inflater.end();
+    }
+  }
+
+}
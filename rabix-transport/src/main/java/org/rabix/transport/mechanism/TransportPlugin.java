@@ -1,9 +1,16 @@
 package org.rabix.transport.mechanism;
 
+import java.util.List;
+
 public interface TransportPlugin<Q extends TransportQueue> {
 
   <T> ResultPair<T> send(Q destinationQueue, T entity);
 
+  /**
+   * Sends entities to the same queue at once. Plugins that can't batch send them one by one.
+   */
+  <T> ResultPair<T> sendBatch(Q destinationQueue, List<T> entities);
+
   <T> void startReceiver(Q sourceQueue, Class<T> clazz, ReceiveCallback<T> receiveCallback, ErrorCallback errorCallback);
   
   void stopReceiver(Q sourceQueue);
@@ -1,10 +1,13 @@
 package org.rabix.transport.mechanism.impl.activemq;
 
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
+import javax.jms.BytesMessage;
 import javax.jms.Connection;
 import javax.jms.DeliveryMode;
 import javax.jms.Destination;
@@ -17,8 +20,8 @@ import javax.jms.TextMessage;
 
 import org.apache.activemq.pool.PooledConnectionFactory;
 import org.apache.commons.configuration.Configuration;
-import org.rabix.common.json.BeanSerializer;
 import org.rabix.common.json.processor.BeanProcessorException;
+import org.rabix.transport.mechanism.TransportCodec;
 import org.rabix.transport.mechanism.TransportPlugin;
 import org.rabix.transport.mechanism.TransportPluginException;
 import org.rabix.transport.mechanism.TransportPluginType;
@@ -31,11 +34,14 @@ public class TransportPluginActiveMQ implements TransportPlugin<TransportQueueAc
   
   private PooledConnectionFactory connectionFactory;
   
+  private final TransportCodec codec;
+  
   private ConcurrentMap<TransportQueueActiveMQ, Receiver<?>> receivers = new ConcurrentHashMap<>();
   
   private ExecutorService receiverThreadPool = Executors.newCachedThreadPool();
 
   public TransportPluginActiveMQ(Configuration configuration) throws TransportPluginException {
+    codec = TransportCodec.create(configuration);
     connectionFactory = new PooledConnectionFactory(TransportConfigActiveMQ.getBroker(configuration));
     connectionFactory.setIdleTimeout(5000);
     connectionFactory.setMaxConnections(10);
@@ -58,8 +64,15 @@ public class TransportPluginActiveMQ implements TransportPlugin<TransportQueueAc
       MessageProducer producer = session.createProducer(destination);
       producer.setDeliveryMode(DeliveryMode.NON_PERSISTENT);
 
-      String payload = BeanSerializer.serializeFull(entity);
-      TextMessage message = session.createTextMessage(payload);
+      Message message = null;
+      byte[] payload = codec.encode(entity);
+      if (codec.isPlainText()) {
+        message = session.createTextMessage(new String(payload, StandardCharsets.UTF_8));
+      } else {
+        BytesMessage bytesMessage = session.createBytesMessage();
+        bytesMessage.writeBytes(payload);
+        message = bytesMessage;
+      }
       producer.send(message);
       return ResultPair.<T> success();
     } catch (JMSException e) {
@@ -74,6 +87,17 @@ public class TransportPluginActiveMQ implements TransportPlugin<TransportQueueAc
     }
   }
 
+  @Override
+  public <T> ResultPair<T> sendBatch(TransportQueueActiveMQ queue, List<T> entities) {
+    for (T entity : entities) {
+      ResultPair<T> result = send(queue, entity);
+      if (!result.isSuccess()) {
+        return result;
+      }
+    }
+    return ResultPair.<T> success();
+  }
+
   @Override
   public TransportPluginType getType() {
     return TransportPluginType.ACTIVE_MQ;
@@ -131,9 +155,14 @@ public class TransportPluginActiveMQ implements TransportPlugin<TransportQueueAc
 
         while (!isStopped) {
           Message message = consumer.receive();
-          TextMessage textMessage = (TextMessage) message;
-          String text = textMessage.getText();
-          callback.handleReceive(BeanSerializer.deserialize(text, clazz));
+          if (message instanceof TextMessage) {
+            callback.handleReceive(codec.decode(((TextMessage) message).getText(), clazz));
+          } else {
+            BytesMessage bytesMessage = (BytesMessage) message;
+            byte[] payload = new byte[(int) bytesMessage.getBodyLength()];
+            bytesMessage.readBytes(payload);
+            callback.handleReceive(codec.decode(payload, clazz));
+          }
         }
       } catch (JMSException e) {
         logger.error("Failed to receive a message from " + queue, e);
@@ -1,12 +1,17 @@
 package org.rabix.transport.mechanism.impl.local;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.configuration.Configuration;
 import org.rabix.common.VMQueues;
+import org.rabix.common.helper.CloneHelper.DeepCopyable;
 import org.rabix.common.json.BeanSerializer;
 import org.rabix.common.json.processor.BeanProcessorException;
 import org.rabix.transport.mechanism.TransportPlugin;
@@ -15,28 +20,62 @@ import org.rabix.transport.mechanism.TransportPluginType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * In-JVM transport over bounded {@link VMQueues}. Entities that implement {@link DeepCopyable} are copied and handed over as objects,
+ * anything else (or everything, if transport.local.serialize is set) crosses the queue as JSON. Senders block while the queue is full.
+ */
 public class TransportPluginLocal implements TransportPlugin<TransportQueueLocal> {
 
   private static final Logger logger = LoggerFactory.getLogger(TransportPluginLocal.class);
   
+  private final static int DEFAULT_QUEUE_CAPACITY = 10000;
+  private final static int DEFAULT_BATCH_SIZE = 100;
+  
+  private final static long POLL_TIMEOUT_MILLIS = 500;
+  
   private ConcurrentMap<TransportQueueLocal, Receiver<?>> receivers = new ConcurrentHashMap<>();
   
   private ExecutorService receiverThreadPool = Executors.newCachedThreadPool();
   
+  private final boolean serialize;
+  private final int queueCapacity;
+  private final int batchSize;
+  
   public TransportPluginLocal(Configuration configuration) throws TransportPluginException {
+    this.serialize = configuration.getBoolean("transport.local.serialize", false);
+    this.queueCapacity = configuration.getInt("transport.local.queue_capacity", DEFAULT_QUEUE_CAPACITY);
+    this.batchSize = Math.max(1, configuration.getInt("transport.local.batch_size", DEFAULT_BATCH_SIZE));
+    if (queueCapacity <= 0) {
+      throw new TransportPluginException("Invalid transport.local.queue_capacity " + queueCapacity);
+    }
   }
 
+  /**
+   * Waits for room in the queue for as long as it takes. Messages are never dropped, callers don't check the result.
+   */
   @Override
   public <T> ResultPair<T> send(TransportQueueLocal queue, T entity) {
     try {
-      VMQueues.getQueue(queue.getQueue()).put(BeanSerializer.serializeFull(entity));
+      getQueue(queue).put(copy(entity));
       return ResultPair.<T> success();
     } catch (InterruptedException e) {
       logger.error("Failed to send a message to " + queue, e);
+      Thread.currentThread().interrupt();
       return ResultPair.<T>fail("Failed to put to queue " + queue, e);
     }
   }
 
+  @Override
+  public <T> ResultPair<T> sendBatch(TransportQueueLocal queue, List<T> entities) {
+    for (T entity : entities) {
+      ResultPair<T> result = send(queue, entity);
+      if (!result.isSuccess()) {
+        return result;
+      }
+    }
+    return ResultPair.<T> success();
+  }
+
   @Override
   public TransportPluginType getType() {
     return TransportPluginType.LOCAL;
@@ -63,6 +102,20 @@ public class TransportPluginLocal implements TransportPlugin<TransportQueueLocal
     }
   }
   
+  private BlockingQueue<Object> getQueue(TransportQueueLocal queue) {
+    return VMQueues.<Object> getQueue(queue.getQueue(), queueCapacity);
+  }
+  
+  /**
+   * Copies the entity so that the receiver doesn't share mutable state with the sender
+   */
+  private Object copy(Object entity) {
+    if (!serialize && entity instanceof DeepCopyable) {
+      return ((DeepCopyable) entity).deepCopy();
+    }
+    return BeanSerializer.serializeFull(entity);
+  }
+  
   private class Receiver<T> {
 
     private Class<T> clazz;
@@ -76,22 +129,45 @@ public class TransportPluginLocal implements TransportPlugin<TransportQueueLocal
     public Receiver(Class<T> clazz, ReceiveCallback<T> callback, ErrorCallback errorCallback, TransportQueueLocal queue) {
       this.clazz = clazz;
       this.callback = callback;
+      this.errorCallback = errorCallback;
       this.queue = queue;
     }
 
+    /**
+     * Takes messages in batches of up to transport.local.batch_size and handles them one by one.
+     * Failure of one message doesn't stop the receiver.
+     */
     void start() {
+      BlockingQueue<Object> source = getQueue(queue);
+      List<Object> batch = new ArrayList<>(batchSize);
       try {
         while (!isStopped) {
-          String payload = VMQueues.<String> getQueue(queue.getQueue()).take();
-          callback.handleReceive(BeanSerializer.deserialize(payload, clazz));
+          Object first = source.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+          if (first == null) {
+            continue;
+          }
+          batch.add(first);
+          source.drainTo(batch, batchSize - 1);
+
+          for (Object payload : batch) {
+            handle(payload);
+          }
+          batch.clear();
         }
       } catch (InterruptedException e) {
         logger.error("Failed to receive a message from " + queue, e);
         errorCallback.handleError(e);
+      }
+    }
+
+    private void handle(Object payload) {
+      try {
+        T entity = payload instanceof String ? BeanSerializer.deserialize((String) payload, clazz) : clazz.cast(payload);
+        callback.handleReceive(entity);
       } catch (BeanProcessorException e) {
         logger.error("Failed to deserialize message payload", e);
         errorCallback.handleError(e);
-      } catch (TransportPluginException e) {
+      } catch (TransportPluginException | RuntimeException e) {
         logger.error("Failed to handle receive", e);
         errorCallback.handleError(e);
       }
@@ -67,5 +67,21 @@ public class TransportConfigRabbitMQ {
   public static Long getBackendHeartbeatTimeMills(Configuration configuration) {
     return configuration.getLong("rabbitmq.backend.heartbeatTimeMills");
   }
+
+  public static int getChannelPoolSize(Configuration configuration) {
+    return configuration.getInt("rabbitmq.channelPoolSize", 8);
+  }
+
+  public static boolean isPublisherConfirms(Configuration configuration) {
+    return configuration.getBoolean("rabbitmq.publisherConfirms", false);
+  }
+
+  public static long getConfirmTimeoutMills(Configuration configuration) {
+    return configuration.getLong("rabbitmq.confirmTimeoutMills", 10000);
+  }
+
+  public static int getPrefetchCount(Configuration configuration) {
+    return configuration.getInt("rabbitmq.prefetchCount", 100);
+  }
   
 }
@@ -1,25 +1,38 @@
 package org.rabix.transport.mechanism.impl.rabbitmq;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeoutException;
 
 import org.apache.commons.configuration.Configuration;
-import org.rabix.common.json.BeanSerializer;
 import org.rabix.common.json.processor.BeanProcessorException;
+import org.rabix.transport.mechanism.TransportCodec;
 import org.rabix.transport.mechanism.TransportPlugin;
 import org.rabix.transport.mechanism.TransportPluginException;
 import org.rabix.transport.mechanism.TransportPluginType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.rabbitmq.client.AMQP.BasicProperties;
 import com.rabbitmq.client.Channel;
 import com.rabbitmq.client.Connection;
 import com.rabbitmq.client.ConnectionFactory;
-import com.rabbitmq.client.QueueingConsumer;
+import com.rabbitmq.client.DefaultConsumer;
+import com.rabbitmq.client.Envelope;
 
+/**
+ * RabbitMQ transport. Messages are published through a bounded pool of channels, optionally with publisher confirms.
+ * Receivers limit unacknowledged messages with prefetch and acknowledge each message after it has been handled.
+ */
 public class TransportPluginRabbitMQ implements TransportPlugin<TransportQueueRabbitMQ> {
 
   public static final String DEFAULT_ENCODING = "UTF-8";
@@ -33,8 +46,27 @@ public class TransportPluginRabbitMQ implements TransportPlugin<TransportQueueRa
   
   private ExecutorService receiverThreadPool = Executors.newCachedThreadPool();
 
+  private final BlockingQueue<Channel> channels = new LinkedBlockingQueue<>();
+  private final Semaphore channelPermits;
+
+  private final TransportCodec codec;
+
+  private final boolean publisherConfirms;
+  private final long confirmTimeout;
+  private final int prefetchCount;
+
   public TransportPluginRabbitMQ(Configuration configuration) throws TransportPluginException {
-    factory = new ConnectionFactory();
+    this(configuration, new ConnectionFactory());
+  }
+
+  TransportPluginRabbitMQ(Configuration configuration, ConnectionFactory factory) throws TransportPluginException {
+    this.factory = factory;
+
+    codec = TransportCodec.create(configuration);
+    channelPermits = new Semaphore(TransportConfigRabbitMQ.getChannelPoolSize(configuration));
+    publisherConfirms = TransportConfigRabbitMQ.isPublisherConfirms(configuration);
+    confirmTimeout = TransportConfigRabbitMQ.getConfirmTimeoutMills(configuration);
+    prefetchCount = TransportConfigRabbitMQ.getPrefetchCount(configuration);
 
     try {
       if (TransportConfigRabbitMQ.isDev(configuration)) {
@@ -49,7 +81,7 @@ public class TransportPluginRabbitMQ implements TransportPlugin<TransportQueueRa
           factory.useSslProtocol();
         }
       }
-      connection = factory.newConnection();
+      connection = factory.newConnection(receiverThreadPool);
     } catch (Exception e) {
       throw new TransportPluginException("Failed to initialize TransportPluginRabbitMQ", e);
     }
@@ -97,23 +129,81 @@ public class TransportPluginRabbitMQ implements TransportPlugin<TransportQueueRa
 
   @Override
   public <T> ResultPair<T> send(TransportQueueRabbitMQ queue, T entity) {
+    return sendBatch(queue, Collections.singletonList(entity));
+  }
+
+  @Override
+  public <T> ResultPair<T> sendBatch(TransportQueueRabbitMQ queue, List<T> entities) {
+    List<byte[]> payloads = new ArrayList<>(entities.size());
     Channel channel = null;
+    boolean isHealthy = false;
     try {
-      channel = connection.createChannel();
-
-      String payload = BeanSerializer.serializeFull(entity);
-      channel.basicPublish(queue.getExchange(), queue.getRoutingKey(), null, payload.getBytes(DEFAULT_ENCODING));
+      for (T entity : entities) {
+        payloads.add(codec.encode(entity));
+      }
+      channel = borrowChannel();
+      for (byte[] payload : payloads) {
+        channel.basicPublish(queue.getExchange(), queue.getRoutingKey(), null, payload);
+      }
+      if (publisherConfirms) {
+        channel.waitForConfirmsOrDie(confirmTimeout);
+      }
+      isHealthy = true;
       return ResultPair.success();
-    } catch (IOException e) {
+    } catch (IOException | TimeoutException e) {
       logger.error("Failed to send a message to " + queue, e);
       return ResultPair.fail("Failed to send a message to " + queue, e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return ResultPair.fail("Interrupted while sending a message to " + queue, e);
     } finally {
       if (channel != null) {
-        try {
-          channel.close();
-        } catch (Exception ignore) {
+        returnChannel(channel, isHealthy);
+      }
+    }
+  }
+
+  /**
+   * Takes idle channel from the pool or opens a new one. Blocks if all channels are in use.
+   */
+  private Channel borrowChannel() throws IOException, InterruptedException {
+    channelPermits.acquire();
+    try {
+      Channel channel = channels.poll();
+      while (channel != null && !channel.isOpen()) {
+        channel = channels.poll();
+      }
+      if (channel == null) {
+        channel = connection.createChannel();
+        if (publisherConfirms) {
+          channel.confirmSelect();
         }
       }
+      return channel;
+    } catch (IOException | RuntimeException e) {
+      channelPermits.release();
+      throw e;
+    }
+  }
+
+  /**
+   * Puts channel back to the pool. Channels that failed are closed instead.
+   */
+  private void returnChannel(Channel channel, boolean isHealthy) {
+    if (isHealthy && channel.isOpen()) {
+      channels.offer(channel);
+    } else {
+      closeChannel(channel);
+    }
+    channelPermits.release();
+  }
+
+  private void closeChannel(Channel channel) {
+    try {
+      if (channel.isOpen()) {
+        channel.close();
+      }
+    } catch (Exception ignore) {
     }
   }
 
@@ -124,14 +214,9 @@ public class TransportPluginRabbitMQ implements TransportPlugin<TransportQueueRa
 
   @Override
   public <T> void startReceiver(TransportQueueRabbitMQ sourceQueue, Class<T> clazz, ReceiveCallback<T> receiveCallback, ErrorCallback errorCallback) {
-    final Receiver<T> receiver = new Receiver<>(clazz, receiveCallback, errorCallback, sourceQueue);
+    Receiver<T> receiver = new Receiver<>(clazz, receiveCallback, errorCallback, sourceQueue);
     receivers.put(sourceQueue, receiver);
-    receiverThreadPool.submit(new Runnable() {
-      @Override
-      public void run() {
-        receiver.start();
-      }
-    });
+    receiver.start();
   }
   
   @Override
@@ -143,6 +228,9 @@ public class TransportPluginRabbitMQ implements TransportPlugin<TransportQueueRa
     }
   }
 
+  /**
+   * Consumes messages on its own channel. Deliveries are handled on the connection's thread pool.
+   */
   private class Receiver<T> {
 
     private Class<T> clazz;
@@ -151,50 +239,73 @@ public class TransportPluginRabbitMQ implements TransportPlugin<TransportQueueRa
 
     private TransportQueueRabbitMQ queue;
 
-    private volatile boolean isStopped = false;
+    private Channel channel;
+    private String consumerTag;
 
     public Receiver(Class<T> clazz, ReceiveCallback<T> callback, ErrorCallback errorCallback, TransportQueueRabbitMQ queue) {
       this.clazz = clazz;
       this.callback = callback;
+      this.errorCallback = errorCallback;
       this.queue = queue;
     }
 
     void start() {
-      Channel channel = null;
       try {
         channel = connection.createChannel();
+        channel.basicQos(prefetchCount);
 
         String queueName = channel.queueDeclare().getQueue();
         channel.queueBind(queueName, queue.getExchange(), queue.getRoutingKey());
 
-        QueueingConsumer consumer = new QueueingConsumer(channel);
-        channel.basicConsume(queueName, true, consumer);
-        while (!isStopped) {
-          QueueingConsumer.Delivery delivery = consumer.nextDelivery();
-          String message = new String(delivery.getBody());
-          callback.handleReceive(BeanSerializer.deserialize(message, clazz));
+        consumerTag = channel.basicConsume(queueName, false, new DefaultConsumer(channel) {
+          @Override
+          public void handleDelivery(String consumerTag, Envelope envelope, BasicProperties properties, byte[] body) throws IOException {
+            handle(envelope.getDeliveryTag(), body);
+          }
+        });
+      } catch (Exception e) {
+        logger.error("Failed to receive a message from " + queue, e);
+        errorCallback.handleError(e);
+        if (channel != null) {
+          closeChannel(channel);
         }
+      }
+    }
+
+    /**
+     * Acknowledges the message once it's handled. Messages that can't be handled are rejected without requeueing.
+     */
+    private void handle(long deliveryTag, byte[] body) throws IOException {
+      try {
+        callback.handleReceive(codec.decode(body, clazz));
+        channel.basicAck(deliveryTag, false);
       } catch (BeanProcessorException e) {
         logger.error("Failed to deserialize message payload", e);
+        channel.basicNack(deliveryTag, false, false);
         errorCallback.handleError(e);
       } catch (TransportPluginException e) {
         logger.error("Failed to handle receive", e);
+        channel.basicNack(deliveryTag, false, false);
         errorCallback.handleError(e);
-      } catch (Exception e) {
-        logger.error("Failed to receive a message from " + queue, e);
+      } catch (RuntimeException e) {
+        logger.error("Failed to handle receive", e);
+        channel.basicNack(deliveryTag, false, false);
         errorCallback.handleError(e);
-      } finally {
-        if (channel != null) {
-          try {
-            channel.close();
-          } catch (Exception ignore) {
-          }
-        }
       }
     }
 
     void stop() {
-      isStopped = true;
+      if (channel == null) {
+        return;
+      }
+      try {
+        if (consumerTag != null && channel.isOpen()) {
+          channel.basicCancel(consumerTag);
+        }
+      } catch (Exception e) {
+        logger.warn("Failed to cancel consumer for " + queue, e);
+      }
+      closeChannel(channel);
     }
 
   }
@@ -0,0 +1,130 @@
+package org.rabix.transport.mechanism;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+import org.rabix.common.helper.JSONHelper;
+import org.rabix.common.json.BeanSerializer;
+import org.rabix.common.json.processor.BeanProcessorException;
+import org.rabix.transport.backend.HeartbeatInfo;
+import org.rabix.transport.mechanism.TransportCodec.Compression;
+import org.rabix.transport.mechanism.TransportCodec.Format;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+@Test(groups = { "functional" })
+public class TransportCodecTest {
+
+  @Test
+  public void testRoundTrip() throws BeanProcessorException {
+    HeartbeatInfo heartbeat = new HeartbeatInfo("backend", 1000L, 4, 8L, 16384L, 12L);
+    heartbeat.setPrefetchedImages(3L);
+    heartbeat.setFailedPrefetches(1L);
+
+    for (Format format : Format.values()) {
+      for (Compression compression : Compression.values()) {
+        TransportCodec codec = new TransportCodec(format, compression);
+        assertHeartbeat(codec.decode(codec.encode(heartbeat), HeartbeatInfo.class), heartbeat);
+      }
+    }
+  }
+
+  @Test
+  public void testEncodedForm() {
+    HeartbeatInfo heartbeat = new HeartbeatInfo("backend", 1000L);
+
+    String json = new String(new TransportCodec(Format.JSON, Compression.NONE).encode(heartbeat), StandardCharsets.UTF_8);
+    Assert.assertTrue(json.startsWith("{"));
+    Assert.assertFalse(json.contains("\n"), "JSON payload must be compact");
+
+    byte[] smile = new TransportCodec(Format.SMILE, Compression.NONE).encode(heartbeat);
+    Assert.assertEquals(new String(smile, 0, 3, StandardCharsets.US_ASCII), ":)\n");
+  }
+
+  @Test
+  public void testDeflateThreshold() throws BeanProcessorException {
+    List<HeartbeatInfo> small = heartbeats(1);
+    List<HeartbeatInfo> large = heartbeats(200);
+
+    for (Format format : Format.values()) {
+      TransportCodec plain = new TransportCodec(format, Compression.NONE);
+      TransportCodec deflate = new TransportCodec(format, Compression.DEFLATE);
+
+      Assert.assertEquals(deflate.encode(small), plain.encode(small), "Payloads under the threshold are sent as they are");
+
+      byte[] deflated = deflate.encode(large);
+      Assert.assertTrue(deflated.length < plain.encode(large).length);
+      Assert.assertEquals(deflated[0], (byte) 0x78, "Deflated payload starts with zlib header");
+
+      HeartbeatInfo[] decoded = plain.decode(deflated, HeartbeatInfo[].class);
+      Assert.assertEquals(decoded.length, large.size());
+      assertHeartbeat(decoded[199], large.get(199));
+    }
+  }
+
+  @Test
+  public void testLegacyPayloads() throws BeanProcessorException {
+    HeartbeatInfo heartbeat = new HeartbeatInfo("backend", 1000L, 4, 8L, 16384L, 12L);
+
+    String pretty = JSONHelper.writeObject(heartbeat);
+    Assert.assertTrue(pretty.contains("\n"));
+    String serialized = BeanSerializer.serializeFull(heartbeat);
+
+    for (Format format : Format.values()) {
+      for (Compression compression : Compression.values()) {
+        TransportCodec codec = new TransportCodec(format, compression);
+        assertHeartbeat(codec.decode(pretty, HeartbeatInfo.class), heartbeat);
+        assertHeartbeat(codec.decode(serialized, HeartbeatInfo.class), heartbeat);
+        assertHeartbeat(codec.decode("\n  " + pretty, HeartbeatInfo.class), heartbeat);
+      }
+    }
+  }
+
+  @Test(expectedExceptions = BeanProcessorException.class)
+  public void testTruncatedDeflatedPayload() throws BeanProcessorException {
+    TransportCodec codec = new TransportCodec(Format.JSON, Compression.DEFLATE);
+    byte[] deflated = codec.encode(heartbeats(200));
+    byte[] truncated = new byte[deflated.length / 2];
+    System.arraycopy(deflated, 0, truncated, 0, truncated.length);
+    codec.decode(truncated, HeartbeatInfo[].class);
+  }
+
+  @Test
+  public void testConfiguration() {
+    TransportCodec codec = TransportCodec.create(new BaseConfiguration());
+    Assert.assertEquals(codec.getFormat(), Format.JSON);
+    Assert.assertEquals(codec.getCompression(), Compression.NONE);
+    Assert.assertTrue(codec.isPlainText());
+
+    Configuration configuration = new BaseConfiguration();
+    configuration.setProperty("transport.codec.format", "smile");
+    configuration.setProperty("transport.codec.compression", "deflate");
+    codec = TransportCodec.create(configuration);
+    Assert.assertEquals(codec.getFormat(), Format.SMILE);
+    Assert.assertEquals(codec.getCompression(), Compression.DEFLATE);
+    Assert.assertFalse(codec.isPlainText());
+  }
+
+  private List<HeartbeatInfo> heartbeats(int count) {
+    List<HeartbeatInfo> heartbeats = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      heartbeats.add(new HeartbeatInfo("backend-" + i, 1000L + i, i, 8L, 16384L, (long) i));
+    }
+    return heartbeats;
+  }
+
+  private void assertHeartbeat(HeartbeatInfo actual, HeartbeatInfo expected) {
+    Assert.assertEquals(actual.getId(), expected.getId());
+    Assert.assertEquals(actual.getTimestamp(), expected.getTimestamp());
+    Assert.assertEquals(actual.getFreeSlots(), expected.getFreeSlots());
+    Assert.assertEquals(actual.getAvailableCores(), expected.getAvailableCores());
+    Assert.assertEquals(actual.getAvailableMemoryMB(), expected.getAvailableMemoryMB());
+    Assert.assertEquals(actual.getReceivedJobs(), expected.getReceivedJobs());
+    Assert.assertEquals(actual.getPrefetchedImages(), expected.getPrefetchedImages());
+    Assert.assertEquals(actual.getFailedPrefetches(), expected.getFailedPrefetches());
+  }
+
+}
@@ -0,0 +1,329 @@
+package org.rabix.transport.mechanism.impl.rabbitmq;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+import org.rabix.transport.backend.HeartbeatInfo;
+import org.rabix.transport.mechanism.TransportCodec;
+import org.rabix.transport.mechanism.TransportPlugin.ErrorCallback;
+import org.rabix.transport.mechanism.TransportPlugin.ReceiveCallback;
+import org.rabix.transport.mechanism.TransportPlugin.ResultPair;
+import org.rabix.transport.mechanism.TransportPluginException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Connection;
+import com.rabbitmq.client.ConnectionFactory;
+import com.rabbitmq.client.Consumer;
+import com.rabbitmq.client.Envelope;
+
+@Test(groups = { "functional" })
+public class TransportPluginRabbitMQTest {
+
+  private final static Logger logger = LoggerFactory.getLogger(TransportPluginRabbitMQTest.class);
+
+  private final static TransportQueueRabbitMQ QUEUE = new TransportQueueRabbitMQ("engine_exchange", "direct", "heartbeat_routing_key");
+
+  @Test
+  public void testChannelPoolLimit() throws Exception {
+    FakeBroker broker = new FakeBroker();
+    broker.publishMillis = 2;
+    final TransportPluginRabbitMQ plugin = new TransportPluginRabbitMQ(configuration(2, false), broker.factory());
+
+    ExecutorService senders = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Boolean>> results = new ArrayList<>();
+      for (int i = 0; i < 80; i++) {
+        final HeartbeatInfo heartbeat = new HeartbeatInfo("backend", (long) i);
+        results.add(senders.submit(new Callable<Boolean>() {
+          @Override
+          public Boolean call() throws Exception {
+            return plugin.send(QUEUE, heartbeat).isSuccess();
+          }
+        }));
+      }
+      for (Future<Boolean> result : results) {
+        Assert.assertTrue(result.get());
+      }
+    } finally {
+      senders.shutdownNow();
+    }
+    Assert.assertEquals(broker.published.size(), 80);
+    Assert.assertTrue(broker.maxPublishing.get() <= 2, "At most 2 channels may publish at once");
+    Assert.assertTrue(broker.createdChannels.get() <= 2, "Idle channels must be reused");
+    Assert.assertEquals(broker.closedChannels.get(), 0);
+  }
+
+  @Test
+  public void testPublisherConfirms() throws Exception {
+    FakeBroker broker = new FakeBroker();
+    TransportPluginRabbitMQ plugin = new TransportPluginRabbitMQ(configuration(2, true), broker.factory());
+
+    Assert.assertTrue(plugin.sendBatch(QUEUE, heartbeats(3)).isSuccess());
+    Assert.assertTrue(plugin.send(QUEUE, new HeartbeatInfo("backend", 4L)).isSuccess());
+    Assert.assertEquals(broker.published.size(), 4);
+    Assert.assertEquals(broker.confirmSelects.get(), 1);
+    Assert.assertEquals(broker.confirmWaits.get(), 2);
+
+    broker.failConfirms.set(true);
+    ResultPair<HeartbeatInfo> failed = plugin.send(QUEUE, new HeartbeatInfo("backend", 5L));
+    Assert.assertFalse(failed.isSuccess());
+    Assert.assertEquals(broker.closedChannels.get(), 1);
+
+    broker.failConfirms.set(false);
+    Assert.assertTrue(plugin.send(QUEUE, new HeartbeatInfo("backend", 6L)).isSuccess());
+    Assert.assertEquals(broker.createdChannels.get(), 2);
+    Assert.assertEquals(broker.confirmSelects.get(), 2);
+  }
+
+  @Test
+  public void testReceiverAcknowledgements() throws Exception {
+    FakeBroker broker = new FakeBroker();
+    TransportPluginRabbitMQ plugin = new TransportPluginRabbitMQ(configuration(2, false), broker.factory());
+
+    final List<HeartbeatInfo> received = Collections.synchronizedList(new ArrayList<HeartbeatInfo>());
+    final List<Exception> errors = Collections.synchronizedList(new ArrayList<Exception>());
+    plugin.startReceiver(QUEUE, HeartbeatInfo.class, new ReceiveCallback<HeartbeatInfo>() {
+      @Override
+      public void handleReceive(HeartbeatInfo entity) throws TransportPluginException {
+        if (entity.getTimestamp() < 0) {
+          throw new TransportPluginException("Rejected " + entity.getId());
+        }
+        received.add(entity);
+      }
+    }, new ErrorCallback() {
+      @Override
+      public void handleError(Exception error) {
+        errors.add(error);
+      }
+    });
+    Assert.assertEquals(broker.qos.get(), 50);
+    Assert.assertNotNull(broker.consumer);
+
+    TransportCodec codec = new TransportCodec(TransportCodec.Format.JSON, TransportCodec.Compression.NONE);
+    broker.deliver(1, codec.encode(new HeartbeatInfo("backend", 1L)));
+    broker.deliver(2, codec.encode(new HeartbeatInfo("backend", -1L)));
+    broker.deliver(3, "{not json".getBytes(StandardCharsets.UTF_8));
+
+    Assert.assertEquals(received.size(), 1);
+    Assert.assertEquals(broker.acks, Collections.singletonList(1L));
+    Assert.assertEquals(broker.nacks, Arrays.asList(2L, 3L));
+    Assert.assertEquals(errors.size(), 2);
+
+    plugin.stopReceiver(QUEUE);
+    Assert.assertEquals(broker.cancelled.get(), 1);
+  }
+
+  /**
+   * Compares pooled channels with opening and closing a channel for every message, each channel open and close taking one broker round trip
+   */
+  @Test
+  public void testPooledThroughput() throws Exception {
+    int messages = 200;
+
+    FakeBroker broker = new FakeBroker();
+    broker.roundTripMillis = 1;
+    TransportPluginRabbitMQ plugin = new TransportPluginRabbitMQ(configuration(2, false), broker.factory());
+
+    long start = System.nanoTime();
+    for (int i = 0; i < messages; i++) {
+      Assert.assertTrue(plugin.send(QUEUE, new HeartbeatInfo("backend", (long) i)).isSuccess());
+    }
+    double pooled = messages / ((System.nanoTime() - start) / 1e9);
+
+    FakeBroker perMessageBroker = new FakeBroker();
+    perMessageBroker.roundTripMillis = 1;
+    Connection connection = perMessageBroker.factory().newConnection((ExecutorService) null);
+    TransportCodec codec = new TransportCodec(TransportCodec.Format.JSON, TransportCodec.Compression.NONE);
+
+    start = System.nanoTime();
+    for (int i = 0; i < messages; i++) {
+      Channel channel = connection.createChannel();
+      channel.basicPublish(QUEUE.getExchange(), QUEUE.getRoutingKey(), null, codec.encode(new HeartbeatInfo("backend", (long) i)));
+      channel.close();
+    }
+    double perMessage = messages / ((System.nanoTime() - start) / 1e9);
+
+    logger.info("RabbitMQ send throughput: pooled channels {} msg/s, channel per message {} msg/s", (long) pooled, (long) perMessage);
+    Assert.assertEquals(broker.published.size(), messages);
+    Assert.assertTrue(pooled > perMessage * 2, "Pooled " + pooled + " msg/s, channel per message " + perMessage + " msg/s");
+  }
+
+  private Configuration configuration(int channelPoolSize, boolean publisherConfirms) {
+    Configuration configuration = new BaseConfiguration();
+    configuration.setProperty("rabbitmq.host", "localhost");
+    configuration.setProperty("rabbitmq.channelPoolSize", channelPoolSize);
+    configuration.setProperty("rabbitmq.publisherConfirms", publisherConfirms);
+    configuration.setProperty("rabbitmq.prefetchCount", 50);
+    return configuration;
+  }
+
+  private List<HeartbeatInfo> heartbeats(int count) {
+    List<HeartbeatInfo> heartbeats = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      heartbeats.add(new HeartbeatInfo("backend", (long) i));
+    }
+    return heartbeats;
+  }
+
+  /**
+   * In-memory stand-in for a RabbitMQ connection and its channels
+   */
+  private static class FakeBroker {
+
+    private long publishMillis = 0;
+    private long roundTripMillis = 0;
+
+    private final List<byte[]> published = Collections.synchronizedList(new ArrayList<byte[]>());
+    private final AtomicInteger publishing = new AtomicInteger();
+    private final AtomicInteger maxPublishing = new AtomicInteger();
+
+    private final AtomicInteger createdChannels = new AtomicInteger();
+    private final AtomicInteger closedChannels = new AtomicInteger();
+    private final AtomicInteger confirmSelects = new AtomicInteger();
+    private final AtomicInteger confirmWaits = new AtomicInteger();
+    private final AtomicBoolean failConfirms = new AtomicBoolean(false);
+
+    private final AtomicInteger qos = new AtomicInteger();
+    private final AtomicInteger cancelled = new AtomicInteger();
+    private final List<Long> acks = Collections.synchronizedList(new ArrayList<Long>());
+    private final List<Long> nacks = Collections.synchronizedList(new ArrayList<Long>());
+    private volatile Consumer consumer;
+
+    private ConnectionFactory factory() {
+      return new ConnectionFactory() {
+        @Override
+        public Connection newConnection(ExecutorService executor) {
+          return proxy(Connection.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+              switch (method.getName()) {
+              case "createChannel":
+                createdChannels.incrementAndGet();
+                sleep(roundTripMillis);
+                return channel();
+              case "isOpen":
+                return true;
+              default:
+                return defaultValue(method);
+              }
+            }
+          });
+        }
+      };
+    }
+
+    private Channel channel() {
+      final AtomicBoolean open = new AtomicBoolean(true);
+      return proxy(Channel.class, new InvocationHandler() {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+          switch (method.getName()) {
+          case "isOpen":
+            return open.get();
+          case "close":
+            sleep(roundTripMillis);
+            open.set(false);
+            closedChannels.incrementAndGet();
+            return null;
+          case "basicPublish":
+            int current = publishing.incrementAndGet();
+            int max;
+            while (current > (max = maxPublishing.get()) && !maxPublishing.compareAndSet(max, current)) {
+              // retry
+            }
+            sleep(publishMillis);
+            published.add((byte[]) args[args.length - 1]);
+            publishing.decrementAndGet();
+            return null;
+          case "confirmSelect":
+            confirmSelects.incrementAndGet();
+            return null;
+          case "waitForConfirmsOrDie":
+            confirmWaits.incrementAndGet();
+            if (failConfirms.get()) {
+              throw new IOException("Message nacked by broker");
+            }
+            return null;
+          case "basicQos":
+            qos.set((Integer) args[args.length - 1]);
+            return null;
+          case "queueDeclare":
+            return proxy(AMQP.Queue.DeclareOk.class, new InvocationHandler() {
+              @Override
+              public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                return "getQueue".equals(method.getName()) ? "generated_queue" : defaultValue(method);
+              }
+            });
+          case "basicConsume":
+            consumer = (Consumer) args[args.length - 1];
+            return "consumer_tag";
+          case "basicCancel":
+            cancelled.incrementAndGet();
+            return null;
+          case "basicAck":
+            acks.add((Long) args[0]);
+            return null;
+          case "basicNack":
+            Assert.assertFalse((Boolean) args[2], "Failed messages must not be requeued");
+            nacks.add((Long) args[0]);
+            return null;
+          default:
+            return defaultValue(method);
+          }
+        }
+      });
+    }
+
+    private void deliver(long deliveryTag, byte[] body) throws IOException {
+      consumer.handleDelivery("consumer_tag", new Envelope(deliveryTag, false, QUEUE.getExchange(), QUEUE.getRoutingKey()), null, body);
+    }
+
+    private static void sleep(long millis) throws InterruptedException {
+      if (millis > 0) {
+        TimeUnit.MILLISECONDS.sleep(millis);
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> clazz, InvocationHandler handler) {
+      return (T) Proxy.newProxyInstance(FakeBroker.class.getClassLoader(), new Class<?>[] { clazz }, handler);
+    }
+
+    private static Object defaultValue(Method method) {
+      Class<?> type = method.getReturnType();
+      if (type.equals(boolean.class)) {
+        return false;
+      }
+      if (type.equals(int.class)) {
+        return 0;
+      }
+      if (type.equals(long.class)) {
+        return 0L;
+      }
+      return null;
+    }
+
+  }
+
+}